@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy;
+
+import java.io.File;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+
+/**
+ * Local pack of datum: XSD schemas, upgrade stylesheets and their indexes.
+ *
+ * <p>Everything datum publishes at {@code http://datum.zerocracy.com}
+ * may be kept locally, in the same layout, for example
+ * {@code 0.60.3/xsd/pm/claims.xsd} or
+ * {@code latest/upgrades/pm/claims/index.xml}. The pack is looked for
+ * in the directory from the system property {@code datum.dir} first,
+ * and then in the classpath, under {@code com/zerocracy/datum/}. What is
+ * not found in the pack is loaded from the network, as before.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ */
+final class Datum {
+
+    /**
+     * Where datum lives online.
+     */
+    private static final String HOME = "http://datum.zerocracy.com/";
+
+    /**
+     * Local directory with the pack, or empty.
+     */
+    private final String dir;
+
+    /**
+     * Ctor.
+     */
+    Datum() {
+        this(System.getProperty("datum.dir", ""));
+    }
+
+    /**
+     * Ctor.
+     * @param path Local directory with the pack, or empty
+     */
+    Datum(final String path) {
+        this.dir = path;
+    }
+
+    /**
+     * Local copy of the datum resource, if it's in the pack.
+     * @param url URL of the resource, maybe not a datum one
+     * @return Local URL or the same one, if it's not in the pack
+     */
+    public URL local(final URL url) {
+        final String uri = url.toString();
+        URL found = url;
+        if (uri.startsWith(Datum.HOME)) {
+            final String path = uri.substring(Datum.HOME.length());
+            final File file = new File(this.dir, path);
+            if (!this.dir.isEmpty() && file.isFile()) {
+                try {
+                    found = file.toURI().toURL();
+                } catch (final MalformedURLException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            } else {
+                final URL res = Datum.class.getResource(
+                    String.format("datum/%s", path)
+                );
+                if (res != null) {
+                    found = res;
+                }
+            }
+        }
+        return found;
+    }
+
+}
@@ -58,4 +58,22 @@ public interface Project {
      */
     Item acq(String file) throws IOException;
 
+    /**
+     * Acquire an item only for reading.
+     *
+     * <p>The caller promises not to modify the file. Decorators may use
+     * this to take a shared lock instead of an exclusive one, to skip
+     * rules and footprints, and to skip the upload of the content when
+     * the item is closed. By default it is the same as
+     * {@link #acq(String)}.</p>
+     *
+     * @param file File name in the project
+     * @return Item acquired
+     * @throws IOException If fails on I/O
+     * @since 0.22
+     */
+    default Item read(final String file) throws IOException {
+        return this.acq(file);
+    }
+
 }
@@ -0,0 +1,679 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy;
+
+import com.jcabi.aspects.Tv;
+import com.jcabi.xml.StrictXML;
+import com.jcabi.xml.XML;
+import com.jcabi.xml.XMLDocument;
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.SoftReference;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+/**
+ * Cache of parsed and validated XML documents.
+ *
+ * <p>Documents are kept per file, together with the stamp of the file:
+ * its identity (inode), modification time and size, and the digest of
+ * its content. When the stamp changes, the content is read again, but
+ * it is parsed and validated again only if its digest differs too,
+ * so a mere touch of the file, for example by the S3 cache when it
+ * moves the modification time back, doesn't cost a parse. Documents written
+ * by {@link Xocument#modify(Iterable)} are put into the cache right away,
+ * since a quick second write may not change the modification time.</p>
+ *
+ * <p>The cache is bounded by the estimated memory its documents take,
+ * which is a fraction of the heap, least recently used documents are
+ * evicted first. A document takes much more memory than its file: the DOM
+ * is several times bigger and {@link XMLDocument} keeps the document
+ * serialized to a string next to it, that's why the view is created only
+ * when asked for and the size of the file is charged with a factor, see
+ * {@link #weigh(long)}. Documents are also softly referenced, so the garbage
+ * collector may reclaim them when memory is short.</p>
+ *
+ * <p>Documents written by {@link #put(Path, XML, String)} were validated before
+ * they were written, so the cache remembers digests of their content.
+ * When a file with such a content is loaded again, no matter where
+ * it was copied to, it is only parsed, not validated. Other files are
+ * validated against their schemas when loaded. In strict mode every
+ * loaded file is validated, which is what tests need.</p>
+ *
+ * <p>Files may also be marked, for example as bootstrapped. A mark
+ * stays valid while the content of the file doesn't change, any write
+ * makes it invalid.</p>
+ *
+ * <p>Documents are parsed without deferred node expansion, since
+ * they are shared between threads and the deferred DOM modifies
+ * itself while it is being read.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ */
+final class XmlCache {
+
+    /**
+     * Feature of Xerces to expand the DOM lazily.
+     */
+    private static final String DEFER =
+        "http://apache.org/xml/features/dom/defer-node-expansion";
+
+    /**
+     * How many digests of validated content to remember.
+     */
+    private static final int DIGESTS = Tv.THOUSAND * Tv.TEN;
+
+    /**
+     * How many marks of files to remember.
+     */
+    private static final int MARKS = Tv.THOUSAND * Tv.TEN;
+
+    /**
+     * How many times a parsed document, its DOM and its string
+     * together, is bigger than its file.
+     */
+    private static final long FACTOR = 12L;
+
+    /**
+     * Documents per file, in the order of access.
+     */
+    private final Map<Path, XmlCache.Entry> entries;
+
+    /**
+     * Digests of validated content, in the order of access.
+     */
+    private final Map<String, Boolean> validated;
+
+    /**
+     * Marks of files, in the order of access.
+     */
+    private final Map<Path, XmlCache.Mark> marks;
+
+    /**
+     * XSD resolver.
+     */
+    private final XsdResolver resolver;
+
+    /**
+     * Maximum estimated memory of cached documents, in bytes.
+     */
+    private final long budget;
+
+    /**
+     * Validate every loaded file, even if its content was validated before.
+     */
+    private final boolean strict;
+
+    /**
+     * Estimated memory of cached documents, in bytes.
+     */
+    private long weight;
+
+    /**
+     * Ctor.
+     * @param res XSD resolver
+     */
+    XmlCache(final XsdResolver res) {
+        this(res, false);
+    }
+
+    /**
+     * Ctor.
+     * @param res XSD resolver
+     * @param strct Validate every loaded file
+     */
+    XmlCache(final XsdResolver res, final boolean strct) {
+        // @checkstyle MagicNumber (1 line)
+        this(res, Runtime.getRuntime().maxMemory() / 16L, strct);
+    }
+
+    /**
+     * Ctor.
+     * @param res XSD resolver
+     * @param bytes Maximum estimated memory of cached documents, in bytes
+     */
+    XmlCache(final XsdResolver res, final long bytes) {
+        this(res, bytes, false);
+    }
+
+    /**
+     * Ctor.
+     * @param res XSD resolver
+     * @param bytes Maximum estimated memory of cached documents, in bytes
+     * @param strct Validate every loaded file
+     */
+    XmlCache(final XsdResolver res, final long bytes,
+        final boolean strct) {
+        this.entries = new LinkedHashMap<>(0, 0.75f, true);
+        this.validated = new LinkedHashMap<>(0, 0.75f, true);
+        this.marks = new LinkedHashMap<>(0, 0.75f, true);
+        this.resolver = res;
+        this.budget = bytes;
+        this.strict = strct;
+    }
+
+    /**
+     * Get the document, parsed and validated.
+     * @param file The file
+     * @return XML document
+     * @throws FileNotFoundException If the file is absent
+     */
+    public XML xml(final Path file) throws FileNotFoundException {
+        return this.doc(file).xml();
+    }
+
+    /**
+     * Get the DOM of the document, parsed and validated.
+     *
+     * <p>The node is shared, it must not be modified.</p>
+     *
+     * @param file The file
+     * @return DOM document
+     * @throws FileNotFoundException If the file is absent
+     */
+    public Node node(final Path file) throws FileNotFoundException {
+        return this.doc(file).node;
+    }
+
+    /**
+     * Put the document which was just written to the file.
+     * @param file The file
+     * @param xml Its content, already validated
+     * @param digest Digest of the content, see {@link #digest(byte[])}
+     */
+    public void put(final Path file, final XML xml, final String digest) {
+        final Node node = xml.node();
+        try {
+            final XmlCache.Stamp stamp = XmlCache.Stamp.of(file);
+            synchronized (this.entries) {
+                this.validate(digest);
+                this.store(
+                    file, stamp, digest,
+                    new XmlCache.Doc(node, xml)
+                );
+            }
+        } catch (final FileNotFoundException ex) {
+            this.forget(file);
+        }
+    }
+
+    /**
+     * Forget the document.
+     * @param file The file
+     */
+    public void forget(final Path file) {
+        synchronized (this.entries) {
+            final XmlCache.Entry entry = this.entries.remove(file);
+            if (entry != null) {
+                this.weight -= entry.weight;
+            }
+        }
+    }
+
+    /**
+     * Is the file marked with the tag and not changed since then?
+     * @param file The file
+     * @param tag The tag
+     * @return TRUE if it is
+     */
+    public boolean marked(final Path file, final String tag) {
+        boolean marked;
+        try {
+            final XmlCache.Stamp stamp = XmlCache.Stamp.of(file);
+            final XmlCache.Mark mark;
+            synchronized (this.entries) {
+                mark = this.marks.get(file);
+            }
+            marked = mark != null && mark.tag.equals(tag);
+            if (marked && !mark.stamp.equals(stamp)) {
+                marked = mark.digest.equals(
+                    XmlCache.digest(XmlCache.read(file))
+                );
+                if (marked) {
+                    synchronized (this.entries) {
+                        this.marks.replace(
+                            file, mark,
+                            new XmlCache.Mark(stamp, mark.digest, tag)
+                        );
+                    }
+                }
+            }
+        } catch (final FileNotFoundException ex) {
+            marked = false;
+        }
+        return marked;
+    }
+
+    /**
+     * Mark the file, as it is now, with the tag.
+     * @param file The file
+     * @param tag The tag
+     * @throws FileNotFoundException If the file is absent
+     */
+    public void mark(final Path file, final String tag)
+        throws FileNotFoundException {
+        final XmlCache.Mark mark = new XmlCache.Mark(
+            XmlCache.Stamp.of(file),
+            XmlCache.digest(XmlCache.read(file)), tag
+        );
+        synchronized (this.entries) {
+            this.marks.put(file, mark);
+            if (this.marks.size() > XmlCache.MARKS) {
+                final Iterator<Path> eldest = this.marks.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Estimated memory of cached documents.
+     * @return Bytes
+     */
+    public long weight() {
+        synchronized (this.entries) {
+            return this.weight;
+        }
+    }
+
+    /**
+     * Get the document, from the cache or from the file.
+     * @param file The file
+     * @return Document
+     * @throws FileNotFoundException If the file is absent
+     */
+    private XmlCache.Doc doc(final Path file) throws FileNotFoundException {
+        final XmlCache.Stamp stamp = XmlCache.Stamp.of(file);
+        XmlCache.Doc doc;
+        synchronized (this.entries) {
+            doc = this.cached(file, stamp);
+        }
+        if (doc == null) {
+            final byte[] bytes = XmlCache.read(file);
+            final String digest = XmlCache.digest(bytes);
+            synchronized (this.entries) {
+                doc = this.touched(file, stamp, digest);
+            }
+            if (doc == null) {
+                doc = this.load(file, bytes, digest);
+                synchronized (this.entries) {
+                    this.validate(digest);
+                    this.store(file, stamp, digest, doc);
+                }
+            }
+        }
+        return doc;
+    }
+
+    /**
+     * Parse the content and validate it, unless it is known as valid.
+     * @param file The file
+     * @param bytes Its content
+     * @param digest Digest of the content
+     * @return Document
+     */
+    private XmlCache.Doc load(final Path file, final byte[] bytes,
+        final String digest) {
+        final Node node = XmlCache.parse(file, bytes);
+        final boolean known;
+        synchronized (this.entries) {
+            known = this.validated.containsKey(digest);
+        }
+        final XmlCache.Doc doc;
+        if (this.strict || !known) {
+            final XML xml = new XMLDocument(node);
+            doc = new XmlCache.Doc(
+                node, new StrictXML(xml, this.resolver.validator(xml))
+            );
+        } else {
+            doc = new XmlCache.Doc(node);
+        }
+        return doc;
+    }
+
+    /**
+     * Remember the digest of validated content.
+     * @param digest The digest
+     */
+    private void validate(final String digest) {
+        this.validated.put(digest, true);
+        if (this.validated.size() > XmlCache.DIGESTS) {
+            final Iterator<String> eldest = this.validated.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Find the document in the cache, if it's still up to date.
+     * @param file The file
+     * @param stamp Its current stamp
+     * @return Document or NULL if not found
+     */
+    private XmlCache.Doc cached(final Path file,
+        final XmlCache.Stamp stamp) {
+        final XmlCache.Entry entry = this.entries.get(file);
+        XmlCache.Doc doc = null;
+        if (entry != null && entry.stamp.equals(stamp)) {
+            doc = entry.doc.get();
+        }
+        return doc;
+    }
+
+    /**
+     * Find the document in the cache, if only the stamp of the file
+     * changed, but not its content, and stamp it again.
+     * @param file The file
+     * @param stamp Its current stamp
+     * @param digest Digest of its current content
+     * @return Document or NULL if not found
+     */
+    private XmlCache.Doc touched(final Path file,
+        final XmlCache.Stamp stamp, final String digest) {
+        final XmlCache.Entry entry = this.entries.get(file);
+        XmlCache.Doc doc = null;
+        if (entry != null && entry.digest.equals(digest)) {
+            doc = entry.doc.get();
+            if (doc != null) {
+                this.store(file, stamp, digest, doc);
+            }
+        }
+        return doc;
+    }
+
+    /**
+     * Store the document and evict others, if the budget is exceeded.
+     * @param file The file
+     * @param stamp Its stamp
+     * @param digest Digest of its content
+     * @param doc The document
+     */
+    private void store(final Path file, final XmlCache.Stamp stamp,
+        final String digest, final XmlCache.Doc doc) {
+        final XmlCache.Entry entry = new XmlCache.Entry(stamp, digest, doc);
+        if (entry.weight <= this.budget) {
+            this.forget(file);
+            this.entries.put(file, entry);
+            this.weight += entry.weight;
+            final Iterator<XmlCache.Entry> eldest =
+                this.entries.values().iterator();
+            while (this.weight > this.budget) {
+                this.weight -= eldest.next().weight;
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Estimated memory a parsed document takes.
+     * @param bytes Size of its file
+     * @return Bytes
+     */
+    static long weigh(final long bytes) {
+        return bytes * XmlCache.FACTOR;
+    }
+
+    /**
+     * Read the content of the file.
+     * @param file The file
+     * @return Bytes
+     * @throws FileNotFoundException If the file is absent
+     */
+    static byte[] read(final Path file) throws FileNotFoundException {
+        try {
+            return Files.readAllBytes(file);
+        } catch (final NoSuchFileException ex) {
+            throw new FileNotFoundException(ex.getMessage());
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Digest of the content.
+     * @param bytes The content
+     * @return Digest, in Base64
+     */
+    static String digest(final byte[] bytes) {
+        try {
+            return Base64.getEncoder().encodeToString(
+                MessageDigest.getInstance("SHA-256").digest(bytes)
+            );
+        } catch (final NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Parse the content of the file into a fully expanded DOM.
+     * @param file The file
+     * @param bytes Its content
+     * @return DOM document
+     */
+    static Node parse(final Path file, final byte[] bytes) {
+        final DocumentBuilderFactory factory =
+            DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        final InputSource src = new InputSource(
+            new ByteArrayInputStream(bytes)
+        );
+        src.setSystemId(file.toUri().toString());
+        try {
+            factory.setFeature(XmlCache.DEFER, false);
+            return factory.newDocumentBuilder().parse(src);
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (final ParserConfigurationException | SAXException ex) {
+            throw new IllegalArgumentException(
+                String.format("Can't parse %s", file), ex
+            );
+        }
+    }
+
+    /**
+     * Cached document.
+     */
+    private static final class Entry {
+        /**
+         * Stamp of the file.
+         */
+        private final XmlCache.Stamp stamp;
+        /**
+         * Digest of the content of the file.
+         */
+        private final String digest;
+        /**
+         * The document.
+         */
+        private final SoftReference<XmlCache.Doc> doc;
+        /**
+         * Estimated memory of the document, in bytes.
+         */
+        private final long weight;
+        /**
+         * Ctor.
+         * @param stmp Stamp of the file
+         * @param dgst Digest of its content
+         * @param dcm The document
+         */
+        Entry(final XmlCache.Stamp stmp, final String dgst,
+            final XmlCache.Doc dcm) {
+            this.stamp = stmp;
+            this.digest = dgst;
+            this.doc = new SoftReference<>(dcm);
+            this.weight = XmlCache.weigh(stmp.size);
+        }
+    }
+
+    /**
+     * Mark of a file.
+     */
+    private static final class Mark {
+        /**
+         * Stamp of the file, when it was marked.
+         */
+        private final XmlCache.Stamp stamp;
+        /**
+         * Digest of the content of the file, when it was marked.
+         */
+        private final String digest;
+        /**
+         * The tag.
+         */
+        private final String tag;
+        /**
+         * Ctor.
+         * @param stmp Stamp of the file
+         * @param dgst Digest of its content
+         * @param label The tag
+         */
+        Mark(final XmlCache.Stamp stmp, final String dgst,
+            final String label) {
+            this.stamp = stmp;
+            this.digest = dgst;
+            this.tag = label;
+        }
+    }
+
+    /**
+     * Parsed document.
+     *
+     * <p>The view of the DOM as {@link XML} serializes the whole DOM
+     * to a string, that's why it is created only when it's needed.</p>
+     */
+    private static final class Doc {
+        /**
+         * The DOM.
+         */
+        private final Node node;
+        /**
+         * The view of the DOM, or NULL if not created yet.
+         */
+        private XML view;
+        /**
+         * Ctor.
+         * @param dom The DOM
+         */
+        Doc(final Node dom) {
+            this(dom, null);
+        }
+        /**
+         * Ctor.
+         * @param dom The DOM
+         * @param xml Its view, or NULL
+         */
+        Doc(final Node dom, final XML xml) {
+            this.node = dom;
+            this.view = xml;
+        }
+        /**
+         * The view of the DOM.
+         * @return XML document
+         */
+        public synchronized XML xml() {
+            if (this.view == null) {
+                this.view = new XMLDocument(this.node);
+            }
+            return this.view;
+        }
+    }
+
+    /**
+     * Identity, modification time and size of a file.
+     */
+    private static final class Stamp {
+        /**
+         * Identity of the file, or NULL if not available.
+         */
+        private final Object key;
+        /**
+         * Modification time, in nanoseconds.
+         */
+        private final long time;
+        /**
+         * Size in bytes.
+         */
+        private final long size;
+        /**
+         * Ctor.
+         * @param fkey Identity of the file
+         * @param nano Modification time, in nanoseconds
+         * @param bytes Size
+         */
+        Stamp(final Object fkey, final long nano, final long bytes) {
+            this.key = fkey;
+            this.time = nano;
+            this.size = bytes;
+        }
+        @Override
+        public boolean equals(final Object obj) {
+            return this == obj || obj instanceof XmlCache.Stamp
+                && Objects.equals(this.key, XmlCache.Stamp.class.cast(obj).key)
+                && this.time == XmlCache.Stamp.class.cast(obj).time
+                && this.size == XmlCache.Stamp.class.cast(obj).size;
+        }
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.key, this.time, this.size);
+        }
+        /**
+         * Read the stamp of the file.
+         * @param file The file
+         * @return Stamp
+         * @throws FileNotFoundException If the file is absent
+         */
+        static XmlCache.Stamp of(final Path file)
+            throws FileNotFoundException {
+            try {
+                final BasicFileAttributes attrs = Files.readAttributes(
+                    file, BasicFileAttributes.class
+                );
+                return new XmlCache.Stamp(
+                    attrs.fileKey(),
+                    attrs.lastModifiedTime().to(TimeUnit.NANOSECONDS),
+                    attrs.size()
+                );
+            } catch (final NoSuchFileException ex) {
+                throw new FileNotFoundException(ex.getMessage());
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+}
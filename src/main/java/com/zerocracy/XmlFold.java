@@ -0,0 +1,232 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.cactoos.BiFunc;
+import org.cactoos.func.IoCheckedBiFunc;
+
+/**
+ * Streaming fold of records of an XML document.
+ *
+ * <p>A record is an element with the given absolute path, for example
+ * {@code /ledger/balance/account}. Each record is presented as a map of
+ * texts of its child elements by their names, and its attributes, by
+ * their names prefixed with {@code @}. When a child element is met more
+ * than once, the first one wins. Deeper elements are not visible.</p>
+ *
+ * <p>The document is read with StAX, neither parsed into a DOM
+ * nor validated, so the memory needed doesn't depend on the size of the
+ * document. It's the right way to sum up, count or find maximums
+ * in documents which only grow, like ledgers and awards.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ */
+final class XmlFold {
+
+    /**
+     * StAX factory.
+     */
+    private static final XMLInputFactory FACTORY = XmlFold.factory();
+
+    /**
+     * Absolute path of records.
+     */
+    private final String records;
+
+    /**
+     * Ctor.
+     * @param path Absolute path of records, e.g. "/awards/award"
+     */
+    XmlFold(final String path) {
+        this.records = path;
+    }
+
+    /**
+     * Fold records of the file.
+     * @param file The file
+     * @param init Initial value
+     * @param func Function of the value so far and the next record
+     * @param <T> Type of the value
+     * @return The value after all records
+     * @throws IOException If fails
+     */
+    public <T> T apply(final Path file, final T init,
+        final BiFunc<T, Map<String, String>, T> func) throws IOException {
+        final IoCheckedBiFunc<T, Map<String, String>, T> fnc =
+            new IoCheckedBiFunc<>(func);
+        final XmlFold.Scan scan = new XmlFold.Scan(this.records);
+        T value = init;
+        try (final InputStream input = Files.newInputStream(file)) {
+            final XMLStreamReader reader =
+                XmlFold.FACTORY.createXMLStreamReader(input);
+            try {
+                while (reader.hasNext()) {
+                    final Map<String, String> record = scan.next(reader);
+                    if (record != null) {
+                        value = fnc.apply(value, record);
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (final XMLStreamException ex) {
+            throw new IllegalArgumentException(
+                String.format("Can't parse %s", file), ex
+            );
+        }
+        return value;
+    }
+
+    /**
+     * Make a StAX factory, which ignores DTDs and external entities.
+     * @return Factory
+     */
+    private static XMLInputFactory factory() {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(
+            XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false
+        );
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    /**
+     * State of the scan of one document.
+     */
+    private static final class Scan {
+        /**
+         * Absolute path of records.
+         */
+        private final String records;
+        /**
+         * Path of the current element.
+         */
+        private final StringBuilder xpath;
+        /**
+         * Lengths of the path of parent elements.
+         */
+        private final Deque<Integer> parents;
+        /**
+         * Text of the current child of the record.
+         */
+        private final StringBuilder text;
+        /**
+         * Current record or NULL if outside of any.
+         */
+        private Map<String, String> record;
+        /**
+         * Depth of the current record.
+         */
+        private int depth;
+        /**
+         * Name of the current child of the record.
+         */
+        private String child;
+        /**
+         * Ctor.
+         * @param path Absolute path of records
+         */
+        Scan(final String path) {
+            this.records = path;
+            this.xpath = new StringBuilder(0);
+            this.parents = new ArrayDeque<>(0);
+            this.text = new StringBuilder(0);
+        }
+        /**
+         * Move to the next event.
+         * @param reader The reader
+         * @return Record, if it was just completed, or NULL
+         * @throws XMLStreamException If fails
+         */
+        public Map<String, String> next(final XMLStreamReader reader)
+            throws XMLStreamException {
+            final int event = reader.next();
+            Map<String, String> done = null;
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                this.start(reader);
+            } else if (event == XMLStreamConstants.CHARACTERS
+                || event == XMLStreamConstants.CDATA) {
+                if (this.record != null
+                    && this.parents.size() == this.depth + 1) {
+                    this.text.append(reader.getText());
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                done = this.end();
+            }
+            return done;
+        }
+        /**
+         * Start of an element.
+         * @param reader The reader
+         */
+        private void start(final XMLStreamReader reader) {
+            this.parents.push(this.xpath.length());
+            this.xpath.append('/').append(reader.getLocalName());
+            if (this.record == null) {
+                if (this.records.contentEquals(this.xpath)) {
+                    this.record = new HashMap<>(0);
+                    for (int idx = 0; idx < reader.getAttributeCount();
+                        ++idx) {
+                        this.record.put(
+                            String.format(
+                                "@%s", reader.getAttributeLocalName(idx)
+                            ),
+                            reader.getAttributeValue(idx)
+                        );
+                    }
+                    this.depth = this.parents.size();
+                }
+            } else if (this.parents.size() == this.depth + 1) {
+                this.child = reader.getLocalName();
+                this.text.setLength(0);
+            }
+        }
+        /**
+         * End of an element.
+         * @return Record, if it was just completed, or NULL
+         */
+        private Map<String, String> end() {
+            Map<String, String> done = null;
+            if (this.record != null) {
+                if (this.parents.size() == this.depth + 1) {
+                    this.record.putIfAbsent(this.child, this.text.toString());
+                } else if (this.parents.size() == this.depth) {
+                    done = this.record;
+                    this.record = null;
+                }
+            }
+            this.xpath.setLength(this.parents.pop());
+            return done;
+        }
+    }
+
+}
@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy;
+
+import com.jcabi.xml.XML;
+import com.jcabi.xml.XMLDocument;
+import com.jcabi.xml.XPathContext;
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * XML view of a live DOM.
+ *
+ * <p>Unlike {@link XMLDocument}, which serializes the whole DOM
+ * to a string when it is constructed, the view queries the DOM as it is,
+ * so it sees all modifications made to it and costs nothing to create.
+ * Queries behave the same way as in {@link XMLDocument}: found nodes
+ * are views of the same DOM and the same namespaces are registered
+ * by default. The DOM is serialized only in {@link #toString()}.</p>
+ *
+ * <p>The class is not thread-safe, as the DOM it is backed by.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ */
+final class XmlView implements XML {
+
+    /**
+     * XPath factory.
+     */
+    private static final XPathFactory FACTORY = XPathFactory.newInstance();
+
+    /**
+     * The DOM.
+     */
+    private final Node dom;
+
+    /**
+     * Namespaces.
+     */
+    private final XPathContext context;
+
+    /**
+     * Ctor.
+     * @param node The DOM
+     */
+    XmlView(final Node node) {
+        this(node, new XPathContext());
+    }
+
+    /**
+     * Ctor.
+     * @param node The DOM
+     * @param ctx Namespaces
+     */
+    XmlView(final Node node, final XPathContext ctx) {
+        this.dom = node;
+        this.context = ctx;
+    }
+
+    @Override
+    public List<String> xpath(final String query) {
+        List<String> texts;
+        try {
+            final NodeList nodes = NodeList.class.cast(
+                this.eval(query, XPathConstants.NODESET)
+            );
+            texts = new ArrayList<>(nodes.getLength());
+            for (int idx = 0; idx < nodes.getLength(); ++idx) {
+                final Node item = nodes.item(idx);
+                if (item.getNodeType() != Node.TEXT_NODE
+                    && item.getNodeType() != Node.ATTRIBUTE_NODE
+                    && item.getNodeType() != Node.CDATA_SECTION_NODE) {
+                    throw new IllegalArgumentException(
+                        String.format(
+                            // @checkstyle LineLength (1 line)
+                            "Only text() nodes or attributes are retrievable with xpath() \"%s\": %d",
+                            query, item.getNodeType()
+                        )
+                    );
+                }
+                texts.add(item.getNodeValue());
+            }
+        } catch (final XPathExpressionException ex) {
+            try {
+                texts = new ArrayList<>(1);
+                texts.add(
+                    String.class.cast(this.eval(query, XPathConstants.STRING))
+                );
+            } catch (final XPathExpressionException err) {
+                throw new IllegalArgumentException(
+                    String.format("Invalid XPath query \"%s\"", query), err
+                );
+            }
+        }
+        return texts;
+    }
+
+    @Override
+    public List<XML> nodes(final String query) {
+        try {
+            final NodeList nodes = NodeList.class.cast(
+                this.eval(query, XPathConstants.NODESET)
+            );
+            final List<XML> items = new ArrayList<>(nodes.getLength());
+            for (int idx = 0; idx < nodes.getLength(); ++idx) {
+                items.add(new XmlView(nodes.item(idx), this.context));
+            }
+            return items;
+        } catch (final XPathExpressionException ex) {
+            throw new IllegalArgumentException(
+                String.format("Invalid XPath query \"%s\"", query), ex
+            );
+        }
+    }
+
+    @Override
+    public XML registerNs(final String prefix, final Object uri) {
+        return new XmlView(this.dom, this.context.add(prefix, uri));
+    }
+
+    @Override
+    public XML merge(final NamespaceContext ctx) {
+        return new XmlView(this.dom, this.context.merge(ctx));
+    }
+
+    @Override
+    public Node node() {
+        return this.dom.cloneNode(true);
+    }
+
+    @Override
+    public String toString() {
+        return new XMLDocument(this.dom).toString();
+    }
+
+    /**
+     * Evaluate the query.
+     * @param query The query
+     * @param type Expected type of the result
+     * @return The result
+     * @throws XPathExpressionException If fails
+     */
+    private Object eval(final String query, final QName type)
+        throws XPathExpressionException {
+        final XPath xpath;
+        synchronized (XmlView.FACTORY) {
+            xpath = XmlView.FACTORY.newXPath();
+        }
+        xpath.setNamespaceContext(this.context);
+        return xpath.evaluate(query, this.dom, type);
+    }
+
+}
@@ -20,28 +20,35 @@ import com.jcabi.log.Logger;
 import com.jcabi.xml.StrictXML;
 import com.jcabi.xml.XML;
 import com.jcabi.xml.XMLDocument;
-import com.jcabi.xml.XSL;
-import com.jcabi.xml.XSLDocument;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.apache.commons.lang3.StringUtils;
+import org.cactoos.BiFunc;
+import org.cactoos.Func;
 import org.cactoos.Scalar;
+import org.cactoos.func.IoCheckedFunc;
 import org.cactoos.func.SolidFunc;
 import org.cactoos.func.UncheckedFunc;
 import org.cactoos.io.InputOf;
-import org.cactoos.io.InputStreamOf;
 import org.cactoos.io.InputWithFallback;
 import org.cactoos.io.LengthOf;
 import org.cactoos.io.TeeInput;
 import org.cactoos.list.SolidList;
+import org.cactoos.map.MapEntry;
+import org.cactoos.map.MapOf;
 import org.cactoos.scalar.Reduced;
 import org.cactoos.scalar.Ternary;
 import org.cactoos.scalar.UncheckedScalar;
@@ -49,7 +56,6 @@ import org.cactoos.text.TextOf;
 import org.cactoos.text.UncheckedText;
 import org.cactoos.time.DateAsText;
 import org.w3c.dom.Node;
-import org.w3c.dom.ls.LSResourceResolver;
 import org.xembly.Directive;
 import org.xembly.Directives;
 import org.xembly.Xembler;
@@ -89,14 +95,42 @@ public final class Xocument {
     /**
      * Compressing XSL.
      */
-    private static final XSL COMPRESS = XSLDocument.make(
+    private static final XslPool COMPRESS = new XslPool(
         Xocument.class.getResource("compress.xsl")
     );
 
+    /**
+     * Compiled upgrading XSLs, by their URLs.
+     */
+    private static final Map<String, XslPool> UPGRADES =
+        new ConcurrentHashMap<>(0);
+
+    /**
+     * Local pack of datum.
+     */
+    private static final Datum DATUM = new Datum();
+
     /**
      * XSD resolver.
      */
-    private static final LSResourceResolver RESOLVER = new XsdResolver();
+    private static final XsdResolver RESOLVER = new XsdResolver();
+
+    /**
+     * Cache of parsed and validated documents.
+     *
+     * <p>Documents are validated when they are written, loaded documents
+     * which were validated before are only parsed. Set the system property
+     * {@code xocument.strict} to {@code true} to validate every loaded
+     * document, as tests do.</p>
+     */
+    private static final XmlCache CACHE = new XmlCache(
+        Xocument.RESOLVER, Boolean.getBoolean("xocument.strict")
+    );
+
+    /**
+     * Compiled XPath queries.
+     */
+    private static final Xpaths XPATHS = new Xpaths();
 
     /**
      * File.
@@ -144,41 +178,11 @@ public final class Xocument {
      */
     public Xocument bootstrap(final String xsd)
         throws IOException {
-        final String root = StringUtils.substringAfterLast(xsd, "/");
-        final String uri = Xocument.url(
-            String.format("/%s/xsd/%s.xsd", Xocument.VERSION, xsd)
-        ).toString();
         final Path path = this.file.value();
-        if (!Files.exists(path) || Files.size(path) == 0L) {
-            Files.write(
-                path,
-                String.join(
-                    " ",
-                    String.format("<%s", root),
-                    String.format("version='%s'", Xocument.VERSION),
-                    String.format("updated='%s'", new DateAsText().asString()),
-                    "xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance'",
-                    String.format(
-                        "xsi:noNamespaceSchemaLocation='%s'/>", uri
-                    )
-                ).getBytes(StandardCharsets.UTF_8),
-                StandardOpenOption.CREATE
-            );
-        }
-        final XML xml = this.upgraded(new XMLDocument(path.toFile()), xsd);
-        final String schema = xml.xpath(
-            String.format("/%s/@xsi:noNamespaceSchemaLocation", root)
-        ).get(0);
-        if (!schema.equals(uri)) {
-            this.modify(
-                new Directives().xpath(String.format("/%s", root)).attr(
-                    "xsi:noNamespaceSchemaLocation", uri
-                )
-            );
-            Logger.info(
-                this, "XSD upgraded to \"%s\" in %s", uri,
-                this.file.value().getFileName()
-            );
+        final String tag = String.format("%s %s", Xocument.VERSION, xsd);
+        if (!Xocument.CACHE.marked(path, tag)) {
+            this.boot(xsd);
+            Xocument.CACHE.mark(path, tag);
         }
         return this;
     }
@@ -190,11 +194,7 @@ public final class Xocument {
      * @throws FileNotFoundException If fails
      */
     public List<String> xpath(final String xpath) throws FileNotFoundException {
-        final XML xml = new StrictXML(
-            new XMLDocument(this.file.value().toFile()),
-            Xocument.RESOLVER
-        );
-        return xml.xpath(xpath);
+        return Xocument.CACHE.xml(this.file.value()).xpath(xpath);
     }
 
     /**
@@ -206,22 +206,7 @@ public final class Xocument {
      */
     public String xpath(final String xpath, final String def)
         throws FileNotFoundException {
-        final List<String> vals = this.xpath(xpath);
-        if (vals.size() > 1) {
-            throw new IllegalStateException(
-                String.format(
-                    "Too many values (%d) for XPath \"%s\"",
-                    vals.size(), xpath
-                )
-            );
-        }
-        final String val;
-        if (vals.isEmpty()) {
-            val = def;
-        } else {
-            val = vals.get(0);
-        }
-        return val;
+        return Xocument.single(this.xpath(xpath), xpath, def);
     }
 
     /**
@@ -231,30 +216,209 @@ public final class Xocument {
      * @throws FileNotFoundException If fails
      */
     public List<XML> nodes(final String xpath) throws FileNotFoundException {
-        final XML xml = new StrictXML(
-            new XMLDocument(this.file.value().toFile()),
-            Xocument.RESOLVER
+        return Xocument.CACHE.xml(this.file.value()).nodes(xpath);
+    }
+
+    /**
+     * Query it with variables.
+     *
+     * <p>The query is compiled once and may refer to variables, for example
+     * {@code /people/person[@id=$uid]/reputation/text()}, which
+     * are bound to the values provided.</p>
+     *
+     * @param xpath Query string
+     * @param args Values of variables
+     * @return Found texts
+     * @throws FileNotFoundException If fails
+     * @since 0.22
+     */
+    public List<String> xpath(final String xpath, final Map<String, ?> args)
+        throws FileNotFoundException {
+        return Xocument.XPATHS.texts(
+            Xocument.CACHE.node(this.file.value()), xpath, args
+        );
+    }
+
+    /**
+     * Query it with variables.
+     * @param xpath Query string
+     * @param args Values of variables
+     * @param def Default one if nothing found
+     * @return Found text
+     * @throws FileNotFoundException If fails
+     * @since 0.22
+     */
+    public String xpath(final String xpath, final Map<String, ?> args,
+        final String def) throws FileNotFoundException {
+        return Xocument.single(this.xpath(xpath, args), xpath, def);
+    }
+
+    /**
+     * Calculate a number, with variables.
+     *
+     * <p>For example, {@code sum(/awards/award[@job=$job]/points)}.</p>
+     *
+     * @param xpath Query string
+     * @param args Values of variables
+     * @return The number, NaN if the result is not a number
+     * @throws FileNotFoundException If fails
+     * @since 0.22
+     */
+    public double number(final String xpath, final Map<String, ?> args)
+        throws FileNotFoundException {
+        return Xocument.XPATHS.number(
+            Xocument.CACHE.node(this.file.value()), xpath, args
         );
-        return xml.nodes(xpath);
+    }
+
+    /**
+     * Fold records of the document, streaming it.
+     *
+     * <p>Records are elements with the given absolute path, for example
+     * {@code /awards/award}. Each one is given to the function as a map
+     * of texts of its child elements and its attributes, prefixed
+     * with {@code @}. The document is not loaded into memory, which
+     * makes it the cheapest way to aggregate large documents.</p>
+     *
+     * @param records Absolute path of records
+     * @param init Initial value
+     * @param func Function of the value so far and the next record
+     * @param <T> Type of the value
+     * @return The value after all records
+     * @throws IOException If fails
+     * @since 0.22
+     */
+    public <T> T fold(final String records, final T init,
+        final BiFunc<T, Map<String, String>, T> func) throws IOException {
+        return new XmlFold(records).apply(this.file.value(), init, func);
     }
 
     /**
      * Modify it.
+     *
+     * <p>The file is parsed once, directives are applied to its DOM,
+     * which is then compressed and validated. The file is written only
+     * if its content changed.</p>
+     *
      * @param dirs Directives
      */
     public void modify(final Iterable<Directive> dirs) {
-        final XML before = new XMLDocument(this.toString());
-        final Node node = before.node();
+        final byte[] before = this.content();
+        final Node node = XmlCache.parse(this.file.value(), before);
         new Xembler(dirs).applyQuietly(node);
+        this.save(before, node);
+    }
+
+    /**
+     * Modify it with a batch of changes, in one pass.
+     *
+     * <p>Every change gets the document as it is after all previous
+     * changes and returns directives to apply to it. The document is
+     * compressed, validated and written only once, after all changes,
+     * so either all of them are saved or none of them. Changes see
+     * the document through a view of its DOM, which is not serialized
+     * for each of them, see {@link XmlView}.</p>
+     *
+     * @param changes Changes
+     * @throws IOException If any of them fails
+     * @since 0.22
+     */
+    public void batch(final Iterable<Func<XML, Iterable<Directive>>> changes)
+        throws IOException {
+        final byte[] before = this.content();
+        final Node node = XmlCache.parse(this.file.value(), before);
+        for (final Func<XML, Iterable<Directive>> change : changes) {
+            new Xembler(
+                new IoCheckedFunc<>(change).apply(new XmlView(node))
+            ).applyQuietly(node);
+        }
+        this.save(before, node);
+    }
+
+    /**
+     * Current content of the file.
+     * @return Bytes
+     */
+    private byte[] content() {
+        try {
+            return XmlCache.read(this.file.value());
+        } catch (final FileNotFoundException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Compress, validate and save the modified document, if it
+     * differs from what was in the file.
+     * @param before Content of the file before modifications
+     * @param node Modified document
+     */
+    private void save(final byte[] before, final Node node) {
+        final XML compressed = new XMLDocument(
+            Xocument.COMPRESS.transform(
+                node,
+                new MapOf<String, Object>(
+                    new MapEntry<>("version", Xocument.VERSION)
+                )
+            )
+        );
         final XML xml = new StrictXML(
-            Xocument.COMPRESS.with(
-                "version", Xocument.VERSION
-            ).transform(new XMLDocument(node)),
-            Xocument.RESOLVER
+            compressed, Xocument.RESOLVER.validator(compressed)
         );
-        final String after = xml.toString();
-        if (!before.toString().equals(after)) {
-            new LengthOf(new TeeInput(after, this.file.value())).intValue();
+        final byte[] after = xml.toString().getBytes(StandardCharsets.UTF_8);
+        if (!Arrays.equals(before, after)) {
+            final Path path = this.file.value();
+            try {
+                Files.write(path, after);
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            Xocument.CACHE.put(path, xml, XmlCache.digest(after));
+        }
+    }
+
+    /**
+     * Create, upgrade and point to the right XSD, if necessary.
+     * @param xsd Path of XSD
+     * @throws IOException If fails
+     */
+    private void boot(final String xsd) throws IOException {
+        final String root = StringUtils.substringAfterLast(xsd, "/");
+        final String uri = Xocument.url(
+            String.format("/%s/xsd/%s.xsd", Xocument.VERSION, xsd)
+        ).toString();
+        final Path path = this.file.value();
+        if (!Files.exists(path) || Files.size(path) == 0L) {
+            Files.write(
+                path,
+                String.join(
+                    " ",
+                    String.format("<%s", root),
+                    String.format("version='%s'", Xocument.VERSION),
+                    String.format("updated='%s'", new DateAsText().asString()),
+                    "xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance'",
+                    String.format(
+                        "xsi:noNamespaceSchemaLocation='%s'/>", uri
+                    )
+                ).getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE
+            );
+            Xocument.CACHE.forget(path);
+        }
+        final XML xml = this.upgraded(new XMLDocument(path.toFile()), xsd);
+        final String schema = xml.xpath(
+            String.format("/%s/@xsi:noNamespaceSchemaLocation", root)
+        ).get(0);
+        if (!schema.equals(uri)) {
+            this.modify(
+                new Directives().xpath(String.format("/%s", root)).attr(
+                    "xsi:noNamespaceSchemaLocation", uri
+                )
+            );
+            Logger.info(
+                this, "XSD upgraded to \"%s\" in %s", uri,
+                this.file.value().getFileName()
+            );
         }
     }
 
@@ -278,43 +442,78 @@ public final class Xocument {
         if (version.equals(Xocument.VERSION)) {
             after = xml;
         } else {
-            after = new UncheckedScalar<>(
-                new Reduced<>(
-                    xml,
-                    (input, node) -> {
-                        XML output = input;
-                        final String ver = node.xpath("@order").get(0);
-                        if (Xocument.compare(ver, version) > 0
-                            && Xocument.compare(ver, Xocument.VERSION) <= 0) {
-                            final URL url = new URL(node.xpath("@uri").get(0));
-                            output = XSLDocument.make(
-                                new InputStreamOf(url)
-                            ).transform(input);
-                            Logger.info(
-                                this,
-                                "XML %s.xml upgraded to \"%s\" by %s in %s",
-                                xsd, ver, url, this.file.value().getFileName()
-                            );
-                        }
-                        return output;
-                    },
-                    Xocument.INDEXES.apply(
-                        Xocument.url(
-                            String.format(
-                                "/latest/upgrades/%s/index.xml",
-                                xsd
+            after = new XMLDocument(
+                new UncheckedScalar<>(
+                    new Reduced<>(
+                        xml.node(),
+                        (input, entry) -> {
+                            Node output = input;
+                            final String ver = entry.xpath("@order").get(0);
+                            if (Xocument.compare(ver, version) > 0
+                                && Xocument.compare(ver, Xocument.VERSION)
+                                <= 0) {
+                                final URL url = Xocument.DATUM.local(
+                                    new URL(entry.xpath("@uri").get(0))
+                                );
+                                output = Xocument.UPGRADES.computeIfAbsent(
+                                    url.toString(), key -> new XslPool(url)
+                                ).transform(input, Collections.emptyMap());
+                                Logger.info(
+                                    this,
+                                    "XML %s.xml upgraded to \"%s\" by %s in %s",
+                                    xsd, ver, url,
+                                    this.file.value().getFileName()
+                                );
+                            }
+                            return output;
+                        },
+                        Xocument.INDEXES.apply(
+                            Xocument.DATUM.local(
+                                Xocument.url(
+                                    String.format(
+                                        "/latest/upgrades/%s/index.xml",
+                                        xsd
+                                    )
+                                )
                             )
-                        )
-                    ).nodes("/index/entry[@dir='false']")
-                )
-            ).value();
+                        ).nodes("/index/entry[@dir='false']")
+                    )
+                ).value()
+            );
             new LengthOf(
                 new TeeInput(after.toString(), this.file.value())
             ).intValue();
+            Xocument.CACHE.forget(this.file.value());
         }
         return after;
     }
 
+    /**
+     * The only value found, or the default one.
+     * @param vals Values found
+     * @param xpath Query string
+     * @param def Default one if nothing found
+     * @return Found text
+     */
+    private static String single(final List<String> vals, final String xpath,
+        final String def) {
+        if (vals.size() > 1) {
+            throw new IllegalStateException(
+                String.format(
+                    "Too many values (%d) for XPath \"%s\"",
+                    vals.size(), xpath
+                )
+            );
+        }
+        final String val;
+        if (vals.isEmpty()) {
+            val = def;
+        } else {
+            val = vals.get(0);
+        }
+        return val;
+    }
+
     /**
      * Build URL.
      * @param path Path
@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy;
+
+import com.jcabi.aspects.Tv;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.namespace.QName;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Compiled XPath queries with variables.
+ *
+ * <p>Every query is compiled once and then evaluated many times, with
+ * different values of its variables, for example
+ * {@code /people/person[@id=$uid]/reputation/text()}. Values are
+ * never interpolated into the query, so they don't need any escaping.
+ * Compiled expressions are not thread-safe, that's why each thread
+ * has its own ones. Numbers are bound as XPath numbers, everything else
+ * as is: strings, booleans or node lists.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ */
+final class Xpaths {
+
+    /**
+     * Compiled expressions per query, per thread.
+     */
+    private final ThreadLocal<Map<String, XPathExpression>> compiled;
+
+    /**
+     * Values of variables of the current evaluation, per thread.
+     */
+    private final ThreadLocal<Map<String, ?>> values;
+
+    /**
+     * Ctor.
+     */
+    Xpaths() {
+        this.compiled = ThreadLocal.withInitial(HashMap::new);
+        this.values = ThreadLocal.withInitial(Collections::emptyMap);
+    }
+
+    /**
+     * Find texts of text nodes and attributes.
+     * @param node The node to search in
+     * @param query The query
+     * @param args Values of variables
+     * @return Found texts
+     */
+    public List<String> texts(final Node node, final String query,
+        final Map<String, ?> args) {
+        List<String> texts;
+        try {
+            final NodeList nodes = NodeList.class.cast(
+                this.eval(node, query, args, XPathConstants.NODESET)
+            );
+            texts = new ArrayList<>(nodes.getLength());
+            for (int idx = 0; idx < nodes.getLength(); ++idx) {
+                final Node item = nodes.item(idx);
+                if (item.getNodeType() != Node.TEXT_NODE
+                    && item.getNodeType() != Node.ATTRIBUTE_NODE
+                    && item.getNodeType() != Node.CDATA_SECTION_NODE) {
+                    throw new IllegalArgumentException(
+                        String.format(
+                            // @checkstyle LineLength (1 line)
+                            "Only text() nodes or attributes are retrievable with \"%s\": %d",
+                            query, item.getNodeType()
+                        )
+                    );
+                }
+                texts.add(item.getNodeValue());
+            }
+        } catch (final XPathExpressionException ex) {
+            texts = Collections.singletonList(this.text(node, query, args));
+        }
+        return texts;
+    }
+
+    /**
+     * Evaluate the query to a string.
+     * @param node The node to search in
+     * @param query The query
+     * @param args Values of variables
+     * @return The text
+     */
+    public String text(final Node node, final String query,
+        final Map<String, ?> args) {
+        try {
+            return String.class.cast(
+                this.eval(node, query, args, XPathConstants.STRING)
+            );
+        } catch (final XPathExpressionException ex) {
+            throw new IllegalArgumentException(
+                String.format("Invalid XPath query \"%s\"", query), ex
+            );
+        }
+    }
+
+    /**
+     * Evaluate the query to a number.
+     * @param node The node to search in
+     * @param query The query
+     * @param args Values of variables
+     * @return The number, NaN if it's not a number
+     */
+    public double number(final Node node, final String query,
+        final Map<String, ?> args) {
+        try {
+            return Double.class.cast(
+                this.eval(node, query, args, XPathConstants.NUMBER)
+            );
+        } catch (final XPathExpressionException ex) {
+            throw new IllegalArgumentException(
+                String.format("Invalid XPath query \"%s\"", query), ex
+            );
+        }
+    }
+
+    /**
+     * Evaluate the query.
+     * @param node The node to search in
+     * @param query The query
+     * @param args Values of variables
+     * @param type Expected type of the result
+     * @return The result
+     * @throws XPathExpressionException If fails
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private Object eval(final Node node, final String query,
+        final Map<String, ?> args, final QName type)
+        throws XPathExpressionException {
+        final Map<String, XPathExpression> exprs = this.compiled.get();
+        XPathExpression expr = exprs.get(query);
+        if (expr == null) {
+            final XPath xpath = XPathFactory.newInstance().newXPath();
+            xpath.setXPathVariableResolver(
+                name -> {
+                    final Object value = this.values.get()
+                        .get(name.getLocalPart());
+                    if (value == null) {
+                        throw new IllegalArgumentException(
+                            String.format(
+                                "Variable $%s is not set for \"%s\"",
+                                name.getLocalPart(), query
+                            )
+                        );
+                    }
+                    final Object val;
+                    if (value instanceof Number) {
+                        val = Number.class.cast(value).doubleValue();
+                    } else {
+                        val = value;
+                    }
+                    return val;
+                }
+            );
+            expr = xpath.compile(query);
+            if (exprs.size() >= Tv.THOUSAND) {
+                exprs.clear();
+            }
+            exprs.put(query, expr);
+        }
+        this.values.set(args);
+        try {
+            return expr.evaluate(node, type);
+        } finally {
+            this.values.remove();
+        }
+    }
+
+}
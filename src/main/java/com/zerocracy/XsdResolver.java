@@ -16,7 +16,20 @@
  */
 package com.zerocracy;
 
+import com.jcabi.xml.XML;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URL;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.xml.XMLConstants;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.Validator;
 import org.cactoos.Func;
 import org.cactoos.func.SolidFunc;
 import org.cactoos.func.UncheckedFunc;
@@ -26,15 +39,40 @@ import org.cactoos.io.StickyInput;
 import org.cactoos.io.SyncInput;
 import org.w3c.dom.ls.LSInput;
 import org.w3c.dom.ls.LSResourceResolver;
+import org.xml.sax.SAXException;
 
 /**
  * XML document.
+ *
+ * <p>Schemas are compiled once per location and shared by all
+ * resolvers, since a compiled {@link Schema} is thread-safe. Validators
+ * are not, so each thread keeps its own validator per schema and
+ * resets it before every use.</p>
+ *
  * @author Yegor Bugayenko (yegor256@gmail.com)
  * @version $Id$
  * @since 0.12
  */
 public final class XsdResolver implements LSResourceResolver {
 
+    /**
+     * Compiled schemas per location, empty location stands for
+     * the schema, which takes locations from the documents.
+     */
+    private static final Map<String, Schema> SCHEMAS =
+        new ConcurrentHashMap<>(0);
+
+    /**
+     * Validators of this thread per location.
+     */
+    private static final ThreadLocal<Map<String, Validator>> VALIDATORS =
+        ThreadLocal.withInitial(() -> new HashMap<>(0));
+
+    /**
+     * Local pack of datum.
+     */
+    private final Datum datum = new Datum();
+
     /**
      * The locator.
      */
@@ -46,7 +84,7 @@ public final class XsdResolver implements LSResourceResolver {
                     new StickyInput(
                         new InputOf(
                             // @checkstyle MagicNumber (6 lines)
-                            new URL(parts[3])
+                            this.datum.local(new URL(parts[3]))
                         )
                     )
                 ),
@@ -60,11 +98,86 @@ public final class XsdResolver implements LSResourceResolver {
     @SuppressWarnings("PMD.UseObjectForClearerAPI")
     public LSInput resolveResource(final String type, final String namespace,
         final String pid, final String sid, final String base) {
-        return new UncheckedFunc<>(this.locator).apply(
-            String.format(
-                "%s %s %s %s %s",
-                type, namespace, pid, sid, base
-            )
+        final LSInput input;
+        if (sid == null) {
+            input = null;
+        } else {
+            input = new UncheckedFunc<>(this.locator).apply(
+                String.format(
+                    "%s %s %s %s %s",
+                    type, namespace, pid, sid, base
+                )
+            );
+        }
+        return input;
+    }
+
+    /**
+     * Validator for the document, by the location of its schema.
+     * @param xml The document
+     * @return Validator, to be used in this thread only
+     */
+    public Validator validator(final XML xml) {
+        final List<String> loc = xml.xpath(
+            "/*/@xsi:noNamespaceSchemaLocation"
         );
+        final String location;
+        if (loc.isEmpty()) {
+            location = "";
+        } else {
+            location = loc.get(0).trim();
+        }
+        return this.validator(location);
+    }
+
+    /**
+     * Validator for the schema at the location.
+     * @param location Location of XSD or empty, if it has to be taken
+     *  from the documents
+     * @return Validator, to be used in this thread only
+     */
+    public Validator validator(final String location) {
+        final Validator validator = XsdResolver.VALIDATORS.get()
+            .computeIfAbsent(
+                location,
+                loc -> XsdResolver.SCHEMAS.computeIfAbsent(
+                    loc, this::schema
+                ).newValidator()
+            );
+        validator.reset();
+        validator.setResourceResolver(this);
+        return validator;
+    }
+
+    /**
+     * Compile the schema.
+     * @param location Location of XSD or empty
+     * @return Schema
+     */
+    private Schema schema(final String location) {
+        final SchemaFactory factory = SchemaFactory.newInstance(
+            XMLConstants.W3C_XML_SCHEMA_NS_URI
+        );
+        factory.setResourceResolver(this);
+        try {
+            final Schema schema;
+            if (location.isEmpty()) {
+                schema = factory.newSchema();
+            } else {
+                try (final InputStream input =
+                    this.datum.local(new URL(location)).openStream()) {
+                    schema = factory.newSchema(
+                        new StreamSource(input, location)
+                    );
+                }
+            }
+            return schema;
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (final SAXException ex) {
+            throw new IllegalArgumentException(
+                String.format("Invalid XSD at \"%s\"", location), ex
+            );
+        }
     }
 }
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy;
+
+import java.net.URL;
+import java.util.Map;
+import javax.xml.transform.Templates;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMResult;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamSource;
+import org.w3c.dom.Node;
+
+/**
+ * XSL stylesheet, compiled once, with a transformer per thread.
+ *
+ * <p>The stylesheet is compiled into {@link Templates} only once, when
+ * the pool is created. Transformers are not thread-safe, that's why
+ * each thread has its own one, which is reset before every
+ * transformation.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ */
+final class XslPool {
+
+    /**
+     * Compiled stylesheet.
+     */
+    private final Templates templates;
+
+    /**
+     * Transformers, per thread.
+     */
+    private final ThreadLocal<Transformer> transformers;
+
+    /**
+     * Ctor.
+     * @param url URL of the stylesheet
+     */
+    XslPool(final URL url) {
+        try {
+            this.templates = TransformerFactory.newInstance().newTemplates(
+                new StreamSource(url.toString())
+            );
+        } catch (final TransformerConfigurationException ex) {
+            throw new IllegalArgumentException(
+                String.format("Can't compile %s", url), ex
+            );
+        }
+        this.transformers = ThreadLocal.withInitial(this::transformer);
+    }
+
+    /**
+     * Transform the document.
+     * @param node The document
+     * @param params Parameters of the stylesheet
+     * @return Transformed document
+     */
+    public Node transform(final Node node, final Map<String, ?> params) {
+        final Transformer trans = this.transformers.get();
+        trans.reset();
+        trans.clearParameters();
+        for (final Map.Entry<String, ?> param : params.entrySet()) {
+            trans.setParameter(param.getKey(), param.getValue());
+        }
+        final DOMResult result = new DOMResult();
+        try {
+            trans.transform(new DOMSource(node), result);
+        } catch (final TransformerException ex) {
+            throw new IllegalArgumentException(
+                "Can't transform the document", ex
+            );
+        }
+        return result.getNode();
+    }
+
+    /**
+     * Create a new transformer.
+     * @return Transformer
+     */
+    private Transformer transformer() {
+        try {
+            return this.templates.newTransformer();
+        } catch (final TransformerConfigurationException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+}
@@ -19,8 +19,11 @@ package com.zerocracy.entry;
 import com.jcabi.aspects.Loggable;
 import com.jcabi.log.Logger;
 import com.zerocracy.Farm;
+import com.zerocracy.farm.FsFarm;
 import com.zerocracy.farm.S3Farm;
 import com.zerocracy.farm.SmartFarm;
+import com.zerocracy.farm.lease.Leases;
+import com.zerocracy.farm.lease.LsFarm;
 import com.zerocracy.farm.props.Props;
 import com.zerocracy.radars.github.GithubRoutine;
 import com.zerocracy.radars.github.TkGithub;
@@ -30,8 +33,11 @@ import com.zerocracy.tk.TkAlias;
 import com.zerocracy.tk.TkApp;
 import io.sentry.Sentry;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import org.cactoos.Func;
 import org.cactoos.func.AsyncFunc;
 import org.takes.facets.fork.FkRegex;
 import org.takes.facets.fork.TkMethods;
@@ -95,7 +101,6 @@ public final class Main {
      * Run it.
      * @throws IOException If fails on I/O
      */
-    @SuppressWarnings("unchecked")
     public void exec() throws IOException {
         final Path temp = Paths.get("./s3farm").normalize();
         if (!temp.toFile().mkdir()) {
@@ -106,10 +111,44 @@ public final class Main {
             );
         }
         Logger.info(this, "Farm is ready to start");
+        final Props props = new Props();
+        if (props.has("//lease/ttl")) {
+            final S3Farm origin = Main.bucket(temp, true);
+            final Leases leases = new Leases(
+                new ExtDynamo().value(),
+                ManagementFactory.getRuntimeMXBean().getName(),
+                Long.parseLong(props.get("//lease/ttl")),
+                Integer.parseInt(props.get("//lease/max", "100"))
+            );
+            this.run(
+                new SmartFarm(
+                    new LsFarm(origin, leases, origin::expire),
+                    pid -> !"PMO".equals(pid) || leases.owns(pid)
+                ),
+                leases::mine
+            );
+        } else {
+            this.run(new SmartFarm(Main.origin(temp)), pid -> true);
+        }
+    }
+
+    /**
+     * Run the farm.
+     *
+     * <p>Only projects leased by this node are pinged, so that pings
+     * don't take leases of projects nobody works with. PMO is not
+     * leased for writing, but its claims are processed only by the node
+     * which holds the lease of PMO.</p>
+     *
+     * @param smart The farm
+     * @param mine Tells whether a project is leased by this node
+     * @throws IOException If fails on I/O
+     */
+    @SuppressWarnings("unchecked")
+    private void run(final SmartFarm smart,
+        final Func<String, Boolean> mine) throws IOException {
         try (
-            final Farm farm = new SmartFarm(
-                new S3Farm(new ExtBucket().value(), temp)
-            ).value();
+            final Farm farm = smart.value();
             final SlackRadar radar = new SlackRadar(farm)
         ) {
             new ExtMongobee(farm).apply();
@@ -120,7 +159,7 @@ public final class Main {
                 }
             ).exec(null);
             new GithubRoutine(farm).start();
-            new Pings(farm).start();
+            new Pings(farm, mine).start();
             new FtCli(
                 new TkApp(
                     farm,
@@ -136,4 +175,38 @@ public final class Main {
         }
     }
 
+    /**
+     * The farm to store projects in.
+     * @param temp Temporary storage
+     * @return Farm
+     * @throws IOException If fails
+     */
+    private static Farm origin(final Path temp) throws IOException {
+        final Props props = new Props();
+        final Farm farm;
+        if (props.has("//fs/dir")) {
+            farm = new FsFarm(Paths.get(props.get("//fs/dir")), temp);
+        } else {
+            farm = Main.bucket(temp, false);
+        }
+        return farm;
+    }
+
+    /**
+     * The farm in S3.
+     * @param temp Temporary storage
+     * @param fenced Several nodes work with the bucket
+     * @return Farm
+     * @throws IOException If fails
+     */
+    private static S3Farm bucket(final Path temp, final boolean fenced)
+        throws IOException {
+        return new S3Farm(
+            new ExtBucket().value(), temp,
+            TimeUnit.SECONDS.toMillis(1L),
+            new Props().get("//s3/encoding", ""),
+            fenced
+        );
+    }
+
 }
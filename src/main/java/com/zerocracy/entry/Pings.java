@@ -16,6 +16,7 @@
  */
 package com.zerocracy.entry;
 
+import com.jcabi.log.Logger;
 import com.jcabi.log.VerboseRunnable;
 import com.jcabi.log.VerboseThreads;
 import com.zerocracy.Farm;
@@ -23,11 +24,14 @@ import com.zerocracy.Project;
 import com.zerocracy.pm.ClaimOut;
 import com.zerocracy.pm.Claims;
 import com.zerocracy.pmo.Catalog;
+import com.zerocracy.pmo.Pmo;
 import java.io.IOException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import org.cactoos.Func;
 import org.cactoos.Proc;
+import org.cactoos.func.IoCheckedFunc;
 import org.cactoos.func.RunnableOf;
 import org.cactoos.iterable.Shuffled;
 
@@ -51,12 +55,27 @@ final class Pings {
      */
     private final Farm farm;
 
+    /**
+     * Tells whether this node may ping the project.
+     */
+    private final Func<String, Boolean> mine;
+
     /**
      * Ctor.
      * @param frm Farm
      */
     Pings(final Farm frm) {
+        this(frm, pid -> true);
+    }
+
+    /**
+     * Ctor.
+     * @param frm Farm
+     * @param own Tells whether this node may ping the project, by its ID
+     */
+    Pings(final Farm frm, final Func<String, Boolean> own) {
         this.farm = frm;
+        this.mine = own;
         this.executor = Executors.newScheduledThreadPool(
             Runtime.getRuntime().availableProcessors(),
             new VerboseThreads(Pings.class)
@@ -97,13 +116,37 @@ final class Pings {
     }
 
     /**
-     * Post a ping.
+     * Post a ping to all projects.
+     *
+     * <p>Projects which are not ours, for example because this node
+     * doesn't hold their leases, are skipped before anything is read
+     * from them, so that a ping never takes a lease. Projects this node
+     * can't acquire anyway are skipped too.</p>
+     *
+     * <p>PMO is not pinged, but if it is ours its claims are touched,
+     * so that the ones posted by other nodes get processed here.</p>
+     *
      * @param type The type of claim to post
      * @throws IOException If fails
      */
     private void post(final String type) throws IOException {
+        final IoCheckedFunc<String, Boolean> own =
+            new IoCheckedFunc<>(this.mine);
+        if (own.apply("PMO")) {
+            new Claims(new Pmo(this.farm)).bootstrap();
+        }
         for (final Project project : new Shuffled<>(this.farm.find(""))) {
-            this.post(project, type);
+            if (!own.apply(project.pid())) {
+                continue;
+            }
+            try {
+                this.post(project, type);
+            } catch (final IllegalStateException ex) {
+                Logger.info(
+                    this, "%s not posted to %s: %s",
+                    type, project.pid(), ex.getMessage()
+                );
+            }
         }
     }
 
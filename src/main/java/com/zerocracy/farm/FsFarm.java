@@ -0,0 +1,184 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm;
+
+import com.jcabi.s3.Bucket;
+import com.zerocracy.Farm;
+import com.zerocracy.Project;
+import com.zerocracy.pmo.Catalog;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Date;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.EqualsAndHashCode;
+import org.cactoos.iterable.Mapped;
+import org.cactoos.list.SolidList;
+
+/**
+ * Farm in a local directory.
+ *
+ * <p>Projects are stored in the same layout as in {@link S3Farm}, with
+ * crash-safe writes (see {@link FsItem}), and may be replicated to
+ * an S3 bucket in the background. Use it instead of {@link S3Farm} in
+ * {@link SmartFarm} when there is only one node.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ */
+@EqualsAndHashCode(of = "dir")
+public final class FsFarm implements Farm {
+
+    /**
+     * Directory with all projects.
+     */
+    private final Path dir;
+
+    /**
+     * Directory with working copies.
+     */
+    private final Path temp;
+
+    /**
+     * Cache of working copies.
+     */
+    private final S3Cache cache;
+
+    /**
+     * Replica.
+     */
+    private final FsReplica replica;
+
+    /**
+     * Index of the catalog.
+     */
+    private final S3Index index;
+
+    /**
+     * Ctor.
+     * @param path Directory with projects
+     * @throws IOException If fails
+     */
+    public FsFarm(final Path path) throws IOException {
+        this(path, Files.createTempDirectory(""));
+    }
+
+    /**
+     * Ctor.
+     * @param path Directory with projects
+     * @param tmp Directory with working copies
+     */
+    public FsFarm(final Path path, final Path tmp) {
+        this(path, tmp, new FsReplica());
+    }
+
+    /**
+     * Ctor.
+     * @param path Directory with projects
+     * @param tmp Directory with working copies
+     * @param bkt Bucket to replicate to
+     * @param msec Delay of replication, in milliseconds, or zero
+     *  if files must be uploaded when saved
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public FsFarm(final Path path, final Path tmp, final Bucket bkt,
+        final long msec) {
+        this(path, tmp, new FsReplica(path, bkt, msec));
+    }
+
+    /**
+     * Ctor.
+     * @param path Directory with projects
+     * @param tmp Directory with working copies
+     * @param rep Replica
+     */
+    private FsFarm(final Path path, final Path tmp, final FsReplica rep) {
+        this.dir = path;
+        this.temp = tmp;
+        this.cache = new S3Cache(Long.MAX_VALUE);
+        this.replica = rep;
+        this.index = new S3Index();
+    }
+
+    @Override
+    public Iterable<Project> find(final String xpath) throws IOException {
+        Iterable<Project> found;
+        if ("@id='PMO'".equals(xpath)) {
+            found = new SolidList<>(this.project("PMO/"));
+        } else {
+            found = new Mapped<>(
+                this::project,
+                this.index.find(this, xpath)
+            );
+            if (!found.iterator().hasNext()) {
+                found = this.force(xpath);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.replica.close();
+    }
+
+    /**
+     * Make a project.
+     * @param prefix Its prefix
+     * @return Project
+     */
+    private Project project(final String prefix) {
+        return new FsProject(
+            this.dir, prefix, this.temp, this.cache, this.replica
+        );
+    }
+
+    /**
+     * Make sure it exists and return it.
+     *
+     * <p>Concurrent lookups of the same new project add it to the
+     * catalog only once.</p>
+     *
+     * @param xpath The XPath
+     * @return List of found projects
+     * @throws IOException If fails
+     */
+    private Iterable<Project> force(final String xpath) throws IOException {
+        final Matcher matcher = Pattern.compile(
+            "\\s*@id\\s*=\\s*'([^']+)'\\s*"
+        ).matcher(xpath);
+        final Iterable<Project> found;
+        if (matcher.matches()) {
+            final String pid = matcher.group(1);
+            synchronized (this.index) {
+                if (this.index.find(this, xpath).isEmpty()) {
+                    new Catalog(this).add(
+                        pid, String.format("%tY/%1$tm/%s/", new Date(), pid)
+                    );
+                }
+            }
+            found = this.find(xpath);
+        } else {
+            found = Collections.emptyList();
+        }
+        return found;
+    }
+
+}
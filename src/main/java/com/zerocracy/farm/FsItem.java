@@ -0,0 +1,212 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm;
+
+import com.jcabi.log.Logger;
+import com.zerocracy.Item;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Item in a local directory.
+ *
+ * <p>The content is edited in a working copy, which is re-used between
+ * acquisitions, like in {@link S3Item}. When the item is closed and the
+ * copy was modified, it is written to a temporary file next to the
+ * stored one, flushed to disk and atomically renamed over it. A crash
+ * in the middle leaves either the old or the new version, never a
+ * partial one.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ */
+@EqualsAndHashCode(of = { "file", "temp" })
+final class FsItem implements Item {
+
+    /**
+     * Stored file.
+     */
+    private final Path file;
+
+    /**
+     * Working copy.
+     */
+    private final Path temp;
+
+    /**
+     * Cache of working copies.
+     */
+    private final S3Cache cache;
+
+    /**
+     * Replica.
+     */
+    private final FsReplica replica;
+
+    /**
+     * Is it open?
+     */
+    private final AtomicBoolean open;
+
+    /**
+     * Ctor.
+     * @param stored Stored file
+     * @param tmp Working copy
+     */
+    FsItem(final Path stored, final Path tmp) {
+        this(stored, tmp, new S3Cache(0L), new FsReplica());
+    }
+
+    /**
+     * Ctor.
+     * @param stored Stored file
+     * @param tmp Working copy
+     * @param cch Cache of working copies
+     * @param rep Replica
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    FsItem(final Path stored, final Path tmp, final S3Cache cch,
+        final FsReplica rep) {
+        this.file = stored;
+        this.temp = tmp;
+        this.cache = cch;
+        this.replica = rep;
+        this.open = new AtomicBoolean(false);
+    }
+
+    @Override
+    public String toString() {
+        return this.file.toString();
+    }
+
+    @Override
+    public Path path() throws IOException {
+        if (!this.open.get()) {
+            this.temp.getParent().toFile().mkdirs();
+            if (!this.cache.fresh(this.temp)) {
+                if (Files.exists(this.file)) {
+                    this.load();
+                    this.cache.remember(this.temp, "");
+                } else {
+                    Files.deleteIfExists(this.temp);
+                    this.cache.forget(this.temp);
+                }
+            }
+            this.open.set(true);
+        }
+        return this.temp;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.open.get() && Files.exists(this.temp)
+            && this.cache.dirty(this.temp)) {
+            this.save();
+            this.replica.push(this.file);
+        }
+        this.open.set(false);
+    }
+
+    /**
+     * Load the working copy, atomically, since readers may use
+     * it at the same time.
+     * @throws IOException If fails
+     */
+    private void load() throws IOException {
+        final Path next = Files.createTempFile(
+            this.temp.getParent(),
+            String.format(".%s", this.temp.getFileName()), ".tmp"
+        );
+        try {
+            Files.copy(this.file, next, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(
+                next, this.temp,
+                StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING
+            );
+        } finally {
+            Files.deleteIfExists(next);
+        }
+    }
+
+    /**
+     * Save the working copy, atomically.
+     * @throws IOException If fails
+     */
+    private void save() throws IOException {
+        final long start = System.currentTimeMillis();
+        final Path dir = this.file.getParent();
+        dir.toFile().mkdirs();
+        final Path next = Files.createTempFile(
+            dir, String.format(".%s", this.file.getFileName()), ".tmp"
+        );
+        try {
+            Files.copy(this.temp, next, StandardCopyOption.REPLACE_EXISTING);
+            FsItem.sync(next);
+            Files.move(
+                next, this.file,
+                StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING
+            );
+        } finally {
+            Files.deleteIfExists(next);
+        }
+        FsItem.sync(dir);
+        this.cache.remember(this.temp, "");
+        Logger.info(
+            this, "Saved %d bytes to %s in %[ms]s",
+            this.file.toFile().length(), this.file,
+            System.currentTimeMillis() - start
+        );
+    }
+
+    /**
+     * Flush the file or directory to disk.
+     *
+     * <p>Not every platform allows to open a directory, in which case
+     * we have to rely on the rename being durable by itself.</p>
+     *
+     * @param path The file or directory
+     * @throws IOException If fails
+     */
+    private static void sync(final Path path) throws IOException {
+        if (Files.isDirectory(path)) {
+            try (final FileChannel channel =
+                FileChannel.open(path, StandardOpenOption.READ)) {
+                channel.force(true);
+            } catch (final IOException ex) {
+                Logger.debug(
+                    FsItem.class, "Can't sync directory %s: %s",
+                    path, ex.getMessage()
+                );
+            }
+        } else {
+            try (final FileChannel channel =
+                FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+        }
+    }
+
+}
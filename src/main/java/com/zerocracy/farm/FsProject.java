@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm;
+
+import com.zerocracy.Item;
+import com.zerocracy.Project;
+import com.zerocracy.farm.fake.FkItem;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.stream.Stream;
+import lombok.EqualsAndHashCode;
+import org.apache.commons.lang3.StringUtils;
+import org.cactoos.time.DateAsText;
+import org.xembly.Directives;
+import org.xembly.Xembler;
+
+/**
+ * Project in a local directory.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ */
+@EqualsAndHashCode(of = { "dir", "prefix" })
+final class FsProject implements Project {
+
+    /**
+     * Directory with all projects.
+     */
+    private final Path dir;
+
+    /**
+     * Prefix of the project, relative to the directory.
+     */
+    private final String prefix;
+
+    /**
+     * Directory with working copies.
+     */
+    private final Path temp;
+
+    /**
+     * Cache of working copies.
+     */
+    private final S3Cache cache;
+
+    /**
+     * Replica.
+     */
+    private final FsReplica replica;
+
+    /**
+     * Ctor.
+     * @param path Directory
+     * @param pfx Prefix
+     * @throws IOException If fails
+     */
+    FsProject(final Path path, final String pfx) throws IOException {
+        this(
+            path, pfx, Files.createTempDirectory(""),
+            new S3Cache(0L), new FsReplica()
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param path Directory
+     * @param pfx Prefix
+     * @param tmp Directory with working copies
+     * @param cch Cache of working copies
+     * @param rep Replica
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    FsProject(final Path path, final String pfx, final Path tmp,
+        final S3Cache cch, final FsReplica rep) {
+        this.dir = path;
+        this.prefix = pfx;
+        this.temp = tmp;
+        this.cache = cch;
+        this.replica = rep;
+    }
+
+    @Override
+    public String pid() {
+        String name = StringUtils.stripEnd(this.prefix, "/");
+        if (name.contains("/")) {
+            name = StringUtils.substringAfterLast(name, "/");
+        }
+        return name;
+    }
+
+    @Override
+    public Item acq(final String file) throws IOException {
+        final Item item;
+        if ("_list.xml".equals(file)) {
+            item = new FkItem(this.list());
+        } else {
+            if (!file.matches("[a-z0-9\\-/]+\\.[a-z]+")) {
+                throw new IllegalArgumentException(
+                    String.format(
+                        "Unacceptable file name: \"%s\"", file
+                    )
+                );
+            }
+            final String key = String.format("%s%s", this.prefix, file);
+            item = new FsItem(
+                this.dir.resolve(key),
+                this.temp.resolve(key),
+                this.cache,
+                this.replica
+            );
+        }
+        return item;
+    }
+
+    @Override
+    public Item read(final String file) throws IOException {
+        Item item = this.acq(file);
+        if (!"_list.xml".equals(file)) {
+            item = new RoItem(item);
+        }
+        return item;
+    }
+
+    /**
+     * List all files of the project.
+     * @return XML
+     * @throws IOException If fails
+     */
+    private String list() throws IOException {
+        final Path home = this.dir.resolve(this.prefix);
+        final Directives dirs = new Directives().add("items");
+        if (Files.exists(home)) {
+            try (final Stream<Path> files = Files.walk(home)) {
+                for (final Path path : (Iterable<Path>) files
+                    .filter(Files::isRegularFile)
+                    .filter(f -> !f.getFileName().toString().startsWith("."))
+                    .sorted()::iterator) {
+                    dirs.add("item")
+                        .add("name")
+                        .set(
+                            StringUtils.replace(
+                                home.relativize(path).toString(), "\\", "/"
+                            )
+                        )
+                        .up()
+                        .add("size").set(Files.size(path)).up()
+                        .add("modified")
+                        .set(
+                            new DateAsText(
+                                new Date(
+                                    Files.getLastModifiedTime(path).toMillis()
+                                )
+                            ).asString()
+                        )
+                        .up()
+                        .up();
+                }
+            }
+        }
+        return new Xembler(dirs).xmlQuietly();
+    }
+
+}
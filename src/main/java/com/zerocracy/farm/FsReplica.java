@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm;
+
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.jcabi.s3.Bucket;
+import com.jcabi.s3.Ocket;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Replica of a local directory in S3.
+ *
+ * <p>Files saved by {@link FsItem} are uploaded to the bucket under the
+ * same keys, in the background if there is a delay, by
+ * {@link S3Uploads}. Without a bucket nothing is replicated.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ */
+final class FsReplica implements Closeable {
+
+    /**
+     * Local directory, with all projects.
+     */
+    private final Path dir;
+
+    /**
+     * S3 bucket, empty if there is no replication.
+     */
+    private final Iterable<Bucket> bucket;
+
+    /**
+     * Uploads.
+     */
+    private final S3Uploads uploads;
+
+    /**
+     * Ctor, without replication.
+     */
+    FsReplica() {
+        this(Paths.get(""), Collections.emptyList(), 0L);
+    }
+
+    /**
+     * Ctor.
+     * @param path Local directory
+     * @param bkt Bucket
+     * @param msec Delay of uploads, in milliseconds, or zero if
+     *  files must be uploaded when saved
+     */
+    FsReplica(final Path path, final Bucket bkt, final long msec) {
+        this(path, Collections.singletonList(bkt), msec);
+    }
+
+    /**
+     * Ctor.
+     * @param path Local directory
+     * @param bkt Bucket, or nothing
+     * @param msec Delay of uploads, in milliseconds
+     */
+    private FsReplica(final Path path, final Iterable<Bucket> bkt,
+        final long msec) {
+        this.dir = path;
+        this.bucket = bkt;
+        this.uploads = new S3Uploads(new S3Cache(), msec);
+    }
+
+    /**
+     * Replicate this file, which was just saved.
+     * @param file The file
+     * @throws IOException If fails
+     */
+    public void push(final Path file) throws IOException {
+        for (final Bucket bkt : this.bucket) {
+            final Ocket ocket = bkt.ocket(
+                StringUtils.replace(
+                    this.dir.relativize(file).toString(), "\\", "/"
+                )
+            );
+            this.uploads.push(
+                file,
+                src -> {
+                    final ObjectMetadata meta = new ObjectMetadata();
+                    meta.setContentLength(Files.size(src));
+                    try (final InputStream input = Files.newInputStream(src)) {
+                        ocket.write(input, meta);
+                    }
+                    return "";
+                }
+            );
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.uploads.close();
+    }
+
+}
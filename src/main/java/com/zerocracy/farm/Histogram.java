@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of non-negative values.
+ *
+ * <p>Values are counted in buckets: every power of two is split into
+ * four equal buckets, so percentiles are accurate within 25%, no matter
+ * how big the values are. Adding a value doesn't allocate memory and
+ * doesn't lock, it's just a few atomic increments.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ */
+public final class Histogram {
+
+    /**
+     * Buckets per power of two, as a power of two.
+     */
+    private static final int BITS = 2;
+
+    /**
+     * Buckets per power of two.
+     */
+    private static final int SUB = 1 << Histogram.BITS;
+
+    /**
+     * Counters of values, per bucket.
+     */
+    private final AtomicLongArray buckets;
+
+    /**
+     * Total number of values.
+     */
+    private final AtomicLong total;
+
+    /**
+     * The biggest value seen.
+     */
+    private final AtomicLong biggest;
+
+    /**
+     * Ctor.
+     */
+    public Histogram() {
+        this.buckets = new AtomicLongArray(
+            Histogram.SUB * (Long.SIZE - Histogram.BITS + 1)
+        );
+        this.total = new AtomicLong();
+        this.biggest = new AtomicLong();
+    }
+
+    /**
+     * Add a value.
+     * @param value The value, negative ones are counted as zero
+     */
+    public void add(final long value) {
+        final long val = Math.max(0L, value);
+        this.buckets.incrementAndGet(Histogram.bucket(val));
+        this.total.incrementAndGet();
+        this.biggest.accumulateAndGet(val, Math::max);
+    }
+
+    /**
+     * How many values were added.
+     * @return Total
+     */
+    public long count() {
+        return this.total.get();
+    }
+
+    /**
+     * The biggest value.
+     * @return Max value or zero if none
+     */
+    public long max() {
+        return this.biggest.get();
+    }
+
+    /**
+     * Value at the percentile.
+     * @param pct Percentile, from 0 to 100
+     * @return The value, the upper bound of its bucket, or zero if none
+     */
+    public long percentile(final double pct) {
+        final long target = (long) Math.ceil(
+            // @checkstyle MagicNumber (1 line)
+            this.total.get() * pct / 100.0d
+        );
+        long seen = 0L;
+        long value = 0L;
+        for (int idx = 0; idx < this.buckets.length(); ++idx) {
+            seen += this.buckets.get(idx);
+            if (seen >= target && seen > 0L) {
+                value = Math.min(Histogram.upper(idx), this.biggest.get());
+                break;
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "%d/%d/%d/%d",
+            this.count(),
+            // @checkstyle MagicNumber (2 lines)
+            this.percentile(50.0d),
+            this.percentile(99.0d),
+            this.max()
+        );
+    }
+
+    /**
+     * Bucket of the value.
+     * @param value The value, non-negative
+     * @return Index of the bucket
+     */
+    private static int bucket(final long value) {
+        final int idx;
+        if (value < Histogram.SUB) {
+            idx = (int) value;
+        } else {
+            final int log = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+            idx = Histogram.SUB * (log - Histogram.BITS + 1)
+                + (int) (value >> (log - Histogram.BITS)) - Histogram.SUB;
+        }
+        return idx;
+    }
+
+    /**
+     * The biggest value of the bucket.
+     * @param idx Index of the bucket
+     * @return The value
+     */
+    private static long upper(final int idx) {
+        final long value;
+        if (idx < Histogram.SUB) {
+            value = idx;
+        } else {
+            final int log = idx / Histogram.SUB + Histogram.BITS - 1;
+            final long lower = (long) (idx % Histogram.SUB + Histogram.SUB)
+                << (log - Histogram.BITS);
+            value = lower + (1L << (log - Histogram.BITS)) - 1L;
+        }
+        return value;
+    }
+
+}
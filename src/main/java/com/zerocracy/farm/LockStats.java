@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm;
+
+import org.cactoos.Scalar;
+import org.xembly.Directive;
+import org.xembly.Directives;
+
+/**
+ * Statistics of a lock: how long threads wait for it, how long they
+ * hold it and how many of them are in the queue when one more comes.
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ */
+public final class LockStats implements Scalar<Iterable<Directive>> {
+
+    /**
+     * Wait times, in milliseconds.
+     */
+    private final Histogram waits;
+
+    /**
+     * Hold times, in milliseconds.
+     */
+    private final Histogram holds;
+
+    /**
+     * Queue lengths.
+     */
+    private final Histogram queues;
+
+    /**
+     * Ctor.
+     */
+    public LockStats() {
+        this.waits = new Histogram();
+        this.holds = new Histogram();
+        this.queues = new Histogram();
+    }
+
+    /**
+     * A thread waited for the lock.
+     * @param msec How long it waited, in milliseconds
+     * @param queue How many threads were waiting when it came
+     */
+    public void waited(final long msec, final int queue) {
+        this.waits.add(msec);
+        this.queues.add((long) queue);
+    }
+
+    /**
+     * A thread held the lock and released it.
+     * @param msec How long it held it, in milliseconds
+     */
+    public void held(final long msec) {
+        this.holds.add(msec);
+    }
+
+    @Override
+    public Iterable<Directive> value() {
+        return new Directives()
+            .append(LockStats.dirs("wait", this.waits))
+            .append(LockStats.dirs("hold", this.holds))
+            .append(LockStats.dirs("queue", this.queues));
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "wait:%s hold:%s queue:%s", this.waits, this.holds, this.queues
+        );
+    }
+
+    /**
+     * Directives of a histogram.
+     * @param name Name of the element
+     * @param hist The histogram
+     * @return Directives
+     */
+    private static Iterable<Directive> dirs(final String name,
+        final Histogram hist) {
+        return new Directives()
+            .add(name)
+            .attr("count", hist.count())
+            // @checkstyle MagicNumber (3 lines)
+            .attr("p50", hist.percentile(50.0d))
+            .attr("p90", hist.percentile(90.0d))
+            .attr("p99", hist.percentile(99.0d))
+            .attr("max", hist.max())
+            .up();
+    }
+
+}
@@ -0,0 +1,403 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Node-local cache of S3 objects.
+ *
+ * <p>The content of every object is stored in a local file by
+ * {@link S3Item}. This cache remembers which remote version (ETag)
+ * each local file corresponds to, and when it was last confirmed
+ * by S3. While the confirmation is fresh the local file is used without
+ * any requests to S3, when it expires the ETag is used to make
+ * a conditional request, which doesn't transfer anything if the object
+ * is not modified.</p>
+ *
+ * <p>Objects may also be downloaded in advance, by {@link S3Prefetch}.
+ * Such a copy is staged next to the local file and is moved into it
+ * by the next acquisition, if the local file didn't change since the
+ * download started and the copy is not older than the cache itself
+ * allows.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ */
+final class S3Cache {
+
+    /**
+     * Stamps per local file.
+     */
+    private final Map<Path, S3Cache.Stamp> stamps;
+
+    /**
+     * Prefetched copies per local file.
+     */
+    private final Map<Path, S3Cache.Staged> staged;
+
+    /**
+     * How long a confirmed stamp stays fresh, in milliseconds.
+     */
+    private final long ttl;
+
+    /**
+     * Ctor.
+     */
+    S3Cache() {
+        this(TimeUnit.MINUTES.toMillis(1L));
+    }
+
+    /**
+     * Ctor.
+     * @param msec How long local copies stay fresh, in milliseconds
+     */
+    S3Cache(final long msec) {
+        this.stamps = new ConcurrentHashMap<>(0);
+        this.staged = new ConcurrentHashMap<>(0);
+        this.ttl = msec;
+    }
+
+    /**
+     * Local copy is recently confirmed and was not modified since then?
+     * @param file Local file
+     * @return TRUE if there is no need to ask S3
+     * @throws IOException If fails
+     */
+    public boolean fresh(final Path file) throws IOException {
+        final S3Cache.Stamp stamp = this.stamps.get(file);
+        return stamp != null
+            && System.currentTimeMillis() - stamp.checked < this.ttl
+            && stamp.matches(file);
+    }
+
+    /**
+     * Local copy was modified since it was loaded or saved?
+     * @param file Local file
+     * @return TRUE if it has to be uploaded
+     * @throws IOException If fails
+     */
+    public boolean dirty(final Path file) throws IOException {
+        final S3Cache.Stamp stamp = this.stamps.get(file);
+        return stamp == null || !stamp.matches(file);
+    }
+
+    /**
+     * ETag of the remote version the local copy corresponds to.
+     * @param file Local file
+     * @return ETag or empty string if the local copy is unknown or modified
+     * @throws IOException If fails
+     */
+    public String etag(final Path file) throws IOException {
+        final S3Cache.Stamp stamp = this.stamps.get(file);
+        final String etag;
+        if (stamp != null && stamp.matches(file)) {
+            etag = stamp.etag;
+        } else {
+            etag = "";
+        }
+        return etag;
+    }
+
+    /**
+     * ETag of the remote version the local copy was loaded from or
+     * saved to, even if the local copy was modified since then.
+     * @param file Local file
+     * @return ETag or empty string if the remote version is unknown
+     */
+    public String base(final Path file) {
+        final S3Cache.Stamp stamp = this.stamps.get(file);
+        final String etag;
+        if (stamp == null) {
+            etag = "";
+        } else {
+            etag = stamp.etag;
+        }
+        return etag;
+    }
+
+    /**
+     * Remember that the local copy is equal to the remote version.
+     * @param file Local file
+     * @param etag ETag of the remote version
+     * @throws IOException If fails
+     */
+    public void remember(final Path file, final String etag)
+        throws IOException {
+        final S3Cache.Stamp stamp = this.stamps.get(file);
+        final long modified;
+        if (stamp != null && stamp.matches(file)) {
+            modified = stamp.modified;
+        } else {
+            modified = this.seal(file);
+        }
+        this.remember(file, etag, modified, Files.size(file));
+    }
+
+    /**
+     * Remember that the given state of the local copy is equal
+     * to the remote version.
+     * @param file Local file
+     * @param etag ETag of the remote version
+     * @param modified Modification time of the local file
+     * @param length Length of the local file
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public void remember(final Path file, final String etag,
+        final long modified, final long length) {
+        this.stamps.put(file, new S3Cache.Stamp(etag, modified, length));
+        this.drop(file);
+    }
+
+    /**
+     * S3 says the remote version still has this ETag.
+     * @param file Local file
+     * @param etag ETag of the remote version
+     */
+    public void confirm(final Path file, final String etag) {
+        this.stamps.computeIfPresent(
+            file,
+            (path, stamp) -> {
+                final S3Cache.Stamp after;
+                if (stamp.etag.equals(etag)) {
+                    after = new S3Cache.Stamp(
+                        stamp.etag, stamp.modified, stamp.length
+                    );
+                } else {
+                    after = stamp;
+                }
+                return after;
+            }
+        );
+    }
+
+    /**
+     * Stage a downloaded copy of the remote version.
+     * @param file Local file
+     * @param base ETag the local file had when the download started,
+     *  as returned by {@link #etag(Path)}
+     * @param etag ETag of the downloaded version
+     * @param copy The downloaded copy
+     * @throws IOException If fails
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public void stage(final Path file, final String base, final String etag,
+        final Path copy) throws IOException {
+        final S3Cache.Staged before = this.staged.put(
+            file, new S3Cache.Staged(base, etag, copy)
+        );
+        if (before != null && !before.copy.equals(copy)) {
+            Files.deleteIfExists(before.copy);
+        }
+    }
+
+    /**
+     * Move the staged copy into the local file, if it is still valid.
+     * @param file Local file
+     * @return TRUE if the local file is now up to date
+     * @throws IOException If fails
+     */
+    public boolean unstage(final Path file) throws IOException {
+        final S3Cache.Staged stg = this.staged.remove(file);
+        boolean done = false;
+        if (stg != null) {
+            if (System.currentTimeMillis() - stg.created < this.ttl
+                && this.etag(file).equals(stg.base)
+                && Files.exists(stg.copy)) {
+                Files.move(
+                    stg.copy, file,
+                    StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE
+                );
+                this.remember(file, stg.etag);
+                done = true;
+            }
+            Files.deleteIfExists(stg.copy);
+        }
+        return done;
+    }
+
+    /**
+     * Move the modification time of the local file back a bit, so that
+     * any further write into it is noticed, even in the same millisecond.
+     *
+     * <p>The time is read back from the file system, since it may store
+     * it with a coarser precision than milliseconds.</p>
+     *
+     * @param file Local file
+     * @return New modification time, as stored
+     * @throws IOException If fails
+     */
+    public long seal(final Path file) throws IOException {
+        Files.setLastModifiedTime(
+            file,
+            FileTime.fromMillis(
+                System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(1L)
+            )
+        );
+        return Files.getLastModifiedTime(file).toMillis();
+    }
+
+    /**
+     * Make local copies in the directory stale, they will be checked
+     * in S3 next time, with their ETags.
+     *
+     * <p>This is used when this node takes the lease of a project:
+     * another node could modify it meanwhile.</p>
+     *
+     * @param dir Local directory
+     */
+    public void expire(final Path dir) {
+        for (final Path file : this.stamps.keySet()) {
+            if (file.startsWith(dir)) {
+                this.stamps.computeIfPresent(
+                    file,
+                    (path, stamp) -> new S3Cache.Stamp(
+                        stamp.etag, stamp.modified, stamp.length, 0L
+                    )
+                );
+                this.drop(file);
+            }
+        }
+    }
+
+    /**
+     * Forget the local copy, it will be checked in S3 next time.
+     * @param file Local file
+     */
+    public void forget(final Path file) {
+        this.stamps.remove(file);
+        this.drop(file);
+    }
+
+    /**
+     * Drop the staged copy, if any.
+     * @param file Local file
+     */
+    private void drop(final Path file) {
+        final S3Cache.Staged stg = this.staged.remove(file);
+        if (stg != null) {
+            stg.copy.toFile().delete();
+        }
+    }
+
+    /**
+     * Staged copy of a remote version.
+     */
+    private static final class Staged {
+        /**
+         * ETag of the local file when the download started.
+         */
+        private final String base;
+        /**
+         * ETag of the downloaded version.
+         */
+        private final String etag;
+        /**
+         * The downloaded copy.
+         */
+        private final Path copy;
+        /**
+         * When it was downloaded.
+         */
+        private final long created;
+
+        /**
+         * Ctor.
+         * @param before ETag of the local file
+         * @param tag ETag of the downloaded version
+         * @param path The copy
+         */
+        Staged(final String before, final String tag, final Path path) {
+            this.base = before;
+            this.etag = tag;
+            this.copy = path;
+            this.created = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Stamp of a local file.
+     */
+    private static final class Stamp {
+        /**
+         * ETag of the remote version.
+         */
+        private final String etag;
+        /**
+         * Modification time of the local file.
+         */
+        private final long modified;
+        /**
+         * Length of the local file.
+         */
+        private final long length;
+        /**
+         * When it was confirmed by S3.
+         */
+        private final long checked;
+
+        /**
+         * Ctor.
+         * @param tag ETag
+         * @param time Modification time of the local file
+         * @param size Length of the local file
+         */
+        Stamp(final String tag, final long time, final long size) {
+            this(tag, time, size, System.currentTimeMillis());
+        }
+
+        /**
+         * Ctor.
+         * @param tag ETag
+         * @param time Modification time of the local file
+         * @param size Length of the local file
+         * @param when When it was confirmed by S3
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        Stamp(final String tag, final long time, final long size,
+            final long when) {
+            this.etag = tag;
+            this.modified = time;
+            this.length = size;
+            this.checked = when;
+        }
+
+        /**
+         * The local file is still the same?
+         * @param file Local file
+         * @return TRUE if it was not touched
+         * @throws IOException If fails
+         */
+        public boolean matches(final Path file) throws IOException {
+            return Files.exists(file)
+                && Files.getLastModifiedTime(file).toMillis() == this.modified
+                && Files.size(file) == this.length;
+        }
+    }
+
+}
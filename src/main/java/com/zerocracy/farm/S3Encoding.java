@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm;
+
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.cactoos.Func;
+import org.cactoos.func.IoCheckedFunc;
+
+/**
+ * Content encoding of S3 objects.
+ *
+ * <p>Objects are decoded by their Content-Encoding metadata, so old
+ * uncompressed objects stay readable no matter what encoding is
+ * used for writing. When the metadata got lost or is wrong, which happens
+ * with fake buckets, GZIP content is recognized by its magic number,
+ * which can't be the beginning of a text document.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ */
+final class S3Encoding {
+
+    /**
+     * GZIP encoding.
+     */
+    public static final String GZIP = "gzip";
+
+    /**
+     * First byte of GZIP magic number.
+     */
+    private static final int MAGIC_ONE = 0x1f;
+
+    /**
+     * Second byte of GZIP magic number.
+     */
+    private static final int MAGIC_TWO = 0x8b;
+
+    /**
+     * Encoding to use when writing, or empty for none.
+     */
+    private final String name;
+
+    /**
+     * Ctor.
+     */
+    S3Encoding() {
+        this("");
+    }
+
+    /**
+     * Ctor.
+     * @param encoding Encoding to use when writing, empty or "gzip"
+     */
+    S3Encoding(final String encoding) {
+        if (!encoding.isEmpty() && !S3Encoding.GZIP.equals(encoding)) {
+            throw new IllegalArgumentException(
+                String.format("Unsupported encoding: \"%s\"", encoding)
+            );
+        }
+        this.name = encoding;
+    }
+
+    /**
+     * Decode the content of an object into the file.
+     *
+     * <p>The content is written next to the file and then atomically
+     * moved into it, since readers may use the file at the same time.</p>
+     *
+     * @param input Content of the object
+     * @param meta Its metadata
+     * @param file Where to save it
+     * @throws IOException If fails
+     */
+    public void decode(final InputStream input, final ObjectMetadata meta,
+        final Path file) throws IOException {
+        final PushbackInputStream body = new PushbackInputStream(input, 2);
+        final InputStream src;
+        if (S3Encoding.GZIP.equals(meta.getContentEncoding())
+            || S3Encoding.gzipped(body)) {
+            src = new GZIPInputStream(body);
+        } else {
+            src = body;
+        }
+        final Path next = Files.createTempFile(
+            file.getParent(), String.format(".%s", file.getFileName()), ".tmp"
+        );
+        try {
+            Files.copy(src, next, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(
+                next, file,
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE
+            );
+        } finally {
+            Files.deleteIfExists(next);
+        }
+    }
+
+    /**
+     * Encode the content of the file, updating the metadata, and give
+     * the encoded file to the upload.
+     *
+     * <p>The content is never loaded into memory: without encoding the
+     * upload gets the file itself, otherwise it is compressed into
+     * a temporary file, which is deleted after the upload.</p>
+     *
+     * @param file The file
+     * @param meta Its metadata, to be updated
+     * @param upload Uploads the encoded file
+     * @param <T> Type of result
+     * @return What the upload returned
+     * @throws IOException If fails
+     */
+    public <T> T encode(final Path file, final ObjectMetadata meta,
+        final Func<Path, T> upload) throws IOException {
+        final IoCheckedFunc<Path, T> func = new IoCheckedFunc<>(upload);
+        final T result;
+        if (this.name.isEmpty()) {
+            meta.setContentLength(Files.size(file));
+            result = func.apply(file);
+        } else {
+            final Path body = Files.createTempFile("s3encoding", ".gz");
+            try {
+                try (final OutputStream gzip = new GZIPOutputStream(
+                    Files.newOutputStream(body)
+                )) {
+                    Files.copy(file, gzip);
+                }
+                meta.setContentEncoding(this.name);
+                meta.setContentLength(Files.size(body));
+                result = func.apply(body);
+            } finally {
+                Files.deleteIfExists(body);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The stream starts with GZIP magic number?
+     * @param input The stream
+     * @return TRUE if it does
+     * @throws IOException If fails
+     */
+    private static boolean gzipped(final PushbackInputStream input)
+        throws IOException {
+        final byte[] head = new byte[2];
+        int len = 0;
+        while (len < head.length) {
+            final int read = input.read(head, len, head.length - len);
+            if (read < 0) {
+                break;
+            }
+            len += read;
+        }
+        input.unread(head, 0, len);
+        return len == head.length
+            && (head[0] & 0xff) == S3Encoding.MAGIC_ONE
+            && (head[1] & 0xff) == S3Encoding.MAGIC_TWO;
+    }
+
+}
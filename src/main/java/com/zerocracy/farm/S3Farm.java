@@ -16,6 +16,7 @@
  */
 package com.zerocracy.farm;
 
+import com.jcabi.aspects.Tv;
 import com.jcabi.s3.Bucket;
 import com.zerocracy.Farm;
 import com.zerocracy.Project;
@@ -23,6 +24,7 @@ import com.zerocracy.pmo.Catalog;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.regex.Matcher;
@@ -34,6 +36,15 @@ import org.cactoos.list.SolidList;
 /**
  * Farm in S3.
  *
+ * <p>When several nodes work with the same bucket, the farm must be
+ * fenced: every item is saved only if S3 still has the version its
+ * local copy is based on, see {@link S3Uploads#fenced()}. PMO is written
+ * by all nodes, so its items are checked in S3 every time they are
+ * acquired and saved right when they are closed, and a conflict reaches
+ * the writer. Items of other projects are
+ * saved in the background, and a node which lost the lease of
+ * a project can't overwrite what the new owner saved.</p>
+ *
  * @author Yegor Bugayenko (yegor256@gmail.com)
  * @version $Id$
  * @since 0.1
@@ -52,6 +63,46 @@ public final class S3Farm implements Farm {
      */
     private final Path temp;
 
+    /**
+     * Cache of local copies.
+     */
+    private final S3Cache cache;
+
+    /**
+     * Uploads.
+     */
+    private final S3Uploads uploads;
+
+    /**
+     * Cache of local copies of PMO.
+     */
+    private final S3Cache pmo;
+
+    /**
+     * Uploads of PMO.
+     */
+    private final S3Uploads shared;
+
+    /**
+     * Index of the catalog.
+     */
+    private final S3Index index;
+
+    /**
+     * Listings of projects.
+     */
+    private final S3Listing listing;
+
+    /**
+     * Encoding of the content.
+     */
+    private final S3Encoding encoding;
+
+    /**
+     * Prefetch of working sets.
+     */
+    private final S3Prefetch prefetch;
+
     /**
      * Ctor.
      * @param bkt Bucket
@@ -67,8 +118,121 @@ public final class S3Farm implements Farm {
      * @param tmp Temporary storage
      */
     public S3Farm(final Bucket bkt, final Path tmp) {
+        this(bkt, tmp, 0L);
+    }
+
+    /**
+     * Ctor.
+     * @param bkt Bucket
+     * @param tmp Temporary storage
+     * @param msec Delay of write-behind uploads, in milliseconds, or zero
+     *  if items must be uploaded when closed
+     */
+    public S3Farm(final Bucket bkt, final Path tmp, final long msec) {
+        this(bkt, tmp, msec, "");
+    }
+
+    /**
+     * Ctor.
+     * @param bkt Bucket
+     * @param tmp Temporary storage
+     * @param msec Delay of write-behind uploads, in milliseconds, or zero
+     *  if items must be uploaded when closed
+     * @param enc Content encoding of saved items, "gzip" or empty for none;
+     *  items are always readable, no matter how they were saved
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public S3Farm(final Bucket bkt, final Path tmp, final long msec,
+        final String enc) {
+        this(bkt, tmp, msec, enc, false);
+    }
+
+    /**
+     * Ctor.
+     * @param bkt Bucket
+     * @param tmp Temporary storage
+     * @param msec Delay of write-behind uploads, in milliseconds, or zero
+     *  if items must be uploaded when closed
+     * @param enc Content encoding of saved items, "gzip" or empty for none;
+     *  items are always readable, no matter how they were saved
+     * @param fenced Several nodes work with the bucket
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public S3Farm(final Bucket bkt, final Path tmp, final long msec,
+        final String enc, final boolean fenced) {
+        this(bkt, tmp, new S3Cache(), msec, new S3Encoding(enc), fenced);
+    }
+
+    /**
+     * Ctor.
+     * @param bkt Bucket
+     * @param tmp Temporary storage
+     * @param cch Cache of local copies
+     * @param msec Delay of write-behind uploads, in milliseconds
+     * @param enc Encoding of the content
+     * @param fenced Several nodes work with the bucket
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private S3Farm(final Bucket bkt, final Path tmp, final S3Cache cch,
+        final long msec, final S3Encoding enc, final boolean fenced) {
+        this(bkt, tmp, cch, new S3Uploads(cch, msec, fenced), enc);
+    }
+
+    /**
+     * Ctor.
+     * @param bkt Bucket
+     * @param tmp Temporary storage
+     * @param cch Cache of local copies
+     * @param upl Uploads
+     * @param enc Encoding of the content
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    S3Farm(final Bucket bkt, final Path tmp, final S3Cache cch,
+        final S3Uploads upl, final S3Encoding enc) {
+        this(bkt, tmp, cch, upl, S3Farm.pmo(cch, upl), enc);
+    }
+
+    /**
+     * Ctor.
+     * @param bkt Bucket
+     * @param tmp Temporary storage
+     * @param cch Cache of local copies
+     * @param upl Uploads
+     * @param pcch Cache of local copies of PMO
+     * @param enc Encoding of the content
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private S3Farm(final Bucket bkt, final Path tmp, final S3Cache cch,
+        final S3Uploads upl, final S3Cache pcch, final S3Encoding enc) {
+        this(bkt, tmp, cch, upl, pcch, S3Farm.shared(pcch, upl), enc);
+    }
+
+    /**
+     * Ctor.
+     * @param bkt Bucket
+     * @param tmp Temporary storage
+     * @param cch Cache of local copies
+     * @param upl Uploads
+     * @param pcch Cache of local copies of PMO
+     * @param pupl Uploads of PMO
+     * @param enc Encoding of the content
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private S3Farm(final Bucket bkt, final Path tmp, final S3Cache cch,
+        final S3Uploads upl, final S3Cache pcch, final S3Uploads pupl,
+        final S3Encoding enc) {
         this.bucket = bkt;
         this.temp = tmp;
+        this.cache = cch;
+        this.uploads = upl;
+        this.pmo = pcch;
+        this.shared = pupl;
+        this.index = new S3Index();
+        this.listing = new S3Listing();
+        this.encoding = enc;
+        this.prefetch = new S3Prefetch(
+            bkt, tmp, cch, upl, enc, Tv.EIGHT
+        );
     }
 
     @Override
@@ -76,24 +240,47 @@ public final class S3Farm implements Farm {
         Iterable<Project> found;
         if ("@id='PMO'".equals(xpath)) {
             found = new SolidList<>(
-                new S3Project(this.bucket, "PMO/", this.temp)
+                new S3Project(
+                    this.bucket, "PMO/", this.temp, this.pmo, this.shared,
+                    this.listing, this.encoding, this.prefetch
+                )
             );
         } else {
-            final Catalog catalog = new Catalog(this).bootstrap();
-            found = new Mapped<>(
-                prefix -> new S3Project(this.bucket, prefix, this.temp),
-                catalog.findByXPath(xpath)
-            );
+            found = this.projects(this.index.find(this, xpath));
             if (!found.iterator().hasNext()) {
-                found = this.force(catalog, xpath);
+                found = this.force(xpath);
             }
         }
         return found;
     }
 
     @Override
-    public void close() {
-        // nothing
+    public void close() throws IOException {
+        this.prefetch.close();
+        try {
+            this.uploads.close();
+        } finally {
+            if (!this.shared.equals(this.uploads)) {
+                this.shared.close();
+            }
+        }
+    }
+
+    /**
+     * Make local copies of the project stale, so that they are checked
+     * in S3 when acquired next time.
+     *
+     * <p>Call it when this node takes the lease of the project, since
+     * another node could modify it meanwhile.</p>
+     *
+     * @param pid Project ID
+     * @throws IOException If fails
+     */
+    public void expire(final String pid) throws IOException {
+        for (final String prefix
+            : this.index.find(this, String.format("@id='%s'", pid))) {
+            this.cache.expire(this.temp.resolve(prefix));
+        }
     }
 
     /**
@@ -104,32 +291,95 @@ public final class S3Farm implements Farm {
     public void delete(final String prefix) throws IOException {
         for (final String ocket : this.bucket.list(prefix)) {
             this.bucket.remove(ocket);
+            this.uploads.forget(this.temp.resolve(ocket));
+            Files.deleteIfExists(this.temp.resolve(ocket));
+            this.cache.forget(this.temp.resolve(ocket));
         }
+        this.listing.forget(prefix);
     }
 
     /**
      * Make sure it exists and return it.
-     * @param catalog The catalog
+     *
+     * <p>Concurrent lookups of the same new project add it to the
+     * catalog only once.</p>
+     *
      * @param xpath The XPath
      * @return List of found projects
      * @throws IOException If fails
      */
-    private Iterable<Project> force(final Catalog catalog,
-        final String xpath) throws IOException {
+    private Iterable<Project> force(final String xpath) throws IOException {
         final Matcher matcher = Pattern.compile(
             "\\s*@id\\s*=\\s*'([^']+)'\\s*"
         ).matcher(xpath);
         final Iterable<Project> found;
         if (matcher.matches()) {
             final String pid = matcher.group(1);
-            catalog.add(
-                pid, String.format("%tY/%1$tm/%s/", new Date(), pid)
-            );
-            found = this.find(xpath);
+            Collection<String> prefixes;
+            synchronized (this.index) {
+                prefixes = this.index.fresh(this, xpath);
+                if (prefixes.isEmpty()) {
+                    new Catalog(this).add(
+                        pid, String.format("%tY/%1$tm/%s/", new Date(), pid)
+                    );
+                    prefixes = this.index.fresh(this, xpath);
+                }
+            }
+            found = this.projects(prefixes);
         } else {
             found = Collections.emptyList();
         }
         return found;
     }
 
+    /**
+     * Cache of PMO, which is never fresh if uploads are fenced,
+     * since other nodes modify PMO all the time.
+     * @param cache Cache of local copies of other projects
+     * @param uploads Uploads of other projects
+     * @return Cache
+     */
+    private static S3Cache pmo(final S3Cache cache,
+        final S3Uploads uploads) {
+        final S3Cache pmo;
+        if (uploads.fenced()) {
+            pmo = new S3Cache(0L);
+        } else {
+            pmo = cache;
+        }
+        return pmo;
+    }
+
+    /**
+     * Uploads of PMO, which are not delayed if uploads are fenced.
+     * @param cache Cache of local copies of PMO
+     * @param uploads Uploads of other projects
+     * @return Uploads
+     */
+    private static S3Uploads shared(final S3Cache cache,
+        final S3Uploads uploads) {
+        final S3Uploads pmo;
+        if (uploads.fenced()) {
+            pmo = new S3Uploads(cache, 0L, true);
+        } else {
+            pmo = uploads;
+        }
+        return pmo;
+    }
+
+    /**
+     * Projects by their prefixes.
+     * @param prefixes Prefixes
+     * @return Projects
+     */
+    private Iterable<Project> projects(final Iterable<String> prefixes) {
+        return new Mapped<>(
+            prefix -> new S3Project(
+                this.bucket, prefix, this.temp, this.cache, this.uploads,
+                this.listing, this.encoding, this.prefetch
+            ),
+            prefixes
+        );
+    }
+
 }
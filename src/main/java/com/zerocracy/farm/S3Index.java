@@ -0,0 +1,282 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm;
+
+import com.jcabi.xml.XML;
+import com.jcabi.xml.XMLDocument;
+import com.zerocracy.Farm;
+import com.zerocracy.Item;
+import com.zerocracy.pmo.Catalog;
+import com.zerocracy.pmo.Pmo;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory index of PMO catalog.xml.
+ *
+ * <p>Answers the most popular queries of {@link Farm#find(String)}: by
+ * project ID, by link and "all projects", without parsing and validating
+ * the catalog on every call. The index is rebuilt when the local copy
+ * of catalog.xml changes its modification time or size, no matter who
+ * modified it. All other queries go to {@link Catalog#findByXPath(String)}.
+ *
+ * <p>Snapshots are immutable and swapped atomically. Only one thread at
+ * a time checks catalog.xml and rebuilds the snapshot; while it does
+ * that, other threads get the previous snapshot and don't wait, unless
+ * there is no snapshot yet or they ask for a fresh one with
+ * {@link #fresh(Farm, String)}.
+ *
+ * <p>The class is thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ */
+final class S3Index {
+
+    /**
+     * Query by project ID.
+     */
+    private static final Pattern BY_ID = Pattern.compile(
+        "\\s*@id\\s*=\\s*'([^']+)'\\s*"
+    );
+
+    /**
+     * Query by link.
+     */
+    private static final Pattern BY_LINK = Pattern.compile(
+        String.join(
+            "",
+            "\\s*links/link\\[\\s*@rel\\s*=\\s*'([^']+)'",
+            "\\s+and\\s+@href\\s*=\\s*'([^']+)'\\s*]\\s*"
+        )
+    );
+
+    /**
+     * Current snapshot.
+     */
+    private final AtomicReference<S3Index.Snapshot> current;
+
+    /**
+     * Lock of the thread, which refreshes the snapshot.
+     */
+    private final Lock refresh;
+
+    /**
+     * Ctor.
+     */
+    S3Index() {
+        this.current = new AtomicReference<>(S3Index.Snapshot.EMPTY);
+        this.refresh = new ReentrantLock();
+    }
+
+    /**
+     * Find prefixes of projects.
+     * @param farm The farm with PMO
+     * @param xpath XPath query, as in {@link Farm#find(String)}
+     * @return Prefixes found
+     * @throws IOException If fails
+     */
+    public Collection<String> find(final Farm farm, final String xpath)
+        throws IOException {
+        return S3Index.find(farm, xpath, this.snapshot(farm, false));
+    }
+
+    /**
+     * Find prefixes of projects in the catalog as it is now, waiting
+     * for the snapshot to be refreshed, if necessary.
+     * @param farm The farm with PMO
+     * @param xpath XPath query, as in {@link Farm#find(String)}
+     * @return Prefixes found
+     * @throws IOException If fails
+     */
+    public Collection<String> fresh(final Farm farm, final String xpath)
+        throws IOException {
+        return S3Index.find(farm, xpath, this.snapshot(farm, true));
+    }
+
+    /**
+     * Find prefixes of projects in the snapshot.
+     * @param farm The farm with PMO
+     * @param xpath XPath query, as in {@link Farm#find(String)}
+     * @param snap The snapshot
+     * @return Prefixes found
+     * @throws IOException If fails
+     */
+    private static Collection<String> find(final Farm farm,
+        final String xpath, final S3Index.Snapshot snap) throws IOException {
+        final Collection<String> found;
+        final Matcher pid = S3Index.BY_ID.matcher(xpath);
+        final Matcher link = S3Index.BY_LINK.matcher(xpath);
+        if (xpath.isEmpty()) {
+            found = snap.all;
+        } else if (pid.matches()) {
+            found = snap.ids.getOrDefault(
+                pid.group(1), Collections.emptyList()
+            );
+        } else if (link.matches()) {
+            found = snap.links.getOrDefault(
+                S3Index.link(link.group(1), link.group(2)),
+                Collections.emptyList()
+            );
+        } else {
+            found = new Catalog(farm).findByXPath(xpath);
+        }
+        return found;
+    }
+
+    /**
+     * Get the snapshot, refreshing it if the catalog changed.
+     *
+     * <p>If another thread is refreshing it now, the previous snapshot
+     * is returned, unless there is none or the caller has to wait.</p>
+     *
+     * @param farm The farm
+     * @param wait Wait for the refresh by another thread?
+     * @return Snapshot
+     * @throws IOException If fails
+     */
+    private S3Index.Snapshot snapshot(final Farm farm, final boolean wait)
+        throws IOException {
+        S3Index.Snapshot snap = this.current.get();
+        final boolean locked;
+        if (wait || snap == S3Index.Snapshot.EMPTY) {
+            this.refresh.lock();
+            locked = true;
+        } else {
+            locked = this.refresh.tryLock();
+        }
+        if (locked) {
+            try {
+                snap = this.current.get();
+                try (final Item item = new Pmo(farm).acq("catalog.xml")) {
+                    if (!snap.matches(item.path())) {
+                        new Catalog(farm).bootstrap();
+                        snap = new S3Index.Snapshot(item.path());
+                        this.current.set(snap);
+                    }
+                }
+            } finally {
+                this.refresh.unlock();
+            }
+        }
+        return snap;
+    }
+
+    /**
+     * Key of a link.
+     * @param rel REL
+     * @param href HREF
+     * @return Key
+     */
+    private static String link(final String rel, final String href) {
+        return String.format("%s %s", rel, href);
+    }
+
+    /**
+     * Immutable snapshot of the catalog.
+     */
+    private static final class Snapshot {
+        /**
+         * Empty one, which matches no file.
+         */
+        private static final S3Index.Snapshot EMPTY = new S3Index.Snapshot();
+        /**
+         * Last modified time of the file, in milliseconds, or -1.
+         */
+        private final long modified;
+        /**
+         * Size of the file.
+         */
+        private final long length;
+        /**
+         * Prefixes by project ID.
+         */
+        private final Map<String, List<String>> ids;
+        /**
+         * Prefixes by links.
+         */
+        private final Map<String, List<String>> links;
+        /**
+         * All prefixes, in the order of the catalog.
+         */
+        private final List<String> all;
+        /**
+         * Ctor.
+         */
+        Snapshot() {
+            this.modified = -1L;
+            this.length = -1L;
+            this.ids = Collections.emptyMap();
+            this.links = Collections.emptyMap();
+            this.all = Collections.emptyList();
+        }
+        /**
+         * Ctor.
+         * @param file The catalog.xml file
+         * @throws IOException If fails
+         */
+        Snapshot(final Path file) throws IOException {
+            this.modified = Files.getLastModifiedTime(file).toMillis();
+            this.length = Files.size(file);
+            this.ids = new HashMap<>(0);
+            this.links = new HashMap<>(0);
+            this.all = new LinkedList<>();
+            final XML xml = new XMLDocument(file.toFile());
+            for (final XML project : xml.nodes("/catalog/project[prefix]")) {
+                final List<String> prefix = Collections.singletonList(
+                    project.xpath("prefix/text()").get(0)
+                );
+                this.all.addAll(prefix);
+                this.ids.put(project.xpath("@id").get(0), prefix);
+                for (final XML lnk : project.nodes("links/link")) {
+                    this.links.computeIfAbsent(
+                        S3Index.link(
+                            lnk.xpath("@rel").get(0),
+                            lnk.xpath("@href").get(0)
+                        ),
+                        key -> new LinkedList<>()
+                    ).addAll(prefix);
+                }
+            }
+        }
+        /**
+         * This snapshot was built from this file, as it is now?
+         * @param file The file
+         * @return TRUE if it is still fresh
+         * @throws IOException If fails
+         */
+        public boolean matches(final Path file) throws IOException {
+            return this.modified >= 0L && Files.exists(file)
+                && Files.getLastModifiedTime(file).toMillis() == this.modified
+                && Files.size(file) == this.length;
+        }
+    }
+
+}
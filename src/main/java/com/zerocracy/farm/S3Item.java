@@ -16,27 +16,48 @@
  */
 package com.zerocracy.farm;
 
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
 import com.jcabi.log.Logger;
 import com.jcabi.s3.Ocket;
 import com.zerocracy.Item;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
-import java.nio.file.attribute.FileTime;
-import java.util.Date;
+import java.util.Collections;
 import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.EqualsAndHashCode;
 
 /**
  * Item in S3.
  *
+ * <p>The content is kept in a local file, which is re-used between
+ * acquisitions as long as {@link S3Cache} says it is up to date.</p>
+ *
+ * <p>When uploads are fenced, see {@link S3Uploads#fenced()}, the item
+ * is saved with a conditional PUT. It succeeds only if the object in
+ * S3 is still the version the local copy is based on. Otherwise
+ * another node modified it meanwhile: the local changes are dropped,
+ * the upload fails, and the next acquisition loads the new version.
+ * This works only with the real AWS client, see
+ * {@link #real(Ocket)}.</p>
+ *
  * @author Yegor Bugayenko (yegor256@gmail.com)
  * @version $Id$
  * @since 0.1
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
  */
 @EqualsAndHashCode(of = { "ocket", "temp" })
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
 final class S3Item implements Item {
 
     /**
@@ -49,6 +70,26 @@ final class S3Item implements Item {
      */
     private final Path temp;
 
+    /**
+     * Cache.
+     */
+    private final S3Cache cache;
+
+    /**
+     * Uploads.
+     */
+    private final S3Uploads uploads;
+
+    /**
+     * Listings to invalidate on writes.
+     */
+    private final S3Listing listing;
+
+    /**
+     * Encoding of the content.
+     */
+    private final S3Encoding encoding;
+
     /**
      * Is it open/acquired?
      */
@@ -69,8 +110,64 @@ final class S3Item implements Item {
      * @param tmp Path
      */
     S3Item(final Ocket okt, final Path tmp) {
+        this(okt, tmp, new S3Cache(0L));
+    }
+
+    /**
+     * Ctor.
+     * @param okt Ocket
+     * @param tmp Path
+     * @param cch Cache
+     */
+    S3Item(final Ocket okt, final Path tmp, final S3Cache cch) {
+        this(okt, tmp, cch, new S3Uploads(cch));
+    }
+
+    /**
+     * Ctor.
+     * @param okt Ocket
+     * @param tmp Path
+     * @param cch Cache
+     * @param upl Uploads
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    S3Item(final Ocket okt, final Path tmp, final S3Cache cch,
+        final S3Uploads upl) {
+        this(okt, tmp, cch, upl, new S3Listing(0L));
+    }
+
+    /**
+     * Ctor.
+     * @param okt Ocket
+     * @param tmp Path
+     * @param cch Cache
+     * @param upl Uploads
+     * @param lst Listings
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    S3Item(final Ocket okt, final Path tmp, final S3Cache cch,
+        final S3Uploads upl, final S3Listing lst) {
+        this(okt, tmp, cch, upl, lst, new S3Encoding());
+    }
+
+    /**
+     * Ctor.
+     * @param okt Ocket
+     * @param tmp Path
+     * @param cch Cache
+     * @param upl Uploads
+     * @param lst Listings
+     * @param enc Encoding of the content
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    S3Item(final Ocket okt, final Path tmp, final S3Cache cch,
+        final S3Uploads upl, final S3Listing lst, final S3Encoding enc) {
         this.ocket = okt;
         this.temp = tmp;
+        this.cache = cch;
+        this.uploads = upl;
+        this.listing = lst;
+        this.encoding = enc;
         this.open = new AtomicBoolean(false);
     }
 
@@ -88,21 +185,92 @@ final class S3Item implements Item {
                     this.temp.toFile().getAbsolutePath()
                 );
             }
-            if (this.ocket.exists() && (!Files.exists(this.temp)
-                || this.expired())) {
-                final long start = System.currentTimeMillis();
-                this.ocket.read(
-                    Files.newOutputStream(
-                        this.temp,
-                        StandardOpenOption.CREATE,
-                        StandardOpenOption.TRUNCATE_EXISTING
-                    )
-                );
-                Files.setLastModifiedTime(
+            if (!this.cache.fresh(this.temp)
+                && !this.uploads.pending(this.temp)
+                && !this.cache.unstage(this.temp)) {
+                if (S3Item.real(this.ocket)) {
+                    this.fetch();
+                } else {
+                    this.load();
+                }
+            }
+            this.open.set(true);
+        }
+        return this.temp;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.open.get() && Files.exists(this.temp)
+            && this.cache.dirty(this.temp)) {
+            this.uploads.push(this.temp, this::upload);
+            this.listing.forget(this.ocket.key());
+        }
+        this.open.set(false);
+    }
+
+    /**
+     * Load it from S3 with a conditional GET, if it was modified.
+     * @throws IOException If fails
+     */
+    private void fetch() throws IOException {
+        final long start = System.currentTimeMillis();
+        final String etag = this.cache.etag(this.temp);
+        final GetObjectRequest req = new GetObjectRequest(
+            this.ocket.bucket().name(), this.ocket.key()
+        );
+        if (!etag.isEmpty()) {
+            req.setNonmatchingETagConstraints(
+                Collections.singletonList(etag)
+            );
+        }
+        final AmazonS3 aws = this.ocket.bucket().region().aws();
+        try {
+            final S3Object obj = aws.getObject(req);
+            if (obj == null) {
+                this.cache.remember(this.temp, etag);
+            } else {
+                try (final InputStream input = obj.getObjectContent()) {
+                    this.store(input, obj.getObjectMetadata());
+                }
+                Logger.info(
+                    this, "Loaded %d bytes from %s to %s (%s) in %[ms]s",
+                    this.temp.toFile().length(),
+                    this.ocket.key(),
                     this.temp,
-                    FileTime.fromMillis(
-                        this.ocket.meta().getLastModified().getTime()
-                    )
+                    Files.getLastModifiedTime(this.temp),
+                    System.currentTimeMillis() - start
+                );
+            }
+        } catch (final AmazonS3Exception ex) {
+            if (ex.getStatusCode() != HttpURLConnection.HTTP_NOT_FOUND) {
+                throw new IOException(
+                    String.format("Failed to load %s", this.ocket.key()),
+                    ex
+                );
+            }
+            this.cache.forget(this.temp);
+        }
+    }
+
+    /**
+     * Load it through the ocket, if the remote version differs.
+     *
+     * <p>This is used when the region doesn't give access to the AWS
+     * client, for example when it is a fake one.</p>
+     *
+     * @throws IOException If fails
+     */
+    private void load() throws IOException {
+        if (this.ocket.exists()) {
+            final ObjectMetadata meta = this.ocket.meta();
+            if (!S3Item.etag(meta).equals(this.cache.etag(this.temp))) {
+                final long start = System.currentTimeMillis();
+                final ByteArrayOutputStream output =
+                    new ByteArrayOutputStream();
+                this.ocket.read(output);
+                this.store(
+                    new ByteArrayInputStream(output.toByteArray()), meta
                 );
                 Logger.info(
                     this, "Loaded %d bytes from %s to %s (%s) in %[ms]s",
@@ -112,64 +280,167 @@ final class S3Item implements Item {
                     Files.getLastModifiedTime(this.temp),
                     System.currentTimeMillis() - start
                 );
+            } else {
+                this.cache.remember(this.temp, S3Item.etag(meta));
             }
-            this.open.set(true);
+        } else {
+            this.cache.forget(this.temp);
         }
-        return this.temp;
     }
 
-    @Override
-    public void close() throws IOException {
-        if (this.open.get() && Files.exists(this.temp)
-            && (!this.ocket.exists() || this.dirty())) {
-            final ObjectMetadata meta = new ObjectMetadata();
-            final long start = System.currentTimeMillis();
-            meta.setContentLength(this.temp.toFile().length());
-            this.ocket.write(Files.newInputStream(this.temp), meta);
-            Files.setLastModifiedTime(
-                this.temp,
-                FileTime.fromMillis(
-                    this.ocket.meta().getLastModified().getTime()
-                )
-            );
-            Logger.info(
-                this, "Saved %d bytes to %s from %s (%s) in %[ms]s",
-                this.temp.toFile().length(),
-                this.ocket.key(),
-                this.temp,
-                Files.getLastModifiedTime(this.temp),
-                System.currentTimeMillis() - start
-            );
+    /**
+     * Upload the file to S3.
+     * @param src The file with the content
+     * @return ETag of the new version
+     * @throws IOException If fails
+     */
+    private String upload(final Path src) throws IOException {
+        final long start = System.currentTimeMillis();
+        final String etag;
+        if (S3Item.real(this.ocket)) {
+            etag = this.put(src);
+        } else {
+            etag = this.save(src);
         }
-        this.open.set(false);
+        this.listing.forget(this.ocket.key());
+        Logger.info(
+            this, "Saved %d bytes to %s from %s (%s) in %[ms]s",
+            src.toFile().length(),
+            this.ocket.key(),
+            this.temp,
+            Files.getLastModifiedTime(this.temp),
+            System.currentTimeMillis() - start
+        );
+        return etag;
     }
 
     /**
-     * Local version is expired?
-     * @return TRUE if local one is expired
+     * Save it to S3 with a PUT, conditional if uploads are fenced.
+     * @param src The file with the content
+     * @return ETag of the new version
      * @throws IOException If fails
      */
-    private boolean expired() throws IOException {
-        final Date local = new Date(
-            Files.getLastModifiedTime(this.temp).toMillis()
+    private String put(final Path src) throws IOException {
+        final ObjectMetadata meta = new ObjectMetadata();
+        final String base = this.cache.base(this.temp);
+        return this.encoding.encode(
+            src, meta,
+            body -> {
+                final PutObjectRequest req = new PutObjectRequest(
+                    this.ocket.bucket().name(), this.ocket.key(),
+                    body.toFile()
+                ).withMetadata(meta);
+                if (this.uploads.fenced()) {
+                    if (base.isEmpty()) {
+                        req.putCustomRequestHeader("If-None-Match", "*");
+                    } else {
+                        req.putCustomRequestHeader("If-Match", base);
+                    }
+                }
+                try {
+                    return this.ocket.bucket().region().aws()
+                        .putObject(req).getETag();
+                } catch (final AmazonS3Exception ex) {
+                    if (!S3Item.conflict(ex)) {
+                        throw new IOException(
+                            String.format(
+                                "Failed to save %s", this.ocket.key()
+                            ),
+                            ex
+                        );
+                    }
+                    this.cache.forget(this.temp);
+                    this.uploads.forget(this.temp);
+                    throw new IOException(
+                        String.format(
+                            // @checkstyle LineLength (1 line)
+                            "%s was modified by another node since version \"%s\", local changes are dropped",
+                            this.ocket.key(), base
+                        ),
+                        ex
+                    );
+                } catch (final AmazonClientException ex) {
+                    throw new IOException(
+                        String.format("Failed to save %s", this.ocket.key()),
+                        ex
+                    );
+                }
+            }
         );
-        final Date remote = this.ocket.meta().getLastModified();
-        return remote.compareTo(local) > 0;
     }
 
     /**
-     * Do we really need to save it now to S3?
-     * @return TRUE if it has to be uploaded
+     * Save it through the ocket.
+     * @param src The file with the content
+     * @return ETag of the new version
      * @throws IOException If fails
      */
-    private boolean dirty() throws IOException {
-        final Date local = new Date(
-            Files.getLastModifiedTime(this.temp).toMillis()
+    private String save(final Path src) throws IOException {
+        final ObjectMetadata meta = new ObjectMetadata();
+        this.encoding.encode(
+            src, meta,
+            body -> {
+                try (final InputStream input = Files.newInputStream(body)) {
+                    this.ocket.write(input, meta);
+                }
+                return body;
+            }
         );
-        final ObjectMetadata meta = this.ocket.meta();
-        final Date remote = meta.getLastModified();
-        return !remote.equals(local)
-            || this.temp.toFile().length() != meta.getContentLength();
+        return S3Item.etag(this.ocket.meta());
+    }
+
+    /**
+     * Store the content into the local file.
+     * @param input Content
+     * @param meta Its metadata
+     * @throws IOException If fails
+     */
+    private void store(final InputStream input, final ObjectMetadata meta)
+        throws IOException {
+        this.encoding.decode(input, meta, this.temp);
+        this.cache.remember(this.temp, S3Item.etag(meta));
+    }
+
+    /**
+     * ETag of the object, or its surrogate if S3 didn't provide one.
+     * @param meta Metadata
+     * @return ETag
+     */
+    static String etag(final ObjectMetadata meta) {
+        String etag = meta.getETag();
+        if (etag == null) {
+            etag = String.format(
+                "%d/%d",
+                meta.getLastModified().getTime(),
+                meta.getContentLength()
+            );
+        }
+        return etag;
+    }
+
+    /**
+     * S3 rejected a conditional PUT?
+     * @param ex The error
+     * @return TRUE if the object was modified by somebody else
+     */
+    private static boolean conflict(final AmazonS3Exception ex) {
+        return ex.getStatusCode() == HttpURLConnection.HTTP_PRECON_FAILED
+            || ex.getStatusCode() == HttpURLConnection.HTTP_CONFLICT;
+    }
+
+    /**
+     * The ocket gives access to the real AWS client?
+     * @param okt The ocket
+     * @return TRUE if conditional requests are possible
+     */
+    static boolean real(final Ocket okt) {
+        boolean aws;
+        try {
+            aws = okt.bucket().region().aws() != null;
+        } catch (final UnsupportedOperationException ex) {
+            aws = false;
+        }
+        return aws;
     }
 
 }
@@ -0,0 +1,273 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm;
+
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.jcabi.log.Logger;
+import com.jcabi.s3.Bucket;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import org.cactoos.time.DateAsText;
+
+/**
+ * Listings of S3 prefixes, as _list.xml documents.
+ *
+ * <p>The listing follows continuation tokens, page by page, so
+ * it is complete for projects with more than a thousand files. Every
+ * page is written straight to the XML, without building a tree of
+ * directives first. Listings are cached per prefix for a while and
+ * forgotten when any object under the prefix is saved by this node.
+ *
+ * <p>The class is thread-safe.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ */
+final class S3Listing {
+
+    /**
+     * XML factory.
+     */
+    private static final XMLOutputFactory FACTORY =
+        XMLOutputFactory.newInstance();
+
+    /**
+     * Listings by prefixes.
+     */
+    private final Map<String, S3Listing.Entry> entries;
+
+    /**
+     * Number of modifications seen so far.
+     */
+    private final AtomicLong changes;
+
+    /**
+     * How long a listing stays valid, in milliseconds.
+     */
+    private final long ttl;
+
+    /**
+     * Ctor.
+     */
+    S3Listing() {
+        this(TimeUnit.MINUTES.toMillis(1L));
+    }
+
+    /**
+     * Ctor.
+     * @param msec Time to live of a listing, in milliseconds
+     */
+    S3Listing(final long msec) {
+        this.entries = new ConcurrentHashMap<>(0);
+        this.changes = new AtomicLong();
+        this.ttl = msec;
+    }
+
+    /**
+     * Listing of this prefix, as XML.
+     * @param bucket The bucket
+     * @param prefix The prefix
+     * @return XML of the listing
+     * @throws IOException If fails
+     */
+    public String xml(final Bucket bucket, final String prefix)
+        throws IOException {
+        final S3Listing.Entry entry = this.entries.get(prefix);
+        final String xml;
+        if (entry != null
+            && System.currentTimeMillis() - entry.created < this.ttl) {
+            xml = entry.xml;
+        } else {
+            final long seen = this.changes.get();
+            final long start = System.currentTimeMillis();
+            xml = S3Listing.build(bucket, prefix);
+            if (this.ttl > 0L && this.changes.get() == seen) {
+                this.entries.put(prefix, new S3Listing.Entry(xml, start));
+            }
+            Logger.info(
+                this, "Listed %s in %[ms]s, %d chars",
+                prefix, System.currentTimeMillis() - start, xml.length()
+            );
+        }
+        return xml;
+    }
+
+    /**
+     * This object was modified, forget listings that include it.
+     * @param key The key of the object in the bucket
+     */
+    public void forget(final String key) {
+        this.changes.incrementAndGet();
+        this.entries.keySet().removeIf(key::startsWith);
+    }
+
+    /**
+     * Build a listing.
+     * @param bucket The bucket
+     * @param prefix The prefix
+     * @return XML
+     * @throws IOException If fails
+     */
+    private static String build(final Bucket bucket, final String prefix)
+        throws IOException {
+        final StringWriter xml = new StringWriter();
+        try {
+            final XMLStreamWriter out = S3Listing.FACTORY
+                .createXMLStreamWriter(xml);
+            out.writeStartDocument();
+            out.writeStartElement("items");
+            if (S3Listing.real(bucket)) {
+                S3Listing.aws(bucket, prefix, out);
+            } else {
+                S3Listing.keys(bucket, prefix, out);
+            }
+            out.writeEndElement();
+            out.writeEndDocument();
+            out.close();
+        } catch (final XMLStreamException ex) {
+            throw new IOException(ex);
+        }
+        return xml.toString();
+    }
+
+    /**
+     * List all pages through the AWS client.
+     * @param bucket The bucket
+     * @param prefix The prefix
+     * @param out Where to write
+     * @throws IOException If fails
+     * @throws XMLStreamException If fails
+     */
+    private static void aws(final Bucket bucket, final String prefix,
+        final XMLStreamWriter out) throws IOException, XMLStreamException {
+        final ListObjectsV2Request request = new ListObjectsV2Request()
+            .withBucketName(bucket.name())
+            .withPrefix(prefix);
+        ListObjectsV2Result page;
+        do {
+            try {
+                page = bucket.region().aws().listObjectsV2(request);
+            } catch (final AmazonS3Exception ex) {
+                throw new IOException(
+                    String.format("Failed to list %s", prefix), ex
+                );
+            }
+            for (final S3ObjectSummary sum : page.getObjectSummaries()) {
+                S3Listing.item(
+                    out, sum.getKey().substring(prefix.length()),
+                    sum.getSize(), sum.getLastModified()
+                );
+            }
+            request.setContinuationToken(page.getNextContinuationToken());
+        } while (page.isTruncated());
+    }
+
+    /**
+     * List all keys through the bucket, when there is no AWS client.
+     * @param bucket The bucket
+     * @param prefix The prefix
+     * @param out Where to write
+     * @throws IOException If fails
+     * @throws XMLStreamException If fails
+     */
+    private static void keys(final Bucket bucket, final String prefix,
+        final XMLStreamWriter out) throws IOException, XMLStreamException {
+        for (final String key : bucket.list(prefix)) {
+            final ObjectMetadata meta = bucket.ocket(key).meta();
+            S3Listing.item(
+                out, key.substring(prefix.length()),
+                meta.getContentLength(), meta.getLastModified()
+            );
+        }
+    }
+
+    /**
+     * Write one item.
+     * @param out Where to write
+     * @param name Name of the file
+     * @param size Size of it
+     * @param modified When it was modified
+     * @throws XMLStreamException If fails
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private static void item(final XMLStreamWriter out, final String name,
+        final long size, final Date modified) throws XMLStreamException {
+        out.writeStartElement("item");
+        out.writeStartElement("name");
+        out.writeCharacters(name);
+        out.writeEndElement();
+        out.writeStartElement("size");
+        out.writeCharacters(Long.toString(size));
+        out.writeEndElement();
+        out.writeStartElement("modified");
+        out.writeCharacters(new DateAsText(modified).asString());
+        out.writeEndElement();
+        out.writeEndElement();
+    }
+
+    /**
+     * This bucket has a real AWS client?
+     * @param bucket The bucket
+     * @return TRUE if it is not a fake one
+     */
+    private static boolean real(final Bucket bucket) {
+        boolean aws;
+        try {
+            aws = bucket.region().aws() != null;
+        } catch (final UnsupportedOperationException ex) {
+            aws = false;
+        }
+        return aws;
+    }
+
+    /**
+     * Cached listing.
+     */
+    private static final class Entry {
+        /**
+         * XML of the listing.
+         */
+        private final String xml;
+        /**
+         * When it was created.
+         */
+        private final long created;
+        /**
+         * Ctor.
+         * @param text XML of the listing
+         * @param time When it was created
+         */
+        Entry(final String text, final long time) {
+            this.xml = text;
+            this.created = time;
+        }
+    }
+
+}
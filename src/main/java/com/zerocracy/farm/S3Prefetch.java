@@ -0,0 +1,418 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm;
+
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
+import com.jcabi.log.VerboseRunnable;
+import com.jcabi.log.VerboseThreads;
+import com.jcabi.s3.Bucket;
+import com.jcabi.s3.Ocket;
+import com.zerocracy.ShutUp;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.cactoos.scalar.SolidScalar;
+import org.cactoos.scalar.UncheckedScalar;
+
+/**
+ * Parallel prefetch of the working set of a project.
+ *
+ * <p>When a project gets a new claim (claims.xml is acquired), it is
+ * going to be flushed and its stakeholders will read a number of
+ * documents, one by one. This class downloads those documents in
+ * parallel, in advance, and stages them in {@link S3Cache}, so that
+ * {@link S3Item} doesn't go to S3 for each of them.</p>
+ *
+ * <p>The working set of a project is the configured set of documents
+ * plus the documents recently acquired in this project on this node:
+ * at most fifty of them, acquired during the last hour.
+ * Documents which are fresh in the cache or waiting for upload are not
+ * downloaded. Local files are never touched here. PMO is never
+ * prefetched: it gets claims all the time and its documents are mostly
+ * per-user ones, which the next claim is not likely to read.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ * @checkstyle ClassFanOutComplexityCheck (500 lines)
+ */
+final class S3Prefetch implements Closeable {
+
+    /**
+     * Documents which are read by most claims.
+     */
+    private static final Collection<String> HOT = Arrays.asList(
+        "roles.xml", "wbs.xml", "orders.xml", "ledger.xml",
+        "elections.xml", "reviews.xml", "estimates.xml", "rates.xml"
+    );
+
+    /**
+     * How many learned documents to remember per project.
+     */
+    private static final int LEARNED = Tv.FIFTY;
+
+    /**
+     * For how long to remember a learned document, in milliseconds.
+     */
+    private static final long AGE = TimeUnit.HOURS.toMillis(1L);
+
+    /**
+     * Prefix of PMO.
+     */
+    private static final String PMO = "PMO/";
+
+    /**
+     * S3 bucket.
+     */
+    private final Bucket bucket;
+
+    /**
+     * Path to temporary storage.
+     */
+    private final Path temp;
+
+    /**
+     * Cache of local copies.
+     */
+    private final S3Cache cache;
+
+    /**
+     * Uploads.
+     */
+    private final S3Uploads uploads;
+
+    /**
+     * Encoding of the content.
+     */
+    private final S3Encoding encoding;
+
+    /**
+     * Configured working set.
+     */
+    private final Collection<String> configured;
+
+    /**
+     * Learned working sets, per prefix: times of last acquisitions
+     * of documents, in the order of acquisition.
+     */
+    private final Map<String, Map<String, Long>> learned;
+
+    /**
+     * Keys being downloaded now.
+     */
+    private final Set<String> running;
+
+    /**
+     * How many threads to use, zero means no prefetch.
+     */
+    private final int threads;
+
+    /**
+     * Executor.
+     */
+    private final UncheckedScalar<ExecutorService> service;
+
+    /**
+     * The executor was started?
+     */
+    private final AtomicBoolean started;
+
+    /**
+     * Ctor.
+     * @param bkt Bucket
+     * @param tmp Temporary storage
+     * @param cch Cache of local copies
+     * @param upl Uploads
+     * @param enc Encoding
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    S3Prefetch(final Bucket bkt, final Path tmp, final S3Cache cch,
+        final S3Uploads upl, final S3Encoding enc) {
+        this(bkt, tmp, cch, upl, enc, S3Prefetch.HOT, 0);
+    }
+
+    /**
+     * Ctor.
+     * @param bkt Bucket
+     * @param tmp Temporary storage
+     * @param cch Cache of local copies
+     * @param upl Uploads
+     * @param enc Encoding
+     * @param threads Threads to download with, or zero for no prefetch
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    S3Prefetch(final Bucket bkt, final Path tmp, final S3Cache cch,
+        final S3Uploads upl, final S3Encoding enc, final int threads) {
+        this(bkt, tmp, cch, upl, enc, S3Prefetch.HOT, threads);
+    }
+
+    /**
+     * Ctor.
+     * @param bkt Bucket
+     * @param tmp Temporary storage
+     * @param cch Cache of local copies
+     * @param upl Uploads
+     * @param enc Encoding
+     * @param files Configured working set
+     * @param total Threads to download with, or zero for no prefetch
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    S3Prefetch(final Bucket bkt, final Path tmp, final S3Cache cch,
+        final S3Uploads upl, final S3Encoding enc,
+        final Collection<String> files, final int total) {
+        this.bucket = bkt;
+        this.temp = tmp;
+        this.cache = cch;
+        this.uploads = upl;
+        this.encoding = enc;
+        this.configured = Collections.unmodifiableCollection(files);
+        this.threads = total;
+        this.learned = new ConcurrentHashMap<>(0);
+        this.running = ConcurrentHashMap.newKeySet();
+        this.started = new AtomicBoolean();
+        this.service = new UncheckedScalar<>(
+            new SolidScalar<>(
+                () -> {
+                    this.started.set(true);
+                    return Executors.newFixedThreadPool(
+                        this.threads, new VerboseThreads(S3Prefetch.class)
+                    );
+                }
+            )
+        );
+    }
+
+    /**
+     * This file was acquired in the project.
+     * @param prefix Prefix of the project
+     * @param file The file
+     */
+    public void record(final String prefix, final String file) {
+        if (!"claims.xml".equals(file) && !S3Prefetch.PMO.equals(prefix)) {
+            final Map<String, Long> times =
+                this.learned.computeIfAbsent(
+                    prefix, pfx -> new LinkedHashMap<>(0, 0.75f, true)
+                );
+            synchronized (times) {
+                times.put(file, System.currentTimeMillis());
+                if (times.size() > S3Prefetch.LEARNED) {
+                    final Iterator<String> eldest = times.keySet().iterator();
+                    eldest.next();
+                    eldest.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Working set of the project.
+     * @param prefix Prefix of the project
+     * @return Files
+     */
+    public Collection<String> files(final String prefix) {
+        final Collection<String> files = new TreeSet<>(this.configured);
+        final Map<String, Long> times = this.learned.get(prefix);
+        if (times != null) {
+            final long oldest = System.currentTimeMillis() - S3Prefetch.AGE;
+            synchronized (times) {
+                times.values().removeIf(time -> time < oldest);
+                files.addAll(times.keySet());
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Start downloading the working set of the project.
+     * @param prefix Prefix of the project
+     */
+    public void exec(final String prefix) {
+        if (this.threads > 0 && !S3Prefetch.PMO.equals(prefix)) {
+            for (final String file : this.files(prefix)) {
+                final String key = String.format("%s%s", prefix, file);
+                if (this.running.add(key)) {
+                    this.service.value().submit(
+                        new VerboseRunnable(
+                            () -> {
+                                try {
+                                    this.fetch(key);
+                                } finally {
+                                    this.running.remove(key);
+                                }
+                                return null;
+                            },
+                            true, true
+                        )
+                    );
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (this.started.get()) {
+            new ShutUp(this.service.value()).close();
+        }
+    }
+
+    /**
+     * Download one object, if necessary.
+     * @param key The key
+     * @throws IOException If fails
+     */
+    void fetch(final String key) throws IOException {
+        final Path file = this.temp.resolve(key);
+        if (!this.cache.fresh(file) && !this.uploads.pending(file)) {
+            final long start = System.currentTimeMillis();
+            final String base = this.cache.etag(file);
+            final Ocket ocket = this.bucket.ocket(key);
+            final boolean staged;
+            if (S3Item.real(ocket)) {
+                staged = this.aws(ocket, file, base);
+            } else {
+                staged = this.ocket(ocket, file, base);
+            }
+            if (staged) {
+                Logger.info(
+                    this, "Prefetched %s in %[ms]s",
+                    key, System.currentTimeMillis() - start
+                );
+            }
+        }
+    }
+
+    /**
+     * Download with a conditional GET.
+     * @param ocket The object
+     * @param file Local file
+     * @param base Current ETag of the local file
+     * @return TRUE if something was staged
+     * @throws IOException If fails
+     */
+    private boolean aws(final Ocket ocket, final Path file,
+        final String base) throws IOException {
+        final GetObjectRequest req = new GetObjectRequest(
+            this.bucket.name(), ocket.key()
+        );
+        if (!base.isEmpty()) {
+            req.setNonmatchingETagConstraints(
+                Collections.singletonList(base)
+            );
+        }
+        boolean staged = false;
+        try {
+            final S3Object obj = this.bucket.region().aws().getObject(req);
+            if (obj == null) {
+                this.cache.confirm(file, base);
+            } else {
+                try (final InputStream input = obj.getObjectContent()) {
+                    this.stage(
+                        file, base, input, obj.getObjectMetadata()
+                    );
+                }
+                staged = true;
+            }
+        } catch (final AmazonS3Exception ex) {
+            if (ex.getStatusCode() != HttpURLConnection.HTTP_NOT_FOUND) {
+                throw new IOException(
+                    String.format("Failed to prefetch %s", ocket.key()),
+                    ex
+                );
+            }
+        }
+        return staged;
+    }
+
+    /**
+     * Download through the ocket.
+     * @param ocket The object
+     * @param file Local file
+     * @param base Current ETag of the local file
+     * @return TRUE if something was staged
+     * @throws IOException If fails
+     */
+    private boolean ocket(final Ocket ocket, final Path file,
+        final String base) throws IOException {
+        boolean staged = false;
+        if (ocket.exists()) {
+            final ObjectMetadata meta = ocket.meta();
+            if (S3Item.etag(meta).equals(base)) {
+                this.cache.confirm(file, base);
+            } else {
+                final ByteArrayOutputStream output =
+                    new ByteArrayOutputStream();
+                ocket.read(output);
+                this.stage(
+                    file, base,
+                    new ByteArrayInputStream(output.toByteArray()), meta
+                );
+                staged = true;
+            }
+        }
+        return staged;
+    }
+
+    /**
+     * Save the content next to the local file and stage it.
+     * @param file Local file
+     * @param base Current ETag of the local file
+     * @param input The content
+     * @param meta Its metadata
+     * @throws IOException If fails
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private void stage(final Path file, final String base,
+        final InputStream input, final ObjectMetadata meta)
+        throws IOException {
+        file.getParent().toFile().mkdirs();
+        final Path copy = Files.createTempFile(
+            file.getParent(),
+            String.format(".%s", file.getFileName()),
+            ".prefetch"
+        );
+        this.encoding.decode(input, meta, copy);
+        this.cache.stage(file, base, S3Item.etag(meta), copy);
+    }
+
+}
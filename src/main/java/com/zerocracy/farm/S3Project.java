@@ -16,8 +16,6 @@
  */
 package com.zerocracy.farm;
 
-import com.amazonaws.services.s3.model.ObjectListing;
-import com.amazonaws.services.s3.model.S3ObjectSummary;
 import com.jcabi.s3.Bucket;
 import com.zerocracy.Item;
 import com.zerocracy.Project;
@@ -27,12 +25,6 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import lombok.EqualsAndHashCode;
 import org.apache.commons.lang3.StringUtils;
-import org.cactoos.collection.Joined;
-import org.cactoos.collection.Mapped;
-import org.cactoos.time.DateAsText;
-import org.xembly.Directive;
-import org.xembly.Directives;
-import org.xembly.Xembler;
 
 /**
  * Project in S3.
@@ -59,6 +51,31 @@ final class S3Project implements Project {
      */
     private final Path temp;
 
+    /**
+     * Cache of local copies.
+     */
+    private final S3Cache cache;
+
+    /**
+     * Uploads.
+     */
+    private final S3Uploads uploads;
+
+    /**
+     * Listings.
+     */
+    private final S3Listing listing;
+
+    /**
+     * Encoding of the content.
+     */
+    private final S3Encoding encoding;
+
+    /**
+     * Prefetch of the working set.
+     */
+    private final S3Prefetch prefetch;
+
     /**
      * Ctor.
      * @param bkt Bucket
@@ -76,9 +93,94 @@ final class S3Project implements Project {
      * @param tmp Storage
      */
     S3Project(final Bucket bkt, final String pfx, final Path tmp) {
+        this(bkt, pfx, tmp, new S3Cache(0L));
+    }
+
+    /**
+     * Ctor.
+     * @param bkt Bucket
+     * @param pfx Prefix
+     * @param tmp Storage
+     * @param cch Cache of local copies
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    S3Project(final Bucket bkt, final String pfx, final Path tmp,
+        final S3Cache cch) {
+        this(bkt, pfx, tmp, cch, new S3Uploads(cch));
+    }
+
+    /**
+     * Ctor.
+     * @param bkt Bucket
+     * @param pfx Prefix
+     * @param tmp Storage
+     * @param cch Cache of local copies
+     * @param upl Uploads
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    S3Project(final Bucket bkt, final String pfx, final Path tmp,
+        final S3Cache cch, final S3Uploads upl) {
+        this(bkt, pfx, tmp, cch, upl, new S3Listing(0L));
+    }
+
+    /**
+     * Ctor.
+     * @param bkt Bucket
+     * @param pfx Prefix
+     * @param tmp Storage
+     * @param cch Cache of local copies
+     * @param upl Uploads
+     * @param lst Listings
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    S3Project(final Bucket bkt, final String pfx, final Path tmp,
+        final S3Cache cch, final S3Uploads upl, final S3Listing lst) {
+        this(bkt, pfx, tmp, cch, upl, lst, new S3Encoding());
+    }
+
+    /**
+     * Ctor.
+     * @param bkt Bucket
+     * @param pfx Prefix
+     * @param tmp Storage
+     * @param cch Cache of local copies
+     * @param upl Uploads
+     * @param lst Listings
+     * @param enc Encoding of the content
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    S3Project(final Bucket bkt, final String pfx, final Path tmp,
+        final S3Cache cch, final S3Uploads upl, final S3Listing lst,
+        final S3Encoding enc) {
+        this(
+            bkt, pfx, tmp, cch, upl, lst, enc,
+            new S3Prefetch(bkt, tmp, cch, upl, enc)
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param bkt Bucket
+     * @param pfx Prefix
+     * @param tmp Storage
+     * @param cch Cache of local copies
+     * @param upl Uploads
+     * @param lst Listings
+     * @param enc Encoding of the content
+     * @param pfh Prefetch of the working set
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    S3Project(final Bucket bkt, final String pfx, final Path tmp,
+        final S3Cache cch, final S3Uploads upl, final S3Listing lst,
+        final S3Encoding enc, final S3Prefetch pfh) {
         this.bucket = bkt;
         this.prefix = pfx;
         this.temp = tmp;
+        this.cache = cch;
+        this.uploads = upl;
+        this.listing = lst;
+        this.encoding = enc;
+        this.prefetch = pfh;
     }
 
     @Override
@@ -94,37 +196,7 @@ final class S3Project implements Project {
     public Item acq(final String file) throws IOException {
         final Item item;
         if ("_list.xml".equals(file)) {
-            final ObjectListing listing = this.bucket.region().aws()
-                .listObjects(this.bucket.name(), this.prefix);
-            item = new FkItem(
-                new Xembler(
-                    new Directives().add("items").append(
-                        new Joined<Directive>(
-                            new Mapped<S3ObjectSummary, Iterable<Directive>>(
-                                sum -> new Directives()
-                                    .add("item")
-                                    .add("name")
-                                    .set(
-                                        sum.getKey().substring(
-                                            this.prefix.length()
-                                        )
-                                    )
-                                    .up()
-                                    .add("size").set(sum.getSize()).up()
-                                    .add("modified")
-                                    .set(
-                                        new DateAsText(
-                                            sum.getLastModified()
-                                        ).asString()
-                                    )
-                                    .up()
-                                    .up(),
-                                listing.getObjectSummaries()
-                            )
-                        )
-                    )
-                ).xmlQuietly()
-            );
+            item = new FkItem(this.listing.xml(this.bucket, this.prefix));
         } else {
             if (!file.matches("[a-z0-9\\-/]+\\.[a-z]+")) {
                 throw new IllegalArgumentException(
@@ -133,13 +205,30 @@ final class S3Project implements Project {
                     )
                 );
             }
+            this.prefetch.record(this.prefix, file);
+            if ("claims.xml".equals(file)) {
+                this.prefetch.exec(this.prefix);
+            }
             final String key = String.format("%s%s", this.prefix, file);
             item = new S3Item(
                 this.bucket.ocket(key),
-                this.temp.resolve(key)
+                this.temp.resolve(key),
+                this.cache,
+                this.uploads,
+                this.listing,
+                this.encoding
             );
         }
         return item;
     }
 
+    @Override
+    public Item read(final String file) throws IOException {
+        Item item = this.acq(file);
+        if (!"_list.xml".equals(file)) {
+            item = new RoItem(item);
+        }
+        return item;
+    }
+
 }
@@ -0,0 +1,370 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm;
+
+import com.jcabi.log.Logger;
+import com.jcabi.log.VerboseRunnable;
+import com.jcabi.log.VerboseThreads;
+import com.zerocracy.ShutUp;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.cactoos.Func;
+import org.cactoos.func.IoCheckedFunc;
+import org.cactoos.func.RunnableOf;
+import org.cactoos.scalar.SolidScalar;
+import org.cactoos.scalar.UncheckedScalar;
+
+/**
+ * Write-behind uploads of S3 items.
+ *
+ * <p>When the delay is zero every upload happens right in
+ * {@link #push(Path, Func)}. Otherwise a snapshot of the local file
+ * is queued and uploaded by a background thread later, at most
+ * after the delay. Repeated pushes of the same file, before it
+ * is uploaded, are merged into one upload of the latest snapshot.
+ * Everything still in the queue is uploaded in {@link #close()}.</p>
+ *
+ * <p>While the file is in the queue {@link S3Item} doesn't try to
+ * refresh it from S3, since the local copy is newer.</p>
+ *
+ * <p>The queue lives only in memory: if the process crashes, the writes
+ * made during the last delay, which are not uploaded yet, are lost.
+ * Failed uploads stay in the queue and are retried later.</p>
+ *
+ * <p>Uploads may be fenced, when several nodes write the same bucket.
+ * Then {@link S3Item} saves a file only if S3 still has the version
+ * the local copy is based on. A fenced upload which S3 rejects is
+ * dropped, since retrying it would overwrite somebody else's
+ * version.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+final class S3Uploads implements Closeable {
+
+    /**
+     * Cache of local copies.
+     */
+    private final S3Cache cache;
+
+    /**
+     * Delay of uploads, in milliseconds.
+     */
+    private final long delay;
+
+    /**
+     * Save only if S3 still has the version the file is based on?
+     */
+    private final boolean fence;
+
+    /**
+     * Queued uploads per local file.
+     */
+    private final Map<Path, S3Uploads.Upload> queue;
+
+    /**
+     * Background uploader.
+     */
+    private final UncheckedScalar<ScheduledExecutorService> service;
+
+    /**
+     * Ctor.
+     * @param cch Cache of local copies
+     */
+    S3Uploads(final S3Cache cch) {
+        this(cch, 0L);
+    }
+
+    /**
+     * Ctor.
+     * @param cch Cache of local copies
+     * @param msec Delay of uploads, in milliseconds
+     */
+    S3Uploads(final S3Cache cch, final long msec) {
+        this(cch, msec, false);
+    }
+
+    /**
+     * Ctor.
+     * @param cch Cache of local copies
+     * @param msec Delay of uploads, in milliseconds
+     * @param fnc Save only if S3 still has the version the file is based on
+     */
+    S3Uploads(final S3Cache cch, final long msec, final boolean fnc) {
+        this.cache = cch;
+        this.delay = msec;
+        this.fence = fnc;
+        this.queue = new ConcurrentHashMap<>(0);
+        this.service = new UncheckedScalar<>(
+            new SolidScalar<>(
+                () -> {
+                    final ScheduledExecutorService svc =
+                        Executors.newSingleThreadScheduledExecutor(
+                            new VerboseThreads(S3Uploads.class)
+                        );
+                    svc.scheduleWithFixedDelay(
+                        new VerboseRunnable(
+                            new RunnableOf<Object>(
+                                input -> {
+                                    this.flush();
+                                }
+                            ),
+                            true, true
+                        ),
+                        msec, msec, TimeUnit.MILLISECONDS
+                    );
+                    return svc;
+                }
+            )
+        );
+    }
+
+    /**
+     * Upload the local file, now or later.
+     * @param file Local file
+     * @param upload Uploads the given file and returns its new ETag
+     * @throws IOException If fails
+     */
+    public void push(final Path file, final Func<Path, String> upload)
+        throws IOException {
+        if (this.delay == 0L) {
+            this.cache.remember(file, new IoCheckedFunc<>(upload).apply(file));
+        } else {
+            final S3Uploads.Upload prev = this.queue.get(file);
+            if (prev == null || !prev.same()) {
+                final Path snapshot = Files.createTempFile("s3upload", ".tmp");
+                Files.copy(file, snapshot, StandardCopyOption.REPLACE_EXISTING);
+                final S3Uploads.Upload next = new S3Uploads.Upload(
+                    file, snapshot, this.cache.seal(file), upload
+                );
+                final S3Uploads.Upload old = this.queue.put(file, next);
+                if (old != null && old.claim()) {
+                    old.drop();
+                }
+                this.service.value();
+            }
+        }
+    }
+
+    /**
+     * Uploads are fenced?
+     * @return TRUE if a file is saved only if S3 still has the version
+     *  it is based on, see {@link S3Cache#base(Path)}
+     */
+    public boolean fenced() {
+        return this.fence;
+    }
+
+    /**
+     * The file is waiting for upload?
+     * @param file Local file
+     * @return TRUE if the local copy is newer than the one in S3
+     */
+    public boolean pending(final Path file) {
+        return this.queue.containsKey(file);
+    }
+
+    /**
+     * Drop the queued upload, if any.
+     * @param file Local file
+     * @throws IOException If fails
+     */
+    public void forget(final Path file) throws IOException {
+        final S3Uploads.Upload upload = this.queue.remove(file);
+        if (upload != null && upload.claim()) {
+            upload.drop();
+        }
+    }
+
+    /**
+     * Upload everything that is in the queue now.
+     *
+     * <p>A failed upload doesn't stop the others, it is logged and
+     * retried in the next pass, unless it was forgotten meanwhile.
+     * The ETag of a sent upload is remembered even if a newer one
+     * replaced it in the queue, since the newer one is based on it,
+     * see {@link S3Cache#base(Path)}.</p>
+     *
+     * @return How many files were uploaded
+     * @throws IOException If fails
+     * @checkstyle IllegalCatchCheck (40 lines)
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    public int flush() throws IOException {
+        int total = 0;
+        for (final Map.Entry<Path, S3Uploads.Upload> ent
+            : this.queue.entrySet()) {
+            final S3Uploads.Upload upload = ent.getValue();
+            if (!upload.claim()) {
+                continue;
+            }
+            boolean sent = false;
+            try {
+                final String etag = upload.send();
+                this.queue.remove(ent.getKey(), upload);
+                upload.remember(this.cache, etag);
+                sent = true;
+                ++total;
+            } catch (final IOException | RuntimeException ex) {
+                if (this.queue.get(ent.getKey()) == upload) {
+                    Logger.warn(
+                        this, "Failed to upload %s, will retry: %[exception]s",
+                        ent.getKey(), ex
+                    );
+                } else {
+                    Logger.error(
+                        this, "Failed to upload %s, dropped: %[exception]s",
+                        ent.getKey(), ex
+                    );
+                }
+            } finally {
+                if (!sent && this.queue.get(ent.getKey()) == upload) {
+                    upload.release();
+                } else {
+                    upload.drop();
+                }
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.delay > 0L) {
+            new ShutUp(this.service.value()).close();
+        }
+        final int total = this.flush();
+        if (total > 0) {
+            Logger.info(this, "%d uploads flushed on close", total);
+        }
+    }
+
+    /**
+     * Queued upload.
+     */
+    private static final class Upload {
+        /**
+         * Local file.
+         */
+        private final Path file;
+        /**
+         * Snapshot of the local file.
+         */
+        private final Path snapshot;
+        /**
+         * Modification time of the local file when it was queued.
+         */
+        private final long modified;
+        /**
+         * Length of the local file when it was queued.
+         */
+        private final long length;
+        /**
+         * The upload.
+         */
+        private final IoCheckedFunc<Path, String> func;
+        /**
+         * Taken by somebody?
+         */
+        private final AtomicBoolean taken;
+
+        /**
+         * Ctor.
+         * @param local Local file
+         * @param snap Its snapshot
+         * @param time Modification time of the local file
+         * @param upload The upload
+         * @throws IOException If fails
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        Upload(final Path local, final Path snap, final long time,
+            final Func<Path, String> upload) throws IOException {
+            this.file = local;
+            this.snapshot = snap;
+            this.modified = time;
+            this.length = Files.size(snap);
+            this.func = new IoCheckedFunc<>(upload);
+            this.taken = new AtomicBoolean();
+        }
+
+        /**
+         * The local file is still the same as it was queued?
+         * @return TRUE if nothing changed since then
+         * @throws IOException If fails
+         */
+        public boolean same() throws IOException {
+            return Files.getLastModifiedTime(this.file).toMillis()
+                == this.modified
+                && Files.size(this.file) == this.length;
+        }
+
+        /**
+         * Take it for upload or drop.
+         * @return TRUE if nobody took it before
+         */
+        public boolean claim() {
+            return this.taken.compareAndSet(false, true);
+        }
+
+        /**
+         * Give it back to the queue.
+         */
+        public void release() {
+            this.taken.set(false);
+        }
+
+        /**
+         * Upload the snapshot.
+         * @return ETag
+         * @throws IOException If fails
+         */
+        public String send() throws IOException {
+            return this.func.apply(this.snapshot);
+        }
+
+        /**
+         * Remember the uploaded version in the cache.
+         * @param cache The cache
+         * @param etag ETag of the uploaded version
+         */
+        public void remember(final S3Cache cache, final String etag) {
+            cache.remember(this.file, etag, this.modified, this.length);
+        }
+
+        /**
+         * Delete the snapshot.
+         * @throws IOException If fails
+         */
+        public void drop() throws IOException {
+            Files.deleteIfExists(this.snapshot);
+        }
+    }
+
+}
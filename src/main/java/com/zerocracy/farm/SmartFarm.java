@@ -28,6 +28,7 @@ import com.zerocracy.farm.strict.StrictFarm;
 import com.zerocracy.farm.sync.SyncFarm;
 import java.util.TreeSet;
 import java.util.regex.Pattern;
+import org.cactoos.Func;
 import org.cactoos.Scalar;
 import org.cactoos.io.ResourceOf;
 import org.cactoos.iterable.Mapped;
@@ -57,6 +58,16 @@ public final class SmartFarm implements Scalar<Farm> {
      * @param farm Original
      */
     public SmartFarm(final Farm farm) {
+        this(farm, pid -> true);
+    }
+
+    /**
+     * Ctor.
+     * @param farm Original
+     * @param mine Tells whether this node processes claims of the project,
+     *  by its ID
+     */
+    public SmartFarm(final Farm farm, final Func<String, Boolean> mine) {
         this.self = new SolidScalar<>(
             () -> new RvFarm(
                 new RdFarm(
@@ -70,7 +81,8 @@ public final class SmartFarm implements Scalar<Farm> {
                         )
                     )
                 ),
-                this.stakeholders()
+                this.stakeholders(),
+                mine
             )
         );
     }
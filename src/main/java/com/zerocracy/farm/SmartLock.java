@@ -29,6 +29,9 @@ import lombok.EqualsAndHashCode;
 /**
  * Lock that is smart.
  *
+ * <p>It knows its owner and collects {@link LockStats}: how long
+ * threads wait for it and hold it.</p>
+ *
  * @author Yegor Bugayenko (yegor256@gmail.com)
  * @version $Id$
  * @since 0.19
@@ -56,6 +59,34 @@ public final class SmartLock implements Lock {
      */
     private final AtomicReference<Thread> owner = new AtomicReference<>();
 
+    /**
+     * Statistics.
+     */
+    private final LockStats stats;
+
+    /**
+     * Ctor.
+     */
+    public SmartLock() {
+        this(new LockStats());
+    }
+
+    /**
+     * Ctor.
+     * @param sts Statistics to collect
+     */
+    public SmartLock(final LockStats sts) {
+        this.stats = sts;
+    }
+
+    /**
+     * Statistics of the lock.
+     * @return Statistics
+     */
+    public LockStats stats() {
+        return this.stats;
+    }
+
     /**
      * Full stack trace of this lock holder.
      * @return The stacktrace
@@ -93,24 +124,27 @@ public final class SmartLock implements Lock {
 
     @Override
     public void lock() {
+        final long begin = System.nanoTime();
+        final int queue = this.origin.getQueueLength();
         this.origin.lock();
-        this.start.set(System.currentTimeMillis());
-        this.owner.set(Thread.currentThread());
+        this.acquired(begin, queue);
     }
 
     @Override
     public void lockInterruptibly() throws InterruptedException {
+        final long begin = System.nanoTime();
+        final int queue = this.origin.getQueueLength();
         this.origin.lockInterruptibly();
-        this.start.set(System.currentTimeMillis());
-        this.owner.set(Thread.currentThread());
+        this.acquired(begin, queue);
     }
 
     @Override
     public boolean tryLock() {
+        final long begin = System.nanoTime();
+        final int queue = this.origin.getQueueLength();
         final boolean done = this.origin.tryLock();
         if (done) {
-            this.start.set(System.currentTimeMillis());
-            this.owner.set(Thread.currentThread());
+            this.acquired(begin, queue);
         }
         return done;
     }
@@ -118,16 +152,20 @@ public final class SmartLock implements Lock {
     @Override
     public boolean tryLock(final long time, final TimeUnit unit)
         throws InterruptedException {
+        final long begin = System.nanoTime();
+        final int queue = this.origin.getQueueLength();
         final boolean done = this.origin.tryLock(time, unit);
         if (done) {
-            this.start.set(System.currentTimeMillis());
-            this.owner.set(Thread.currentThread());
+            this.acquired(begin, queue);
         }
         return done;
     }
 
     @Override
     public void unlock() {
+        if (this.origin.getHoldCount() == 1) {
+            this.stats.held(System.currentTimeMillis() - this.start.get());
+        }
         this.origin.unlock();
     }
 
@@ -135,4 +173,19 @@ public final class SmartLock implements Lock {
     public Condition newCondition() {
         return this.origin.newCondition();
     }
+
+    /**
+     * The current thread acquired it.
+     * @param begin When it started waiting, in nanoseconds
+     * @param queue How many threads were waiting when it came
+     */
+    private void acquired(final long begin, final int queue) {
+        this.stats.waited(
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin), queue
+        );
+        if (this.origin.getHoldCount() == 1) {
+            this.start.set(System.currentTimeMillis());
+            this.owner.set(Thread.currentThread());
+        }
+    }
 }
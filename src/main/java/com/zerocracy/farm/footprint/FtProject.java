@@ -76,4 +76,9 @@ final class FtProject implements Project {
         return item;
     }
 
+    @Override
+    public Item read(final String file) throws IOException {
+        return this.origin.read(file);
+    }
+
 }
@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm.guts;
+
+import com.jcabi.xml.XML;
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import org.cactoos.Scalar;
+
+/**
+ * Lock statistics from guts, in JSON.
+ *
+ * <p>Takes the statistics of lock waits, holds and queues of all
+ * farms, and the top holders of files, so that they can be read
+ * by machines.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ */
+final class GsLocks implements Scalar<JsonObject> {
+
+    /**
+     * Histograms of a lock.
+     */
+    private static final String[] HISTOGRAMS = {"wait", "hold", "queue"};
+
+    /**
+     * Guts.
+     */
+    private final XML guts;
+
+    /**
+     * Ctor.
+     * @param xml Guts
+     */
+    GsLocks(final XML xml) {
+        this.guts = xml;
+    }
+
+    @Override
+    public JsonObject value() {
+        final JsonArrayBuilder stats = Json.createArrayBuilder();
+        final JsonArrayBuilder holders = Json.createArrayBuilder();
+        for (final XML farm : this.guts.nodes("/guts/farm")) {
+            final String id = farm.xpath("@id").get(0);
+            for (final XML project : farm.nodes("stats/project")) {
+                final JsonObjectBuilder obj = Json.createObjectBuilder()
+                    .add("farm", id)
+                    .add("pid", project.xpath("@pid").get(0));
+                for (final String name : GsLocks.HISTOGRAMS) {
+                    for (final XML hist : project.nodes(name)) {
+                        obj.add(
+                            name,
+                            GsLocks.numbers(
+                                hist, "count", "p50", "p90", "p99", "max"
+                            )
+                        );
+                    }
+                }
+                stats.add(obj);
+            }
+            for (final XML holder : farm.nodes("holders/holder")) {
+                holders.add(
+                    GsLocks.numbers(holder, "count", "total", "max")
+                        .add("farm", id)
+                        .add("pid", holder.xpath("@pid").get(0))
+                        .add("file", holder.xpath("@file").get(0))
+                );
+            }
+        }
+        return Json.createObjectBuilder()
+            .add("stats", stats)
+            .add("holders", holders)
+            .build();
+    }
+
+    /**
+     * Numeric attributes of the node.
+     * @param node The node
+     * @param attrs Names of attributes
+     * @return JSON object
+     */
+    private static JsonObjectBuilder numbers(final XML node,
+        final String... attrs) {
+        final JsonObjectBuilder obj = Json.createObjectBuilder();
+        for (final String attr : attrs) {
+            obj.add(
+                attr,
+                Long.parseLong(node.xpath(String.format("@%s", attr)).get(0))
+            );
+        }
+        return obj;
+    }
+
+}
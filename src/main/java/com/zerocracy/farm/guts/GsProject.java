@@ -100,7 +100,7 @@ final class GsProject implements Project {
             new Xembler(GsProject.start()).xmlQuietly()
         );
         if (pkts.hasNext()) {
-            try (final Item item = pkts.next().acq(file)) {
+            try (final Item item = pkts.next().read(file)) {
                 final Path path = item.path();
                 if (Files.exists(path)
                     && path.toFile().length() != 0L) {
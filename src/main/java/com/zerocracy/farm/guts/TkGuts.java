@@ -16,6 +16,7 @@
  */
 package com.zerocracy.farm.guts;
 
+import com.jcabi.xml.XML;
 import com.zerocracy.Farm;
 import com.zerocracy.pm.staff.Roles;
 import com.zerocracy.pmo.Pmo;
@@ -28,12 +29,17 @@ import org.takes.Request;
 import org.takes.Response;
 import org.takes.Take;
 import org.takes.facets.forward.RsForward;
+import org.takes.rq.RqHref;
+import org.takes.rs.RsJson;
 import org.takes.rs.RsWithBody;
 import org.takes.rs.RsWithType;
 
 /**
  * Farm internals.
  *
+ * <p>Renders them as XML, or, with {@code ?format=json}, only the lock
+ * statistics as JSON.</p>
+ *
  * @author Yegor Bugayenko (yegor256@gmail.com)
  * @version $Id$
  * @since 0.19
@@ -65,12 +71,16 @@ public final class TkGuts implements Take {
                 )
             );
         }
-        return new RsWithType(
-            new RsWithBody(
-                new IoCheckedScalar<>(new Guts(this.farm)).value().toString()
-            ),
-            "application/xml"
-        );
+        final XML guts = new IoCheckedScalar<>(new Guts(this.farm)).value();
+        final Response response;
+        if ("json".equals(new RqHref.Smart(req).single("format", "xml"))) {
+            response = new RsJson(new GsLocks(guts).value());
+        } else {
+            response = new RsWithType(
+                new RsWithBody(guts.toString()), "application/xml"
+            );
+        }
+        return response;
     }
 
 }
@@ -0,0 +1,418 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm.lease;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.PutItemRequest;
+import com.jcabi.aspects.Tv;
+import com.jcabi.dynamo.Region;
+import com.jcabi.log.Logger;
+import com.jcabi.log.VerboseRunnable;
+import com.jcabi.log.VerboseThreads;
+import com.zerocracy.ShutUp;
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.cactoos.Scalar;
+import org.cactoos.iterable.Joined;
+import org.cactoos.iterable.Mapped;
+import org.xembly.Directive;
+import org.xembly.Directives;
+
+/**
+ * Leases of projects in DynamoDB.
+ *
+ * <p>A node may work with a project only while it holds its lease.
+ * A lease is an item in the table, with the ID of the node which owns
+ * it and the time it expires. It is taken by a conditional write,
+ * which succeeds only if there is no lease yet, or it is ours, or it
+ * has expired. A background heartbeat renews all leases of the node
+ * three times per TTL, so they expire only if the node dies or loses
+ * the connection. Clocks of the nodes must be synchronized much better
+ * than the TTL.</p>
+ *
+ * <p>A lease which the node didn't use for a while (ten TTLs by default)
+ * is not renewed but released, so that an idle node doesn't keep
+ * projects it is not working with, and doesn't hit the limit of
+ * leases. Use {@link #mine(String)} to check a lease without taking
+ * it. The number of leases of the node is limited, a slot is reserved
+ * before a lease is taken, so that concurrent acquisitions don't
+ * exceed the limit.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
+ */
+public final class Leases implements Closeable, Scalar<Iterable<Directive>> {
+
+    /**
+     * DynamoDB table.
+     */
+    private static final String TABLE = "0crat-leases";
+
+    /**
+     * Project ID attribute, the hash key.
+     */
+    private static final String ATTR_PROJECT = "project";
+
+    /**
+     * Node ID attribute.
+     */
+    private static final String ATTR_OWNER = "owner";
+
+    /**
+     * Expiration time attribute, epoch milliseconds.
+     */
+    private static final String ATTR_EXPIRES = "expires";
+
+    /**
+     * DynamoDB region.
+     */
+    private final Region region;
+
+    /**
+     * ID of this node.
+     */
+    private final String node;
+
+    /**
+     * Time to live of a lease, in milliseconds.
+     */
+    private final long ttl;
+
+    /**
+     * Free slots for leases, of all this node may hold.
+     */
+    private final Semaphore slots;
+
+    /**
+     * Time after which an unused lease is released, in milliseconds.
+     */
+    private final long idle;
+
+    /**
+     * Leases of this node and when they expire.
+     */
+    private final Map<String, Long> owned;
+
+    /**
+     * Leases of this node and when they were used last time.
+     */
+    private final Map<String, Long> used;
+
+    /**
+     * Heartbeat.
+     */
+    private final ScheduledExecutorService heartbeat;
+
+    /**
+     * Ctor.
+     * @param rgn DynamoDB region
+     * @param name ID of this node, unique among all nodes
+     */
+    public Leases(final Region rgn, final String name) {
+        this(rgn, name, TimeUnit.MINUTES.toMillis(1L), Tv.HUNDRED);
+    }
+
+    /**
+     * Ctor.
+     * @param rgn DynamoDB region
+     * @param name ID of this node, unique among all nodes
+     * @param msec Time to live of a lease, in milliseconds
+     * @param total Max number of leases this node may hold
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public Leases(final Region rgn, final String name, final long msec,
+        final int total) {
+        this(rgn, name, msec, total, msec * (long) Tv.TEN);
+    }
+
+    /**
+     * Ctor.
+     * @param rgn DynamoDB region
+     * @param name ID of this node, unique among all nodes
+     * @param msec Time to live of a lease, in milliseconds
+     * @param total Max number of leases this node may hold
+     * @param unused Time after which an unused lease is released, msec
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public Leases(final Region rgn, final String name, final long msec,
+        final int total, final long unused) {
+        this.region = rgn;
+        this.node = name;
+        this.ttl = msec;
+        this.slots = new Semaphore(total);
+        this.idle = unused;
+        this.owned = new ConcurrentHashMap<>(0);
+        this.used = new ConcurrentHashMap<>(0);
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(
+            new VerboseThreads(Leases.class)
+        );
+        this.heartbeat.scheduleWithFixedDelay(
+            new VerboseRunnable(this::renew, true, true),
+            msec / (long) Tv.THREE, msec / (long) Tv.THREE,
+            TimeUnit.MILLISECONDS
+        );
+    }
+
+    /**
+     * ID of this node.
+     * @return Node ID
+     */
+    public String node() {
+        return this.node;
+    }
+
+    /**
+     * This node owns the project, or takes it if it's free.
+     * @param pid Project ID
+     * @return TRUE if it owns the project now
+     */
+    public boolean owns(final String pid) {
+        final long now = System.currentTimeMillis();
+        boolean mine;
+        if (this.mine(pid)) {
+            mine = true;
+        } else if (this.owned.containsKey(pid)) {
+            mine = this.take(pid, now)
+                && this.owned.replace(pid, now + this.ttl) != null;
+            if (!mine) {
+                this.drop(pid);
+            }
+        } else if (this.slots.tryAcquire()) {
+            mine = this.take(pid, now);
+            if (!mine || this.owned.put(pid, now + this.ttl) != null) {
+                this.slots.release();
+            }
+        } else {
+            mine = false;
+        }
+        if (mine) {
+            this.used.put(pid, now);
+        }
+        return mine;
+    }
+
+    /**
+     * This node holds the lease of the project, without taking it.
+     * @param pid Project ID
+     * @return TRUE if this node holds the lease now
+     */
+    public boolean mine(final String pid) {
+        final Long until = this.owned.get(pid);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    /**
+     * The node owning the lease of the project.
+     * @param pid Project ID
+     * @return Node ID or empty if nobody owns it
+     */
+    public String owner(final String pid) {
+        final Map<String, AttributeValue> item = this.region.aws().getItem(
+            new GetItemRequest()
+                .withTableName(Leases.TABLE)
+                .withKey(Leases.key(pid))
+                .withConsistentRead(true)
+        ).getItem();
+        final String owner;
+        if (item == null || Long.parseLong(item.get(Leases.ATTR_EXPIRES).getN())
+            < System.currentTimeMillis()) {
+            owner = "";
+        } else {
+            owner = item.get(Leases.ATTR_OWNER).getS();
+        }
+        return owner;
+    }
+
+    @Override
+    public Iterable<Directive> value() {
+        return new Directives()
+            .add("leases")
+            .attr("node", this.node)
+            .attr("ttl", this.ttl)
+            .append(
+                new Joined<Directive>(
+                    new Mapped<>(
+                        ent -> new Directives().add("lease")
+                            .attr("pid", ent.getKey())
+                            .set(
+                                Logger.format(
+                                    "%[ms]s",
+                                    ent.getValue() - System.currentTimeMillis()
+                                )
+                            ).up(),
+                        this.owned.entrySet()
+                    )
+                )
+            )
+            .up();
+    }
+
+    /**
+     * Release all leases of this node.
+     */
+    @Override
+    public void close() {
+        this.heartbeat.shutdownNow();
+        new ShutUp(this.heartbeat).close();
+        for (final String pid : this.owned.keySet()) {
+            this.release(pid);
+        }
+    }
+
+    /**
+     * Renew all leases of this node, release the unused ones.
+     */
+    private void renew() {
+        final long now = System.currentTimeMillis();
+        for (final String pid : this.owned.keySet()) {
+            if (this.used.getOrDefault(pid, now) < now - this.idle) {
+                this.release(pid);
+                Logger.info(
+                    this, "The lease of %s was released by %s, not used",
+                    pid, this.node
+                );
+            } else if (this.take(pid, now)) {
+                this.owned.replace(pid, now + this.ttl);
+            } else {
+                this.drop(pid);
+                Logger.warn(
+                    this, "The lease of %s was lost by %s", pid, this.node
+                );
+            }
+        }
+    }
+
+    /**
+     * Release the lease.
+     * @param pid Project ID
+     */
+    private void release(final String pid) {
+        this.drop(pid);
+        final Map<String, AttributeValue> values = new HashMap<>(1);
+        values.put(":node", new AttributeValue(this.node));
+        try {
+            this.region.aws().deleteItem(
+                new DeleteItemRequest()
+                    .withTableName(Leases.TABLE)
+                    .withKey(Leases.key(pid))
+                    .withConditionExpression("#owner = :node")
+                    .withExpressionAttributeNames(
+                        Leases.names(Leases.ATTR_OWNER)
+                    )
+                    .withExpressionAttributeValues(values)
+            );
+        } catch (final ConditionalCheckFailedException ex) {
+            Logger.info(
+                this, "The lease of %s was taken by another node", pid
+            );
+        }
+    }
+
+    /**
+     * Forget the lease and free its slot.
+     * @param pid Project ID
+     */
+    private void drop(final String pid) {
+        if (this.owned.remove(pid) != null) {
+            this.slots.release();
+        }
+        this.used.remove(pid);
+    }
+
+    /**
+     * Take or renew the lease in DynamoDB.
+     * @param pid Project ID
+     * @param now Current time
+     * @return TRUE if taken
+     */
+    private boolean take(final String pid, final long now) {
+        final Map<String, AttributeValue> item = Leases.key(pid);
+        item.put(Leases.ATTR_OWNER, new AttributeValue(this.node));
+        item.put(
+            Leases.ATTR_EXPIRES,
+            new AttributeValue().withN(Long.toString(now + this.ttl))
+        );
+        final Map<String, AttributeValue> values = new HashMap<>(2);
+        values.put(":node", new AttributeValue(this.node));
+        values.put(":now", new AttributeValue().withN(Long.toString(now)));
+        boolean taken;
+        try {
+            this.region.aws().putItem(
+                new PutItemRequest()
+                    .withTableName(Leases.TABLE)
+                    .withItem(item)
+                    .withConditionExpression(
+                        String.join(
+                            " OR ",
+                            "attribute_not_exists(#project)",
+                            "#owner = :node",
+                            "#expires < :now"
+                        )
+                    )
+                    .withExpressionAttributeNames(
+                        Leases.names(
+                            Leases.ATTR_PROJECT, Leases.ATTR_OWNER,
+                            Leases.ATTR_EXPIRES
+                        )
+                    )
+                    .withExpressionAttributeValues(values)
+            );
+            taken = true;
+        } catch (final ConditionalCheckFailedException ex) {
+            taken = false;
+        }
+        return taken;
+    }
+
+    /**
+     * Key of the lease.
+     * @param pid Project ID
+     * @return Key attributes, modifiable
+     */
+    private static Map<String, AttributeValue> key(final String pid) {
+        final Map<String, AttributeValue> key = new HashMap<>(1);
+        key.put(Leases.ATTR_PROJECT, new AttributeValue(pid));
+        return key;
+    }
+
+    /**
+     * Names of attributes in conditions.
+     * @param attrs Attributes used, each one is named "#" plus its name
+     * @return Names
+     */
+    private static Map<String, String> names(final String... attrs) {
+        final Map<String, String> names = new HashMap<>(attrs.length);
+        for (final String attr : attrs) {
+            names.put(String.format("#%s", attr), attr);
+        }
+        return names;
+    }
+
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm.lease;
+
+import com.zerocracy.Farm;
+import com.zerocracy.Project;
+import com.zerocracy.farm.guts.Guts;
+import java.io.IOException;
+import lombok.EqualsAndHashCode;
+import org.cactoos.Proc;
+import org.cactoos.iterable.Mapped;
+import org.xembly.Directives;
+
+/**
+ * Farm which works only with projects leased by this node.
+ *
+ * <p>Items of a project may be acquired only if this node holds
+ * the lease of the project, or can take it, see {@link Leases}.
+ * Otherwise the acquisition fails, so that the node which owns the
+ * project is the only one writing it and flushing its claims.
+ * PMO is shared by all nodes and is not leased, its items are saved
+ * with conditional PUTs instead, so that a node never overwrites
+ * a version it didn't see, see {@code S3Farm}.</p>
+ *
+ * <p>When this node takes a lease, the project could be modified by
+ * another node before. The callback is notified, so that local copies
+ * of the project are checked again.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ */
+@EqualsAndHashCode(of = "origin")
+public final class LsFarm implements Farm {
+
+    /**
+     * Original farm.
+     */
+    private final Farm origin;
+
+    /**
+     * Leases.
+     */
+    private final Leases leases;
+
+    /**
+     * What to do when this node takes a lease, by project ID.
+     */
+    private final Proc<String> taken;
+
+    /**
+     * Ctor.
+     * @param farm Original farm
+     * @param lss Leases
+     */
+    public LsFarm(final Farm farm, final Leases lss) {
+        this(farm, lss, pid -> { });
+    }
+
+    /**
+     * Ctor.
+     * @param farm Original farm
+     * @param lss Leases
+     * @param tkn What to do when this node takes a lease, by project ID
+     */
+    public LsFarm(final Farm farm, final Leases lss, final Proc<String> tkn) {
+        this.origin = farm;
+        this.leases = lss;
+        this.taken = tkn;
+    }
+
+    @Override
+    public Iterable<Project> find(final String query) throws IOException {
+        return new Guts(
+            this.origin,
+            () -> new Mapped<>(
+                pkt -> new LsProject(pkt, this.leases, this.taken),
+                this.origin.find(query)
+            ),
+            () -> new Directives()
+                .xpath("/guts")
+                .add("farm")
+                .attr("id", this.getClass().getSimpleName())
+                .append(this.leases.value())
+        ).apply(query);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            this.leases.close();
+        } finally {
+            this.origin.close();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm.lease;
+
+import com.zerocracy.Item;
+import com.zerocracy.Project;
+import java.io.IOException;
+import lombok.EqualsAndHashCode;
+import org.cactoos.Proc;
+import org.cactoos.func.IoCheckedProc;
+
+/**
+ * Project leased by this node.
+ *
+ * <p>Only the node that holds the lease may modify the project, while
+ * any node may read it, see {@link Project#read(String)}. PMO is not
+ * leased, since all nodes write it; lost updates there are prevented
+ * by conditional PUTs to S3, which reject a write based on a stale
+ * version.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ */
+@EqualsAndHashCode(of = "origin")
+final class LsProject implements Project {
+
+    /**
+     * Origin project.
+     */
+    private final Project origin;
+
+    /**
+     * Leases.
+     */
+    private final Leases leases;
+
+    /**
+     * What to do when this node takes a lease, by project ID.
+     */
+    private final IoCheckedProc<String> taken;
+
+    /**
+     * Ctor.
+     * @param pkt Project
+     * @param lss Leases
+     * @param tkn What to do when this node takes a lease, by project ID
+     */
+    LsProject(final Project pkt, final Leases lss, final Proc<String> tkn) {
+        this.origin = pkt;
+        this.leases = lss;
+        this.taken = new IoCheckedProc<>(tkn);
+    }
+
+    @Override
+    public String pid() throws IOException {
+        return this.origin.pid();
+    }
+
+    @Override
+    public Item acq(final String file) throws IOException {
+        final String pid = this.origin.pid();
+        if (!"PMO".equals(pid)) {
+            final boolean held = this.leases.mine(pid);
+            if (!this.leases.owns(pid)) {
+                throw new IllegalStateException(
+                    String.format(
+                        // @checkstyle LineLength (1 line)
+                        "Can't acquire \"%s\" in %s at node \"%s\", the project is leased by \"%s\"",
+                        file, pid, this.leases.node(), this.leases.owner(pid)
+                    )
+                );
+            }
+            if (!held) {
+                this.taken.exec(pid);
+            }
+        }
+        return this.origin.acq(file);
+    }
+
+    @Override
+    public Item read(final String file) throws IOException {
+        return this.origin.read(file);
+    }
+}
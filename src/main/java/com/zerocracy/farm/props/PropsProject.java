@@ -80,4 +80,15 @@ final class PropsProject implements Project {
         return item;
     }
 
+    @Override
+    public Item read(final String file) throws IOException {
+        final Item item;
+        if ("_props.xml".equals(file)) {
+            item = this.acq(file);
+        } else {
+            item = this.origin.read(file);
+        }
+        return item;
+    }
+
 }
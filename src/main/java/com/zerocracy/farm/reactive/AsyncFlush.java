@@ -58,7 +58,7 @@ final class AsyncFlush implements Flush {
     /**
      * Locks per projects.
      */
-    private final Map<Project, Lock> locks;
+    private final Map<Project, SmartLock> locks;
 
     /**
      * Executor of flushes.
@@ -170,6 +170,19 @@ final class AsyncFlush implements Flush {
                     )
                 )
             )
+            .up()
+            .add("stats")
+            .append(
+                new Joined<Directive>(
+                    new Mapped<>(
+                        ent -> new Directives().add("project")
+                            .attr("pid", ent.getKey().pid())
+                            .append(ent.getValue().stats().value())
+                            .up(),
+                        this.locks.entrySet()
+                    )
+                )
+            )
             .up();
     }
 }
@@ -16,17 +16,18 @@
  */
 package com.zerocracy.farm.reactive;
 
+import com.jcabi.aspects.Tv;
 import com.jcabi.log.Logger;
 import com.jcabi.xml.XML;
 import com.zerocracy.Project;
 import com.zerocracy.pm.ClaimIn;
 import com.zerocracy.pm.Claims;
 import java.io.IOException;
-import java.util.Iterator;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 import org.cactoos.BiFunc;
 import org.cactoos.func.IoCheckedBiFunc;
-import org.cactoos.iterable.LengthOf;
 import org.cactoos.iterable.Mapped;
 import org.cactoos.text.JoinedText;
 import org.cactoos.text.SubText;
@@ -36,6 +37,13 @@ import org.xembly.Directives;
 /**
  * The action that happens in the {@link DefaultFlush}.
  *
+ * <p>Claims are read from claims.xml in batches, but each of them is
+ * removed from there right before it is processed, so that a claim
+ * is never processed twice, even if the process crashes in the middle
+ * of a batch, when some of its effects may already be visible.
+ * A failed claim is not processed again. The claims after it in the
+ * batch stay in the queue.</p>
+ *
  * @author Yegor Bugayenko (yegor256@gmail.com)
  * @version $Id$
  * @since 0.10
@@ -43,6 +51,11 @@ import org.xembly.Directives;
  */
 final class DefaultFlush implements Flush {
 
+    /**
+     * How many claims to take from the queue at once.
+     */
+    private static final int BATCH = Tv.TWENTY;
+
     /**
      * List of stakeholders.
      */
@@ -61,14 +74,20 @@ final class DefaultFlush implements Flush {
     public void exec(final Project project) throws IOException {
         final Claims claims = new Claims(project).bootstrap();
         int total = 0;
-        final int left = new LengthOf(claims.iterate()).intValue();
-        for (int idx = 0; idx < left; ++idx) {
-            final Iterator<XML> found = claims.take();
-            if (!found.hasNext()) {
+        final int left = claims.size();
+        while (total < left) {
+            final Collection<XML> batch = claims.head(
+                Math.min(DefaultFlush.BATCH, left - total)
+            );
+            if (batch.isEmpty()) {
                 break;
             }
-            this.process(project, found.next(), total);
-            ++total;
+            for (final XML xml : batch) {
+                if (claims.remove(Collections.singleton(xml)) > 0) {
+                    this.process(project, xml, total);
+                }
+                ++total;
+            }
         }
     }
 
@@ -95,7 +114,7 @@ final class DefaultFlush implements Flush {
         final long start = System.currentTimeMillis();
         final ClaimIn claim = new ClaimIn(xml);
         final int total = this.brigade.apply(project, xml);
-        final int left = new Claims(project).iterate().size();
+        final int left = new Claims(project).size();
         if (total == 0 && claim.hasToken()) {
             throw new IllegalStateException(
                 String.format(
@@ -29,6 +29,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import lombok.EqualsAndHashCode;
+import org.cactoos.Func;
 import org.cactoos.func.RunnableOf;
 import org.cactoos.iterable.Mapped;
 import org.cactoos.scalar.SolidScalar;
@@ -38,6 +39,10 @@ import org.xembly.Directives;
 /**
  * Reactive farm.
  *
+ * <p>Claims of a project are processed when its claims.xml is released,
+ * but only if this node processes claims of the project. When several
+ * nodes work together, PMO claims are processed by one of them.</p>
+ *
  * @author Yegor Bugayenko (yegor256@gmail.com)
  * @version $Id$
  * @since 0.1
@@ -57,6 +62,11 @@ public final class RvFarm implements Farm {
      */
     private final Flush flush;
 
+    /**
+     * Tells whether this node processes claims of the project.
+     */
+    private final Func<String, Boolean> own;
+
     /**
      * Every minute flusher.
      */
@@ -79,6 +89,25 @@ public final class RvFarm implements Farm {
         this(farm, new Brigade(list));
     }
 
+    /**
+     * Ctor.
+     * @param farm Original farm
+     * @param list List of stakeholders
+     * @param mine Tells whether this node processes claims of the project,
+     *  by its ID
+     */
+    public RvFarm(final Farm farm, final Iterable<Stakeholder> list,
+        final Func<String, Boolean> mine) {
+        this(
+            farm,
+            new AsyncFlush(
+                new DefaultFlush(new Brigade(list)),
+                Runtime.getRuntime().availableProcessors()
+            ),
+            mine
+        );
+    }
+
     /**
      * Ctor.
      * @param farm Original farm
@@ -104,8 +133,21 @@ public final class RvFarm implements Farm {
      * @param flsh Flush
      */
     public RvFarm(final Farm farm, final Flush flsh) {
+        this(farm, flsh, pid -> true);
+    }
+
+    /**
+     * Ctor.
+     * @param farm Original farm
+     * @param flsh Flush
+     * @param mine Tells whether this node processes claims of the project,
+     *  by its ID
+     */
+    public RvFarm(final Farm farm, final Flush flsh,
+        final Func<String, Boolean> mine) {
         this.origin = farm;
         this.flush = flsh;
+        this.own = mine;
         this.routine = new UncheckedScalar<>(
             new SolidScalar<>(
                 () -> {
@@ -138,7 +180,14 @@ public final class RvFarm implements Farm {
         return new Guts(
             this.origin,
             () -> new Mapped<>(
-                pkt -> new RvProject(pkt, this.flush),
+                pkt -> new RvProject(
+                    pkt,
+                    project -> {
+                        if (this.own.apply(project.pid())) {
+                            this.flush.exec(project);
+                        }
+                    }
+                ),
                 this.origin.find(query)
             ),
             () -> new Directives()
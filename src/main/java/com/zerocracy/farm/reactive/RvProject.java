@@ -69,4 +69,9 @@ final class RvProject implements Project {
         return item;
     }
 
+    @Override
+    public Item read(final String file) throws IOException {
+        return this.origin.read(file);
+    }
+
 }
@@ -60,4 +60,9 @@ final class RdProject implements Project {
         return item;
     }
 
+    @Override
+    public Item read(final String file) throws IOException {
+        return this.origin.read(file);
+    }
+
 }
@@ -66,4 +66,10 @@ public final class SpyProject implements Project {
         return new SpyItem(this.origin.acq(file), this.spy);
     }
 
+    @Override
+    public Item read(final String file) throws IOException {
+        this.spy.exec(String.format("read:%s", file));
+        return new SpyItem(this.origin.read(file), this.spy);
+    }
+
 }
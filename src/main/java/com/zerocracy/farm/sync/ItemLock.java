@@ -0,0 +1,367 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm.sync;
+
+import com.jcabi.log.Logger;
+import com.zerocracy.farm.LockStats;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Lock of one item in a project.
+ *
+ * <p>It is a reentrant read/write lock, which also knows which threads
+ * are holding it, in any mode, so that {@link ItemLocks} can see
+ * deadlocks.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ */
+final class ItemLock {
+
+    /**
+     * Name of the item.
+     */
+    private final String name;
+
+    /**
+     * Original lock.
+     */
+    private final ReentrantReadWriteLock origin;
+
+    /**
+     * Threads holding it and their holds.
+     */
+    private final Map<Thread, ItemLock.Hold> holders;
+
+    /**
+     * When it was taken by the first holder.
+     */
+    private final AtomicLong start;
+
+    /**
+     * Statistics of the project.
+     */
+    private final LockStats stats;
+
+    /**
+     * How many times it was held.
+     */
+    private final AtomicLong count;
+
+    /**
+     * How long it was held, in total, in milliseconds.
+     */
+    private final AtomicLong total;
+
+    /**
+     * The longest hold, in milliseconds.
+     */
+    private final AtomicLong longest;
+
+    /**
+     * Ctor.
+     * @param file Name of the item
+     */
+    ItemLock(final String file) {
+        this(file, new LockStats());
+    }
+
+    /**
+     * Ctor.
+     * @param file Name of the item
+     * @param sts Statistics of the project
+     */
+    ItemLock(final String file, final LockStats sts) {
+        this.name = file;
+        this.origin = new ReentrantReadWriteLock();
+        this.holders = new ConcurrentHashMap<>(0);
+        this.start = new AtomicLong();
+        this.stats = sts;
+        this.count = new AtomicLong();
+        this.total = new AtomicLong();
+        this.longest = new AtomicLong();
+    }
+
+    /**
+     * Name of the item.
+     * @return Name
+     */
+    public String name() {
+        return this.name;
+    }
+
+    /**
+     * Lock in the given mode.
+     * @param write TRUE for exclusive mode, FALSE for shared one
+     * @return Lock
+     */
+    public Lock lock(final boolean write) {
+        final Lock lock;
+        if (write) {
+            lock = this.origin.writeLock();
+        } else {
+            lock = this.origin.readLock();
+        }
+        return new ItemLock.Held(lock);
+    }
+
+    /**
+     * The current thread holds it for reading only?
+     * @return TRUE if it does
+     */
+    public boolean reading() {
+        return this.origin.getReadHoldCount() > 0
+            && !this.origin.isWriteLockedByCurrentThread();
+    }
+
+    /**
+     * Threads holding it now.
+     * @return Threads
+     */
+    public Collection<Thread> holders() {
+        return new HashSet<>(this.holders.keySet());
+    }
+
+    /**
+     * How many threads are waiting for it.
+     * @return Queue length
+     */
+    public int queue() {
+        return this.origin.getQueueLength();
+    }
+
+    /**
+     * How long it was held, in total, in milliseconds.
+     * @return Milliseconds
+     */
+    public long held() {
+        return this.total.get();
+    }
+
+    /**
+     * How many times it was held.
+     * @return Total
+     */
+    public long holds() {
+        return this.count.get();
+    }
+
+    /**
+     * The longest hold, in milliseconds.
+     * @return Milliseconds
+     */
+    public long longest() {
+        return this.longest.get();
+    }
+
+    /**
+     * Nobody holds it and nobody waits for it?
+     * @return TRUE if idle
+     */
+    public boolean idle() {
+        return this.holders.isEmpty() && !this.origin.hasQueuedThreads()
+            && this.origin.getReadLockCount() == 0
+            && !this.origin.isWriteLocked();
+    }
+
+    /**
+     * Full stack trace of one of its holders.
+     * @return The stacktrace
+     */
+    public StackTraceElement[] stacktrace() {
+        final StackTraceElement[] array;
+        final Collection<Thread> threads = this.holders();
+        if (threads.isEmpty()) {
+            array = new StackTraceElement[0];
+        } else {
+            array = threads.iterator().next().getStackTrace();
+        }
+        return array;
+    }
+
+    @Override
+    public String toString() {
+        final Collection<Thread> threads = this.holders();
+        final String text;
+        if (threads.isEmpty()) {
+            text = "free";
+        } else {
+            text = Logger.format(
+                "%s/%[ms]s/%d/%d by %s",
+                this.mode(),
+                System.currentTimeMillis() - this.start.get(),
+                threads.size(),
+                this.origin.getQueueLength(),
+                threads.stream().map(Thread::getName)
+                    .collect(Collectors.joining(", "))
+            );
+        }
+        return text;
+    }
+
+    /**
+     * Current mode.
+     * @return Mode
+     */
+    private String mode() {
+        final String mode;
+        if (this.origin.isWriteLocked()) {
+            mode = "W";
+        } else {
+            mode = "R";
+        }
+        return mode;
+    }
+
+    /**
+     * The current thread got it.
+     */
+    private void hold() {
+        final long now = System.currentTimeMillis();
+        if (this.holders.isEmpty()) {
+            this.start.set(now);
+        }
+        this.holders.computeIfAbsent(
+            Thread.currentThread(), thread -> new ItemLock.Hold(now)
+        ).enter();
+    }
+
+    /**
+     * The current thread releases it.
+     */
+    private void release() {
+        final ItemLock.Hold hold = this.holders.get(Thread.currentThread());
+        if (hold != null && hold.leave()) {
+            this.holders.remove(Thread.currentThread());
+            final long msec = System.currentTimeMillis() - hold.since();
+            this.stats.held(msec);
+            this.count.incrementAndGet();
+            this.total.addAndGet(msec);
+            this.longest.accumulateAndGet(msec, Math::max);
+        }
+    }
+
+    /**
+     * Hold of one thread.
+     */
+    private static final class Hold {
+        /**
+         * When it started.
+         */
+        private final long start;
+        /**
+         * How many times the thread entered, modified only by the thread.
+         */
+        private int entries;
+        /**
+         * Ctor.
+         * @param when When it started
+         */
+        Hold(final long when) {
+            this.start = when;
+        }
+        /**
+         * When it started.
+         * @return Milliseconds
+         */
+        public long since() {
+            return this.start;
+        }
+        /**
+         * Enter once more.
+         */
+        public void enter() {
+            ++this.entries;
+        }
+        /**
+         * Leave once.
+         * @return TRUE if it was the last entry
+         */
+        public boolean leave() {
+            --this.entries;
+            return this.entries == 0;
+        }
+    }
+
+    /**
+     * Lock which tracks its holders.
+     */
+    private final class Held implements Lock {
+        /**
+         * Original lock.
+         */
+        private final Lock lock;
+        /**
+         * Ctor.
+         * @param lck Original lock
+         */
+        Held(final Lock lck) {
+            this.lock = lck;
+        }
+        @Override
+        public void lock() {
+            this.lock.lock();
+            ItemLock.this.hold();
+        }
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            this.lock.lockInterruptibly();
+            ItemLock.this.hold();
+        }
+        @Override
+        public boolean tryLock() {
+            final boolean done = this.lock.tryLock();
+            if (done) {
+                ItemLock.this.hold();
+            }
+            return done;
+        }
+        @Override
+        public boolean tryLock(final long time, final TimeUnit unit)
+            throws InterruptedException {
+            final boolean done = this.lock.tryLock(time, unit);
+            if (done) {
+                ItemLock.this.hold();
+            }
+            return done;
+        }
+        @Override
+        public void unlock() {
+            ItemLock.this.release();
+            this.lock.unlock();
+        }
+        @Override
+        public Condition newCondition() {
+            return this.lock.newCondition();
+        }
+        @Override
+        public String toString() {
+            return ItemLock.this.toString();
+        }
+    }
+
+}
@@ -0,0 +1,250 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm.sync;
+
+import com.jcabi.aspects.Tv;
+import com.zerocracy.farm.LockStats;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Locks of all items in a project.
+ *
+ * <p>Every item has its own lock, see {@link ItemLock}, so that
+ * threads working with different items of the same project don't wait
+ * for each other. Since a thread may acquire a few items at the same
+ * time, in any order, deadlocks are possible. Before waiting for
+ * a lock the thread checks whether the threads holding it are
+ * waiting, directly or not, for the locks it holds. If so, it fails
+ * right away instead of waiting forever. A holder is known only after
+ * it got the lock, so a cycle may be completed by a thread which
+ * hasn't registered yet; that's why the check is repeated every
+ * {@link #SLICE} while waiting. A cycle found that way must be seen
+ * twice in a row, to let the thread which just closed it fail first,
+ * and only the thread with the highest ID in it fails, so that one
+ * cycle costs one failure.</p>
+ *
+ * <p>A thread holding a file for reading can't acquire it for
+ * writing, since the lock can't be upgraded: it fails right away,
+ * see {@link ItemLock#reading()}.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ */
+final class ItemLocks {
+
+    /**
+     * How long to wait before checking for deadlocks again, in nanos.
+     */
+    private static final long SLICE = TimeUnit.MILLISECONDS.toNanos(
+        (long) Tv.HUNDRED
+    );
+
+    /**
+     * Locks per item name.
+     */
+    private final Map<String, ItemLock> locks;
+
+    /**
+     * Locks threads are waiting for, in all projects of the farm.
+     */
+    private final Map<Thread, ItemLock> waits;
+
+    /**
+     * Statistics of the project.
+     */
+    private final LockStats stats;
+
+    /**
+     * Ctor.
+     */
+    ItemLocks() {
+        this(new ConcurrentHashMap<>(0));
+    }
+
+    /**
+     * Ctor.
+     * @param wts Locks threads are waiting for, shared by all projects
+     */
+    ItemLocks(final Map<Thread, ItemLock> wts) {
+        this.locks = new ConcurrentHashMap<>(0);
+        this.waits = wts;
+        this.stats = new LockStats();
+    }
+
+    /**
+     * Lock of the item.
+     * @param file Name of the item
+     * @return Lock
+     */
+    public ItemLock get(final String file) {
+        return this.locks.computeIfAbsent(
+            file, name -> new ItemLock(name, this.stats)
+        );
+    }
+
+    /**
+     * Statistics of the project.
+     * @return Statistics
+     */
+    public LockStats stats() {
+        return this.stats;
+    }
+
+    /**
+     * All locks.
+     * @return Locks
+     */
+    public Collection<ItemLock> all() {
+        return this.locks.values();
+    }
+
+    /**
+     * Nobody holds or waits for any of them?
+     * @return TRUE if all locks are idle
+     */
+    public boolean idle() {
+        boolean idle = true;
+        for (final ItemLock lock : this.locks.values()) {
+            if (!lock.idle()) {
+                idle = false;
+                break;
+            }
+        }
+        return idle;
+    }
+
+    /**
+     * Acquire the lock, waiting if necessary.
+     * @param item The item lock
+     * @param lock Its lock in the required mode
+     * @param time How long to wait
+     * @param unit Time unit
+     * @return TRUE if acquired, FALSE if timed out
+     * @throws InterruptedException If interrupted
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    public boolean acquire(final ItemLock item, final Lock lock,
+        final long time, final TimeUnit unit) throws InterruptedException {
+        final long begin = System.nanoTime();
+        final int queue = item.queue();
+        boolean done = lock.tryLock();
+        if (!done) {
+            final Thread self = Thread.currentThread();
+            final long end = begin + unit.toNanos(time);
+            this.waits.put(self, item);
+            try {
+                long left = end - System.nanoTime();
+                boolean first = true;
+                boolean seen = false;
+                while (!done && left > 0L) {
+                    final Collection<Thread> cycle = this.cycle(self, item);
+                    if (cycle.isEmpty()) {
+                        seen = false;
+                    } else if (first || seen && ItemLocks.victim(self, cycle)) {
+                        throw new IllegalStateException(
+                            String.format(
+                                // @checkstyle LineLength (1 line)
+                                "Deadlock: %s can't wait for \"%s\" (%s), since it holds what %d other thread(s) are waiting for",
+                                self.getName(), item.name(), item, cycle.size()
+                            )
+                        );
+                    } else {
+                        seen = true;
+                    }
+                    first = false;
+                    done = lock.tryLock(
+                        Math.min(left, ItemLocks.SLICE), TimeUnit.NANOSECONDS
+                    );
+                    left = end - System.nanoTime();
+                }
+            } finally {
+                this.waits.remove(self);
+            }
+        }
+        if (done) {
+            this.stats.waited(
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin),
+                queue
+            );
+        }
+        return done;
+    }
+
+    /**
+     * This thread must break the cycle, since its ID is the highest?
+     * @param self The thread
+     * @param cycle Other threads in the cycle
+     * @return TRUE if it must
+     */
+    private static boolean victim(final Thread self,
+        final Collection<Thread> cycle) {
+        boolean max = true;
+        for (final Thread thread : cycle) {
+            if (thread.getId() > self.getId()) {
+                max = false;
+                break;
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Find threads which, directly or not, wait for the given thread,
+     * if it waits for this lock.
+     * @param self The thread
+     * @param item The lock it waits for
+     * @return Threads in the cycle, empty if there is no cycle
+     */
+    private Collection<Thread> cycle(final Thread self, final ItemLock item) {
+        final Collection<Thread> seen = new HashSet<>(0);
+        final Queue<ItemLock> queue = new LinkedList<>();
+        queue.add(item);
+        boolean found = false;
+        while (!found && !queue.isEmpty()) {
+            for (final Thread holder : queue.remove().holders()) {
+                if (holder.equals(self)) {
+                    found = true;
+                    break;
+                }
+                if (seen.add(holder)) {
+                    final ItemLock next = this.waits.get(holder);
+                    if (next != null) {
+                        queue.add(next);
+                    }
+                }
+            }
+        }
+        final Collection<Thread> cycle;
+        if (found) {
+            cycle = seen;
+        } else {
+            cycle = new HashSet<>(0);
+        }
+        return cycle;
+    }
+
+}
@@ -0,0 +1,215 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm.sync;
+
+import com.jcabi.aspects.Tv;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.xembly.Directive;
+import org.xembly.Directives;
+
+/**
+ * Locks of projects, by project ID.
+ *
+ * <p>The registry is bounded: when it grows over the limit, the locks
+ * of projects nobody holds or waits for are evicted. Since a lock may
+ * be evicted right after somebody got it from the registry and before
+ * it was acquired, the one who acquires it must check that it is still
+ * {@link #current(String, ItemLocks)} and start over if it isn't.
+ * Candidates for eviction are taken from the head of a queue of
+ * project IDs, in the order they were added; a busy one goes back to
+ * the tail. Only a few candidates are checked per new project, so
+ * when all projects are busy the registry grows over the limit,
+ * instead of failing or scanning all of them.</p>
+ *
+ * <p>The class is thread-safe.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ */
+final class ProjectLocks {
+
+    /**
+     * Locks per project ID.
+     */
+    private final Map<String, ItemLocks> pool;
+
+    /**
+     * Project IDs of the pool, the oldest first.
+     */
+    private final Queue<String> order;
+
+    /**
+     * Locks threads are waiting for, in all projects.
+     */
+    private final Map<Thread, ItemLock> waits;
+
+    /**
+     * Max number of projects to keep.
+     */
+    private final int max;
+
+    /**
+     * Ctor.
+     */
+    ProjectLocks() {
+        this(Tv.THOUSAND);
+    }
+
+    /**
+     * Ctor.
+     * @param total Max number of projects to keep
+     */
+    ProjectLocks(final int total) {
+        this.pool = new ConcurrentHashMap<>(0);
+        this.order = new ConcurrentLinkedQueue<>();
+        this.waits = new ConcurrentHashMap<>(0);
+        this.max = total;
+    }
+
+    /**
+     * Locks of the project.
+     * @param pid Project ID
+     * @return Locks
+     */
+    public ItemLocks get(final String pid) {
+        ItemLocks locks = this.pool.get(pid);
+        if (locks == null) {
+            locks = this.pool.computeIfAbsent(
+                pid,
+                key -> {
+                    this.order.offer(key);
+                    return new ItemLocks(this.waits);
+                }
+            );
+            if (this.pool.size() > this.max) {
+                this.evict(pid);
+            }
+        }
+        return locks;
+    }
+
+    /**
+     * These locks are still in the registry?
+     * @param pid Project ID
+     * @param locks Locks taken before
+     * @return TRUE if they are
+     */
+    public boolean current(final String pid, final ItemLocks locks) {
+        return this.pool.get(pid) == locks;
+    }
+
+    /**
+     * All locks.
+     * @return Locks per project ID
+     */
+    public Map<String, ItemLocks> all() {
+        return Collections.unmodifiableMap(this.pool);
+    }
+
+    /**
+     * Statistics of all projects.
+     * @return Directives
+     */
+    public Iterable<Directive> stats() {
+        final Directives dirs = new Directives();
+        for (final Map.Entry<String, ItemLocks> ent : this.pool.entrySet()) {
+            dirs.add("project")
+                .attr("pid", ent.getKey())
+                .append(ent.getValue().stats().value())
+                .up();
+        }
+        return dirs;
+    }
+
+    /**
+     * Files held the longest, in total, in all projects.
+     * @param total How many of them to show
+     * @return Directives
+     */
+    public Iterable<Directive> holders(final int total) {
+        final Directives dirs = new Directives();
+        this.pool.entrySet().stream()
+            .flatMap(
+                ent -> ent.getValue().all().stream().map(
+                    lock -> new SimpleImmutableEntry<>(ent.getKey(), lock)
+                )
+            )
+            .sorted(
+                Comparator.comparingLong(
+                    (Map.Entry<String, ItemLock> ent) -> ent.getValue().held()
+                ).reversed()
+            )
+            .limit((long) total)
+            .forEach(
+                ent -> dirs.add("holder")
+                    .attr("pid", ent.getKey())
+                    .attr("file", ent.getValue().name())
+                    .attr("count", ent.getValue().holds())
+                    .attr("total", ent.getValue().held())
+                    .attr("max", ent.getValue().longest())
+                    .set(ent.getValue().toString())
+                    .up()
+            );
+        return dirs;
+    }
+
+    /**
+     * Evict idle locks of the oldest projects, except one.
+     * @param keep Project ID to keep
+     */
+    private void evict(final String keep) {
+        int left = Tv.FIVE;
+        while (left > 0 && this.pool.size() > this.max) {
+            final String pid = this.order.poll();
+            if (pid == null) {
+                break;
+            }
+            if (pid.equals(keep) || !this.drop(pid)) {
+                this.order.offer(pid);
+            }
+            --left;
+        }
+    }
+
+    /**
+     * Remove locks of the project, if they are idle.
+     * @param pid Project ID
+     * @return TRUE if they are removed or absent
+     */
+    private boolean drop(final String pid) {
+        return this.pool.computeIfPresent(
+            pid,
+            (key, locks) -> {
+                final ItemLocks after;
+                if (locks.idle()) {
+                    after = null;
+                } else {
+                    after = locks;
+                }
+                return after;
+            }
+        ) == null;
+    }
+
+}
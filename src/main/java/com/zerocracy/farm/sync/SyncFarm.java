@@ -19,11 +19,8 @@ package com.zerocracy.farm.sync;
 import com.jcabi.aspects.Tv;
 import com.zerocracy.Farm;
 import com.zerocracy.Project;
-import com.zerocracy.farm.SmartLock;
 import com.zerocracy.farm.guts.Guts;
 import java.io.IOException;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import lombok.EqualsAndHashCode;
 import org.cactoos.iterable.Joined;
@@ -51,7 +48,7 @@ public final class SyncFarm implements Farm {
     /**
      * Pool of locks.
      */
-    private final Map<Project, SmartLock> pool;
+    private final ProjectLocks pool;
 
     /**
      * Terminator.
@@ -73,59 +70,55 @@ public final class SyncFarm implements Farm {
      */
     public SyncFarm(final Farm farm, final long sec) {
         this.origin = farm;
-        this.pool = new ConcurrentHashMap<>(0);
+        this.pool = new ProjectLocks();
         this.terminator = new Terminator(sec);
     }
 
     @Override
     public Iterable<Project> find(final String query) throws IOException {
-        if (this.pool.size() > Tv.HUNDRED) {
-            throw new IllegalStateException(
-                String.format(
-                    "%s pool overflow, too many items: %d",
-                    this.getClass().getCanonicalName(), this.pool.size()
-                )
-            );
-        }
-        synchronized (this.origin) {
-            return new Guts(
-                this.origin,
-                () -> new Mapped<>(
-                    pkt -> new SyncProject(
-                        pkt,
-                        this.pool.computeIfAbsent(
-                            pkt, p -> new SmartLock()
-                        ),
-                        this.terminator
-                    ),
-                    this.origin.find(query)
+        return new Guts(
+            this.origin,
+            () -> new Mapped<>(
+                pkt -> new SyncProject(
+                    pkt, this.pool, this.terminator
                 ),
-                () -> new Directives()
-                    .xpath("/guts")
-                    .add("farm")
-                    .attr("id", this.getClass().getSimpleName())
-                    .append(this.terminator.value())
-                    .add("locks")
-                    .append(
-                        new Joined<Directive>(
-                            new Mapped<>(
-                                ent -> new Directives()
-                                    .add("lock")
-                                    .attr("pid", ent.getKey().pid())
-                                    .attr("label", ent.getValue().toString())
-                                    .set(
-                                        new TextOf(
-                                            ent.getValue().stacktrace()
+                this.origin.find(query)
+            ),
+            () -> new Directives()
+                .xpath("/guts")
+                .add("farm")
+                .attr("id", this.getClass().getSimpleName())
+                .append(this.terminator.value())
+                .add("locks")
+                .append(
+                    new Joined<Directive>(
+                        new Mapped<>(
+                            ent -> new Joined<Directive>(
+                                new Mapped<>(
+                                    lck -> new Directives()
+                                        .add("lock")
+                                        .attr("pid", ent.getKey())
+                                        .attr("file", lck.name())
+                                        .attr("label", lck.toString())
+                                        .set(
+                                            new TextOf(lck.stacktrace())
                                         )
-                                    )
-                                    .up(),
-                                this.pool.entrySet()
-                            )
+                                        .up(),
+                                    ent.getValue().all()
+                                )
+                            ),
+                            this.pool.all().entrySet()
                         )
                     )
-                    .up()
-            ).apply(query);
-        }
+                )
+                .up()
+                .add("stats")
+                .append(this.pool.stats())
+                .up()
+                .add("holders")
+                .append(this.pool.holders(Tv.TEN))
+                .up()
+        ).apply(query);
     }
 
     @Override
@@ -17,6 +17,7 @@
 package com.zerocracy.farm.sync;
 
 import com.zerocracy.Item;
+import java.io.Closeable;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.concurrent.locks.Lock;
@@ -42,14 +43,21 @@ final class SyncItem implements Item {
      */
     private final Lock lock;
 
+    /**
+     * Deadline in the terminator.
+     */
+    private final Closeable deadline;
+
     /**
      * Ctor.
      * @param item Original item
      * @param lck Lock
+     * @param ddl Deadline in the terminator
      */
-    SyncItem(final Item item, final Lock lck) {
+    SyncItem(final Item item, final Lock lck, final Closeable ddl) {
         this.origin = item;
         this.lock = lck;
+        this.deadline = ddl;
     }
 
     @Override
@@ -76,6 +84,7 @@ final class SyncItem implements Item {
         try {
             this.origin.close();
         } finally {
+            this.deadline.close();
             this.lock.unlock();
         }
     }
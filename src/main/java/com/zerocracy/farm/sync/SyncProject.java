@@ -27,6 +27,11 @@ import lombok.EqualsAndHashCode;
 /**
  * Sync project.
  *
+ * <p>Every file has its own lock, see {@link ItemLocks}, so threads
+ * working with different files of the same project don't block each
+ * other. Readers of the same file share its lock, see
+ * {@link Project#read(String)}.</p>
+ *
  * @author Yegor Bugayenko (yegor256@gmail.com)
  * @version $Id$
  * @checkstyle ClassDataAbstractionCouplingCheck (500 lines)
@@ -41,9 +46,9 @@ final class SyncProject implements Project {
     private final Project origin;
 
     /**
-     * Lock.
+     * Locks of projects.
      */
-    private final Lock lock;
+    private final ProjectLocks locks;
 
     /**
      * Terminator.
@@ -53,12 +58,13 @@ final class SyncProject implements Project {
     /**
      * Ctor.
      * @param pkt Project
-     * @param lck Lock
+     * @param lcks Locks of projects
      * @param tmr Terminator
      */
-    SyncProject(final Project pkt, final Lock lck, final Terminator tmr) {
+    SyncProject(final Project pkt, final ProjectLocks lcks,
+        final Terminator tmr) {
         this.origin = pkt;
-        this.lock = lck;
+        this.locks = lcks;
         this.terminator = tmr;
     }
 
@@ -69,16 +75,96 @@ final class SyncProject implements Project {
 
     @Override
     public Item acq(final String file) throws IOException {
+        return this.item(file, true);
+    }
+
+    @Override
+    public Item read(final String file) throws IOException {
+        return this.item(file, false);
+    }
+
+    /**
+     * Lock the file and acquire it.
+     *
+     * <p>Readers share the lock of the file, while a writer holds it
+     * exclusively. A reader of the file can't become its writer,
+     * since that would wait for itself forever. If the origin project
+     * fails to give the file, for example because the project is leased
+     * by another node, the lock is released right away.</p>
+     *
+     * @param file The file
+     * @param write TRUE if the file will be modified
+     * @return Item acquired
+     * @throws IOException If fails
+     */
+    private Item item(final String file, final boolean write)
+        throws IOException {
+        final String pid = this.origin.pid();
+        ItemLocks files;
+        ItemLock item;
+        Lock lock;
+        boolean done;
+        do {
+            files = this.locks.get(pid);
+            item = files.get(file);
+            if (write && item.reading()) {
+                throw new IllegalStateException(
+                    String.format(
+                        // @checkstyle LineLength (1 line)
+                        "%s holds \"%s\" in %s for reading and can't acquire it for writing, upgrade is not supported; acquire it for writing in the first place",
+                        Thread.currentThread().getName(), file, pid
+                    )
+                );
+            }
+            lock = item.lock(write);
+            this.acquire(files, item, lock, file);
+            done = this.locks.current(pid, files);
+            if (!done) {
+                lock.unlock();
+            }
+        } while (!done);
+        boolean acquired = false;
+        try {
+            final Item origin;
+            if (write) {
+                origin = this.origin.acq(file);
+            } else {
+                origin = this.origin.read(file);
+            }
+            final Item synced = new SyncItem(
+                origin, lock,
+                this.terminator.submit(pid, file, item)
+            );
+            acquired = true;
+            return synced;
+        } finally {
+            if (!acquired) {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Acquire the lock of the file.
+     * @param files Locks of files of the project
+     * @param item Lock of the file
+     * @param lock Its lock in the required mode
+     * @param file The file
+     * @throws IOException If fails
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private void acquire(final ItemLocks files, final ItemLock item,
+        final Lock lock, final String file) throws IOException {
         final long start = System.currentTimeMillis();
         try {
             // @checkstyle MagicNumber (1 line)
-            if (!this.lock.tryLock(1L, TimeUnit.MINUTES)) {
+            if (!files.acquire(item, lock, 1L, TimeUnit.MINUTES)) {
                 throw new IllegalStateException(
                     Logger.format(
                         "Failed to acquire \"%s\" in \"%s\" in %[ms]s: %s",
                         file, this.origin.pid(),
                         System.currentTimeMillis() - start,
-                        this.lock
+                        lock
                     )
                 );
             }
@@ -94,7 +180,5 @@ final class SyncProject implements Project {
                 ex
             );
         }
-        this.terminator.submit(this, file, this.lock);
-        return new SyncItem(this.origin.acq(file), this.lock);
     }
 }
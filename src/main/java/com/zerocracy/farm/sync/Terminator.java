@@ -16,20 +16,20 @@
  */
 package com.zerocracy.farm.sync;
 
+import com.jcabi.aspects.Tv;
 import com.jcabi.log.Logger;
 import com.jcabi.log.VerboseRunnable;
 import com.jcabi.log.VerboseThreads;
-import com.zerocracy.Project;
 import com.zerocracy.ShutUp;
 import java.io.Closeable;
-import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
 import org.cactoos.Scalar;
-import org.cactoos.func.RunnableOf;
 import org.cactoos.iterable.Joined;
 import org.cactoos.iterable.Mapped;
 import org.xembly.Directive;
@@ -38,6 +38,15 @@ import org.xembly.Directives;
 /**
  * Terminator.
  *
+ * <p>Every acquisition of a file gets a deadline. One watchdog thread
+ * takes expired deadlines from the queue and interrupts the threads
+ * which are still holding their files, logging where those threads
+ * are at that moment. Released acquisitions are only removed from the set
+ * of live deadlines, which is cheap, while removing them from the queue
+ * would scan it under its lock. The watchdog skips deadlines which are not
+ * live anymore, and when the queue gets much bigger than the set,
+ * it is purged of them.</p>
+ *
  * @author Yegor Bugayenko (yegor256@gmail.com)
  * @version $Id$
  * @since 0.1
@@ -51,14 +60,19 @@ final class Terminator implements Closeable, Scalar<Iterable<Directive>> {
     private final long threshold;
 
     /**
-     * Terminator of long running threads.
+     * Watchdog.
      */
     private final ExecutorService service;
 
     /**
-     * Map of statuses per project.
+     * Deadlines, in the order of expiration.
+     */
+    private final DelayQueue<Terminator.Deadline> queue;
+
+    /**
+     * Deadlines of acquisitions not released yet.
      */
-    private final Map<Project, String> killers;
+    private final Set<Terminator.Deadline> live;
 
     /**
      * Ctor.
@@ -66,16 +80,21 @@ final class Terminator implements Closeable, Scalar<Iterable<Directive>> {
      */
     Terminator(final long msec) {
         this.threshold = msec;
-        this.service = Executors.newCachedThreadPool(
+        this.service = Executors.newSingleThreadExecutor(
             new VerboseThreads(
                 String.format("Terminator-%d-", msec)
             )
         );
-        this.killers = new ConcurrentHashMap<>(0);
+        this.queue = new DelayQueue<>();
+        this.live = ConcurrentHashMap.newKeySet();
+        this.service.submit(
+            new VerboseRunnable((Runnable) this::watch, true, true)
+        );
     }
 
     @Override
     public void close() {
+        this.service.shutdownNow();
         new ShutUp(this.service).close();
     }
 
@@ -84,63 +103,139 @@ final class Terminator implements Closeable, Scalar<Iterable<Directive>> {
         return new Directives().add("terminator").append(
             new Joined<Directive>(
                 new Mapped<>(
-                    pkt -> new Directives().add("killer")
-                        .attr("pid", pkt.getKey().pid())
-                        .set(pkt.getValue()).up(),
-                    this.killers.entrySet()
+                    ddl -> new Directives().add("deadline")
+                        .attr("pid", ddl.pid)
+                        .attr("file", ddl.file)
+                        .attr("thread", ddl.thread.getName())
+                        .set(
+                            Logger.format(
+                                "%[ms]s",
+                                ddl.getDelay(TimeUnit.MILLISECONDS)
+                            )
+                        ).up(),
+                    this.live
                 )
             )
         ).up();
     }
+
     /**
-     * Submit new one.
-     * @param project The project
+     * Submit new acquisition, made by the current thread.
+     * @param pid The project
      * @param file The file
-     * @param lock The lock
+     * @param lock The lock of the file
+     * @return Close it when the file is released
      */
-    public void submit(final Project project, final String file,
-        final Lock lock) {
-        synchronized (this.killers) {
-            if (!this.killers.containsKey(project)) {
-                this.killers.put(project, file);
-                this.service.submit(
-                    new VerboseRunnable(
-                        this.killer(project, file, lock),
-                        true, true
-                    )
-                );
+    public Closeable submit(final String pid, final String file,
+        final ItemLock lock) {
+        final Terminator.Deadline ddl = new Terminator.Deadline(
+            pid, file, lock,
+            System.currentTimeMillis() + this.threshold
+        );
+        this.live.add(ddl);
+        synchronized (this.queue) {
+            this.queue.add(ddl);
+            if (this.queue.size() > this.live.size() * 2 + Tv.THOUSAND) {
+                this.purge();
             }
         }
+        return () -> this.live.remove(ddl);
     }
 
     /**
-     * Killer runnable.
-     * @param project The project
-     * @param file The file
-     * @param lock The lock
-     * @return The runnable
+     * Remove released deadlines from the queue.
      */
-    private Runnable killer(final Project project, final String file,
-        final Lock lock) {
-        final Thread thread = Thread.currentThread();
-        final Exception location = new IllegalStateException("Here!");
-        return new RunnableOf<Object>(
-            input -> {
-                if (!lock.tryLock(this.threshold, TimeUnit.MILLISECONDS)) {
+    private void purge() {
+        final Terminator.Deadline[] all = this.queue.toArray(
+            new Terminator.Deadline[0]
+        );
+        this.queue.clear();
+        for (final Terminator.Deadline ddl : all) {
+            if (this.live.contains(ddl)) {
+                this.queue.add(ddl);
+            }
+        }
+    }
+
+    /**
+     * Interrupt threads with expired deadlines, until interrupted.
+     */
+    private void watch() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                final Terminator.Deadline ddl = this.queue.take();
+                if (this.live.remove(ddl)) {
+                    final Exception where = new IllegalStateException(
+                        "Here!"
+                    );
+                    where.setStackTrace(ddl.thread.getStackTrace());
                     Logger.warn(
                         this,
                         // @checkstyle LineLength (1 line)
                         "Thread %d/%s interrupted because of too long hold of \"%s\" in %s (over %d msec), %s: %[exception]s",
-                        thread.getId(), thread.getName(),
-                        file, project.pid(), this.threshold, lock, location
+                        ddl.thread.getId(), ddl.thread.getName(),
+                        ddl.file, ddl.pid, this.threshold, ddl.lock, where
                     );
-                    thread.interrupt();
-                    this.submit(project, file, lock);
+                    ddl.thread.interrupt();
                 }
-                lock.unlock();
-                this.killers.remove(project);
             }
-        );
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Deadline of one acquisition.
+     */
+    private static final class Deadline implements Delayed {
+        /**
+         * Project ID.
+         */
+        private final String pid;
+        /**
+         * The file.
+         */
+        private final String file;
+        /**
+         * Lock of the file.
+         */
+        private final ItemLock lock;
+        /**
+         * When it expires, in milliseconds.
+         */
+        private final long due;
+        /**
+         * The thread holding the file.
+         */
+        private final Thread thread;
+        /**
+         * Ctor.
+         * @param prj Project ID
+         * @param name The file
+         * @param lck Lock of the file
+         * @param when When it expires
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        Deadline(final String prj, final String name, final ItemLock lck,
+            final long when) {
+            this.pid = prj;
+            this.file = name;
+            this.lock = lck;
+            this.due = when;
+            this.thread = Thread.currentThread();
+        }
+        @Override
+        public long getDelay(final TimeUnit unit) {
+            return unit.convert(
+                this.due - System.currentTimeMillis(), TimeUnit.MILLISECONDS
+            );
+        }
+        @Override
+        public int compareTo(final Delayed other) {
+            return Long.compare(
+                this.due, Terminator.Deadline.class.cast(other).due
+            );
+        }
     }
 
 }
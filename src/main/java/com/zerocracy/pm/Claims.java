@@ -24,13 +24,9 @@ import com.zerocracy.Project;
 import com.zerocracy.Xocument;
 import java.io.IOException;
 import java.util.Collection;
-import java.util.Comparator;
-import java.util.HashSet;
 import java.util.Iterator;
-import org.cactoos.collection.Limited;
-import org.cactoos.collection.Mapped;
-import org.cactoos.collection.Sorted;
-import org.cactoos.iterable.LengthOf;
+import org.cactoos.iterable.Limited;
+import org.cactoos.list.ListOf;
 import org.cactoos.time.DateAsText;
 import org.xembly.Directive;
 import org.xembly.Directives;
@@ -86,24 +82,10 @@ public final class Claims {
      * @throws IOException If fails
      */
     public void add(final Iterable<Directive> claim) throws IOException {
+        final int size;
         try (final Item item = this.item()) {
-            new Xocument(item).modify(
-                new Directives().xpath("/claims").append(claim)
-            );
-            final Collection<String> signatures = new Sorted<>(
-                new Mapped<>(
-                    input -> {
-                        final ClaimIn cin = new ClaimIn(input);
-                        return String.format(
-                            "%s;%s",
-                            cin.type(),
-                            cin.params()
-                        );
-                    },
-                    new Xocument(item).nodes("/claims/claim")
-                )
-            );
-            if (signatures.size() != new HashSet<>(signatures).size()) {
+            final ClaimsQueue queue = ClaimsQueue.of(item.path());
+            if (!queue.add(claim)) {
                 throw new IllegalStateException(
                     new Par(
                         "Duplicate claims are not allowed in %s,",
@@ -111,8 +93,8 @@ public final class Claims {
                     ).say(this.project.pid(), new Xembler(claim).xmlQuietly())
                 );
             }
+            size = queue.size(new DateAsText().asString());
         }
-        final int size = new LengthOf(this.iterate()).intValue();
         if (size > Tv.HUNDRED) {
             throw new IllegalStateException(
                 String.format(
@@ -129,21 +111,45 @@ public final class Claims {
      * @throws IOException If fails
      */
     public Iterator<XML> take() throws IOException {
+        return this.take(1).iterator();
+    }
+
+    /**
+     * Take first claims and remove them, all at once.
+     * @param max Maximum number of claims to take
+     * @return Found claims, in the order they must be processed
+     * @throws IOException If fails
+     * @since 0.22
+     */
+    public Collection<XML> take(final int max) throws IOException {
         try (final Item item = this.item()) {
-            final Iterable<XML> found = new Limited<>(1, this.iterate());
-            if (found.iterator().hasNext()) {
-                final XML next = found.iterator().next();
-                new Xocument(item).modify(
-                    new Directives().xpath(
-                        String.format(
-                            "/claims/claim[@id='%d' and type='%s']",
-                            Long.parseLong(next.xpath("@id").get(0)),
-                            next.xpath("type/text()").get(0)
-                        )
-                    ).strict(1).remove()
-                );
-            }
-            return found.iterator();
+            return ClaimsQueue.of(item.path()).take(
+                new DateAsText().asString(), max
+            );
+        }
+    }
+
+    /**
+     * Take first claims, without removing them.
+     * @param max Maximum number of claims to take
+     * @return Found claims, in the order they must be processed
+     * @throws IOException If fails
+     * @since 0.22
+     */
+    public Collection<XML> head(final int max) throws IOException {
+        return new ListOf<>(new Limited<>(max, this.iterate()));
+    }
+
+    /**
+     * Remove claims, all at once.
+     * @param claims Claims to remove, those already removed are ignored
+     * @return How many of them were removed
+     * @throws IOException If fails
+     * @since 0.22
+     */
+    public int remove(final Iterable<XML> claims) throws IOException {
+        try (final Item item = this.item()) {
+            return ClaimsQueue.of(item.path()).remove(claims);
         }
     }
 
@@ -153,23 +159,23 @@ public final class Claims {
      * @throws IOException If fails
      */
     public Collection<XML> iterate() throws IOException {
-        final String now = new DateAsText().asString();
         try (final Item item = this.item()) {
-            return new Sorted<>(
-                new Comparator<XML>() {
-                    @Override
-                    public int compare(final XML left, final XML right) {
-                        return Long.compare(this.cid(left), this.cid(right));
-                    }
-                    private long cid(final XML xml) {
-                        return new ClaimIn(xml).cid();
-                    }
-                },
-                new Xocument(item).nodes(
-                    String.format(
-                        "/claims/claim[not(until) or until < '%s']", now
-                    )
-                )
+            return ClaimsQueue.of(item.path()).due(
+                new DateAsText().asString()
+            );
+        }
+    }
+
+    /**
+     * How many claims are due.
+     * @return Total
+     * @throws IOException If fails
+     * @since 0.22
+     */
+    public int size() throws IOException {
+        try (final Item item = this.item()) {
+            return ClaimsQueue.of(item.path()).size(
+                new DateAsText().asString()
             );
         }
     }
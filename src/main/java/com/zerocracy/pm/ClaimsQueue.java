@@ -0,0 +1,414 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.pm;
+
+import com.jcabi.aspects.Tv;
+import com.jcabi.xml.XML;
+import com.jcabi.xml.XMLDocument;
+import com.zerocracy.Xocument;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import org.xembly.Directive;
+import org.xembly.Directives;
+import org.xembly.Xembler;
+
+/**
+ * Queue of claims, indexed in memory.
+ *
+ * <p>The file claims.xml stays the durable journal of the queue, every
+ * change is written there. The index is kept per file, together with
+ * the stamp of the file it matches and the digest of its content. When
+ * the stamp changes, the content is read and, only if its digest differs
+ * too, the index is built again from the XML. That's how the index
+ * survives a mere touch of the file, for example when the S3 cache
+ * moves its modification time back, and is rebuilt when the file
+ * really changes behind its back, for example when a fresh copy is
+ * downloaded or after a restart.</p>
+ *
+ * <p>Claims, which are due, are sorted by their IDs. Claims, which wait
+ * for their time, are sorted by that time and become due when it
+ * comes. The queue must be used only while claims.xml is acquired.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ */
+final class ClaimsQueue {
+
+    /**
+     * How many files to index.
+     */
+    private static final int MAX = Tv.THOUSAND;
+
+    /**
+     * Queues per file, in the order of access.
+     */
+    private static final Map<Path, ClaimsQueue> QUEUES =
+        new LinkedHashMap<>(0, 0.75f, true);
+
+    /**
+     * The file.
+     */
+    private final Path file;
+
+    /**
+     * Claims, which are due, by IDs.
+     */
+    private final SortedSet<ClaimsQueue.Entry> ready;
+
+    /**
+     * Claims, which wait for their time, by time.
+     */
+    private final SortedSet<ClaimsQueue.Entry> delayed;
+
+    /**
+     * Signatures of all claims.
+     */
+    private final Set<String> signatures;
+
+    /**
+     * Stamp of the file, which the index matches, or empty.
+     */
+    private String stamp;
+
+    /**
+     * Digest of the content, which the index matches, or empty.
+     */
+    private String digest;
+
+    /**
+     * Ctor.
+     * @param path The file
+     */
+    private ClaimsQueue(final Path path) {
+        this.file = path;
+        this.ready = new TreeSet<>(
+            Comparator.comparingLong((ClaimsQueue.Entry ent) -> ent.cid)
+                .thenComparing(ent -> ent.signature)
+        );
+        this.delayed = new TreeSet<>(
+            Comparator.comparing((ClaimsQueue.Entry ent) -> ent.until)
+                .thenComparing(this.ready.comparator())
+        );
+        this.signatures = new HashSet<>(0);
+        this.stamp = "";
+        this.digest = "";
+    }
+
+    /**
+     * Queue of the file.
+     * @param path The file
+     * @return Queue
+     */
+    static ClaimsQueue of(final Path path) {
+        synchronized (ClaimsQueue.QUEUES) {
+            ClaimsQueue queue = ClaimsQueue.QUEUES.get(path);
+            if (queue == null) {
+                queue = new ClaimsQueue(path);
+                ClaimsQueue.QUEUES.put(path, queue);
+                if (ClaimsQueue.QUEUES.size() > ClaimsQueue.MAX) {
+                    final Iterator<Path> eldest =
+                        ClaimsQueue.QUEUES.keySet().iterator();
+                    eldest.next();
+                    eldest.remove();
+                }
+            }
+            return queue;
+        }
+    }
+
+    /**
+     * Claims, which are due, sorted by IDs.
+     * @param now Current time
+     * @return Claims
+     * @throws IOException If fails
+     */
+    synchronized Collection<XML> due(final String now) throws IOException {
+        this.promote(now);
+        final Collection<XML> due = new LinkedList<>();
+        for (final ClaimsQueue.Entry ent : this.ready) {
+            due.add(ent.xml);
+        }
+        return due;
+    }
+
+    /**
+     * How many claims are due.
+     * @param now Current time
+     * @return Total
+     * @throws IOException If fails
+     */
+    synchronized int size(final String now) throws IOException {
+        this.promote(now);
+        return this.ready.size();
+    }
+
+    /**
+     * Take first due claims and remove them, in one write.
+     * @param now Current time
+     * @param max Maximum number of claims to take
+     * @return Found claims, sorted by IDs (or empty)
+     * @throws IOException If fails
+     */
+    synchronized Collection<XML> take(final String now, final int max)
+        throws IOException {
+        this.promote(now);
+        final Collection<ClaimsQueue.Entry> taken = new LinkedList<>();
+        for (final ClaimsQueue.Entry ent : this.ready) {
+            if (taken.size() == max) {
+                break;
+            }
+            taken.add(ent);
+        }
+        this.drop(taken);
+        final Collection<XML> found = new LinkedList<>();
+        for (final ClaimsQueue.Entry ent : taken) {
+            found.add(ent.xml);
+        }
+        return found;
+    }
+
+    /**
+     * Remove claims, which are still in the queue, in one write.
+     * @param claims The claims
+     * @return How many of them were removed
+     * @throws IOException If fails
+     */
+    synchronized int remove(final Iterable<XML> claims) throws IOException {
+        this.sync();
+        final Collection<ClaimsQueue.Entry> found = new LinkedList<>();
+        for (final XML claim : claims) {
+            final ClaimsQueue.Entry ent = new ClaimsQueue.Entry(claim);
+            if (this.ready.contains(ent) || this.delayed.contains(ent)) {
+                found.add(ent);
+            }
+        }
+        this.drop(found);
+        return found.size();
+    }
+
+    /**
+     * Add new claims, unless any of them is already in the queue.
+     * @param dirs Directives of claims
+     * @return FALSE if nothing was added, since there are duplicates
+     * @throws IOException If fails
+     */
+    synchronized boolean add(final Iterable<Directive> dirs)
+        throws IOException {
+        this.sync();
+        final List<ClaimsQueue.Entry> entries = new LinkedList<>();
+        final Set<String> seen = new HashSet<>(this.signatures);
+        boolean unique = true;
+        for (final XML claim : new XMLDocument(
+            new Xembler(new Directives().add("claims").append(dirs))
+                .xmlQuietly()
+        ).nodes("/claims/claim")) {
+            final ClaimsQueue.Entry ent = new ClaimsQueue.Entry(claim);
+            unique &= seen.add(ent.signature);
+            entries.add(ent);
+        }
+        if (unique) {
+            new Xocument(this.file).modify(
+                new Directives().xpath("/claims").append(dirs)
+            );
+            for (final ClaimsQueue.Entry ent : entries) {
+                this.index(ent);
+            }
+            this.remember();
+        }
+        return unique;
+    }
+
+    /**
+     * Remove claims from the file and from the index, in one write.
+     * @param entries Claims, which are in the index
+     * @throws IOException If fails
+     */
+    private void drop(final Collection<ClaimsQueue.Entry> entries)
+        throws IOException {
+        if (!entries.isEmpty()) {
+            final Directives dirs = new Directives();
+            for (final ClaimsQueue.Entry ent : entries) {
+                dirs.xpath(
+                    String.format(
+                        "/claims/claim[@id='%d' and type='%s']",
+                        ent.cid, ent.type
+                    )
+                ).strict(1).remove();
+            }
+            new Xocument(this.file).modify(dirs);
+            for (final ClaimsQueue.Entry ent : entries) {
+                this.ready.remove(ent);
+                this.delayed.remove(ent);
+                this.signatures.remove(ent.signature);
+            }
+            this.remember();
+        }
+    }
+
+    /**
+     * Make claims due, if their time has come.
+     * @param now Current time
+     * @throws IOException If fails
+     */
+    private void promote(final String now) throws IOException {
+        this.sync();
+        while (!this.delayed.isEmpty()
+            && this.delayed.first().until.compareTo(now) < 0) {
+            final ClaimsQueue.Entry ent = this.delayed.first();
+            this.delayed.remove(ent);
+            this.ready.add(ent);
+        }
+    }
+
+    /**
+     * Build the index again, if the file doesn't match it.
+     * @throws IOException If fails
+     */
+    private void sync() throws IOException {
+        final String current = this.current();
+        if (!current.equals(this.stamp)) {
+            final String content = ClaimsQueue.digest(this.file);
+            if (!content.equals(this.digest)) {
+                this.ready.clear();
+                this.delayed.clear();
+                this.signatures.clear();
+                for (final XML claim
+                    : new Xocument(this.file).nodes("/claims/claim")) {
+                    this.index(new ClaimsQueue.Entry(claim));
+                }
+                this.digest = content;
+            }
+            this.stamp = current;
+        }
+    }
+
+    /**
+     * Remember the file, as it is now, as the one the index matches.
+     * @throws IOException If fails
+     */
+    private void remember() throws IOException {
+        this.stamp = this.current();
+        this.digest = ClaimsQueue.digest(this.file);
+    }
+
+    /**
+     * Put the claim into the index.
+     * @param ent The claim
+     */
+    private void index(final ClaimsQueue.Entry ent) {
+        if (ent.until.isEmpty()) {
+            this.ready.add(ent);
+        } else {
+            this.delayed.add(ent);
+        }
+        this.signatures.add(ent.signature);
+    }
+
+    /**
+     * Current stamp of the file.
+     * @return Identity, modification time and size of the file
+     * @throws IOException If fails
+     */
+    private String current() throws IOException {
+        final BasicFileAttributes attrs = Files.readAttributes(
+            this.file, BasicFileAttributes.class
+        );
+        return String.format(
+            "%s %d %d",
+            attrs.fileKey(),
+            attrs.lastModifiedTime().to(TimeUnit.NANOSECONDS),
+            attrs.size()
+        );
+    }
+
+    /**
+     * Digest of the content of the file.
+     * @param path The file
+     * @return Digest, in Base64
+     * @throws IOException If fails
+     */
+    private static String digest(final Path path) throws IOException {
+        try {
+            return Base64.getEncoder().encodeToString(
+                MessageDigest.getInstance("SHA-256").digest(
+                    Files.readAllBytes(path)
+                )
+            );
+        } catch (final NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Claim in the index.
+     */
+    private static final class Entry {
+        /**
+         * The claim.
+         */
+        private final XML xml;
+        /**
+         * ID of the claim.
+         */
+        private final long cid;
+        /**
+         * Type of the claim.
+         */
+        private final String type;
+        /**
+         * Time when it becomes due, or empty.
+         */
+        private final String until;
+        /**
+         * Type and params, which must be unique in the queue.
+         */
+        private final String signature;
+        /**
+         * Ctor.
+         * @param claim The claim
+         */
+        Entry(final XML claim) {
+            final ClaimIn cin = new ClaimIn(claim);
+            this.xml = claim;
+            this.cid = cin.cid();
+            this.type = cin.type();
+            this.until = String.join("", claim.xpath("until/text()"));
+            this.signature = String.format(
+                "%s;%s", this.type, cin.params()
+            );
+        }
+    }
+
+}
@@ -84,7 +84,10 @@ public final class Estimates {
     public Cash total() throws IOException {
         try (final Item wbs = this.item()) {
             return new Cash.S(
-                new Xocument(wbs.path()).xpath("/estimates/@total").get(0)
+                new Xocument(wbs.path()).fold(
+                    "/estimates", "",
+                    (total, estimates) -> estimates.get("@total")
+                )
             );
         }
     }
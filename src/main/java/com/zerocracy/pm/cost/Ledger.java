@@ -16,11 +16,17 @@
  */
 package com.zerocracy.pm.cost;
 
+import com.jcabi.xml.XML;
 import com.zerocracy.Item;
 import com.zerocracy.Project;
 import com.zerocracy.Xocument;
 import com.zerocracy.cash.Cash;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.cactoos.Func;
 import org.cactoos.Scalar;
 import org.cactoos.scalar.UncheckedScalar;
 import org.cactoos.time.DateAsText;
@@ -95,10 +101,31 @@ public final class Ledger {
      * @throws IOException If fails
      */
     public Cash cash() throws IOException {
-        return this.sum("assets", "dt")
-            .add(this.sum("assets", "ct").mul(-1L))
-            .add(this.sum("liabilities", "ct").mul(-1L))
-            .add(this.sum("liabilities", "dt"));
+        final Map<String, Cash> sums;
+        try (final Item item = this.item()) {
+            sums = new Xocument(item).fold(
+                "/ledger/balance/account",
+                new HashMap<String, Cash>(0),
+                (map, account) -> {
+                    for (final String col : new String[] {"dt", "ct"}) {
+                        if (account.containsKey(col)) {
+                            map.merge(
+                                String.format(
+                                    "%s/%s", account.get("name"), col
+                                ),
+                                new Cash.S(account.get(col)),
+                                Cash::add
+                            );
+                        }
+                    }
+                    return map;
+                }
+            );
+        }
+        return sums.getOrDefault("assets/dt", Cash.ZERO)
+            .add(sums.getOrDefault("assets/ct", Cash.ZERO).mul(-1L))
+            .add(sums.getOrDefault("liabilities/ct", Cash.ZERO).mul(-1L))
+            .add(sums.getOrDefault("liabilities/dt", Cash.ZERO));
     }
 
     /**
@@ -117,6 +144,8 @@ public final class Ledger {
                     xoc.xpath("max(//transaction/@id)").get(0)
                 );
             }
+            final List<Func<XML, Iterable<Directive>>> changes =
+                new ArrayList<>(tns.length * 2);
             for (int idx = 0; idx < tns.length; ++idx) {
                 final Directives dirs = new Directives()
                     .xpath("/ledger")
@@ -127,9 +156,11 @@ public final class Ledger {
                 if (idx > 0) {
                     dirs.attr("parent", before + 1L);
                 }
-                xoc.modify(dirs);
-                tns[idx].update(xoc);
+                final Ledger.Transaction txn = tns[idx];
+                changes.add(xml -> dirs.append(txn.debit(xml)));
+                changes.add(txn::credit);
             }
+            xoc.batch(changes);
             return before + 1L;
         }
     }
@@ -146,30 +177,6 @@ public final class Ledger {
         return this;
     }
 
-    /**
-     * Summarize balance lines.
-     * @param acc The account
-     * @param col The column (either "ct" or "dt")
-     * @return The sum
-     * @throws IOException If fails
-     */
-    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
-    private Cash sum(final String acc, final String col) throws IOException {
-        try (final Item item = this.item()) {
-            final Iterable<String> values = new Xocument(item).xpath(
-                String.format(
-                    "//balance/account[name='%s']/%s/text()",
-                    acc, col
-                )
-            );
-            Cash sum = Cash.ZERO;
-            for (final String val : values) {
-                sum = sum.add(new Cash.S(val));
-            }
-            return sum;
-        }
-    }
-
     /**
      * The item.
      * @return Item
@@ -241,56 +248,70 @@ public final class Ledger {
         }
 
         /**
-         * Update balance.
-         * @param xoc The document
+         * Update debit balance.
+         * @param xml The ledger
+         * @return Directives
          * @throws IOException If fails
          */
-        public void update(final Xocument xoc) throws IOException {
-            this.update(xoc, "dt", this.debit, this.debitx);
-            this.update(xoc, "ct", this.credit, this.creditx);
+        public Iterable<Directive> debit(final XML xml) throws IOException {
+            return this.update(
+                xml, "dt", this.debit, this.debitx
+            );
+        }
+
+        /**
+         * Update credit balance.
+         * @param xml The ledger
+         * @return Directives
+         * @throws IOException If fails
+         */
+        public Iterable<Directive> credit(final XML xml) throws IOException {
+            return this.update(
+                xml, "ct", this.credit, this.creditx
+            );
         }
 
         /**
          * Update balance.
-         * @param xoc The document
+         * @param xml The ledger
          * @param field Field either CT or DT
          * @param name Account name
          * @param namex Account xname
+         * @return Directives
          * @throws IOException If fails
          * @checkstyle ParameterNumberCheck (5 lines)
          */
-        public void update(final Xocument xoc, final String field,
-            final String name, final String namex) throws IOException {
+        private Iterable<Directive> update(final XML xml,
+            final String field, final String name, final String namex)
+            throws IOException {
             final String xpath = String.format(
                 "/ledger/balance/account[name='%s' and namex='%s']/%s",
                 name, namex, field
             );
             final Cash before;
-            if (xoc.nodes(xpath).isEmpty()) {
+            if (xml.nodes(xpath).isEmpty()) {
                 before = Cash.ZERO;
             } else {
                 before = new Cash.S(
-                    xoc.xpath(String.format("%s/text()", xpath)).get(0)
+                    xml.xpath(String.format("%s/text()", xpath)).get(0)
                 );
             }
-            xoc.modify(
-                new Directives()
-                    .xpath("/ledger")
-                    .addIf("balance")
-                    .xpath(
-                        String.format(
-                            // @checkstyle LineLength (1 line)
-                            "/ledger/balance[not(account[name='%s' and namex='%s'])]",
-                            name, namex
-                        )
+            return new Directives()
+                .xpath("/ledger")
+                .addIf("balance")
+                .xpath(
+                    String.format(
+                        // @checkstyle LineLength (1 line)
+                        "/ledger/balance[not(account[name='%s' and namex='%s'])]",
+                        name, namex
                     )
-                    .add("account")
-                    .add("name").set(name).up()
-                    .add("namex").set(namex).up()
-                    .add("ct").set(Cash.ZERO).up()
-                    .add("dt").set(Cash.ZERO).up()
-                    .xpath(xpath).set(before.add(this.amount))
-            );
+                )
+                .add("account")
+                .add("name").set(name).up()
+                .add("namex").set(namex).up()
+                .add("ct").set(Cash.ZERO).up()
+                .add("dt").set(Cash.ZERO).up()
+                .xpath(xpath).set(before.add(this.amount));
         }
 
     }
@@ -121,7 +121,7 @@ public final class Rates {
                 ).say(login)
             );
         }
-        try (final Item item = this.item()) {
+        try (final Item item = this.read()) {
             return new Cash.S(
                 new Xocument(item).xpath(
                     String.format("/rates/person[@id='%s']/rate/text()", login)
@@ -139,7 +139,7 @@ public final class Rates {
      * @throws IOException If fails
      */
     public boolean exists(final String login) throws IOException {
-        try (final Item item = this.item()) {
+        try (final Item item = this.read()) {
             return !new Xocument(item).nodes(
                 String.format("/rates/person[@id='%s']/rate", login)
             ).isEmpty();
@@ -154,4 +154,13 @@ public final class Rates {
     private Item item() throws IOException {
         return this.project.acq("rates.xml");
     }
+
+    /**
+     * The item, only for reading.
+     * @return Item
+     * @throws IOException If fails
+     */
+    private Item read() throws IOException {
+        return this.project.read("rates.xml");
+    }
 }
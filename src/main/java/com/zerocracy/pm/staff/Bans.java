@@ -66,7 +66,7 @@ public final class Bans {
      * @throws IOException If fails
      */
     public List<String> reasons(final String job) throws IOException {
-        try (final Item item = this.item()) {
+        try (final Item item = this.read()) {
             return new Mapped<>(
                 node -> new Par("@%s: %s").say(
                     node.xpath("login/text()").get(0),
@@ -91,7 +91,7 @@ public final class Bans {
      */
     public List<String> reasons(final String job, final String login)
         throws IOException {
-        try (final Item item = this.item()) {
+        try (final Item item = this.read()) {
             return new Xocument(item).xpath(
                 String.format(
                     "/bans/ban[@job='%s' and login/text()='%s']/reason/text()",
@@ -134,7 +134,7 @@ public final class Bans {
      */
     public boolean exists(final String job, final String login)
         throws IOException {
-        try (final Item item = this.item()) {
+        try (final Item item = this.read()) {
             return !new Xocument(item).nodes(
                 String.format(
                     "/bans/ban[@job = '%s' and login/text() = '%s']",
@@ -153,4 +153,13 @@ public final class Bans {
     private Item item() throws IOException {
         return this.project.acq("bans.xml");
     }
+
+    /**
+     * The item, only for reading.
+     * @return Item
+     * @throws IOException If fails
+     */
+    private Item read() throws IOException {
+        return this.project.read("bans.xml");
+    }
 }
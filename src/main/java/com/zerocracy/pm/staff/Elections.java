@@ -16,23 +16,21 @@
  */
 package com.zerocracy.pm.staff;
 
+import com.jcabi.xml.XML;
 import com.jcabi.xml.XMLDocument;
 import com.jcabi.xml.XSL;
 import com.jcabi.xml.XSLDocument;
 import com.zerocracy.Item;
 import com.zerocracy.Project;
 import com.zerocracy.Xocument;
-import com.zerocracy.farm.fake.FkItem;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
-import org.cactoos.io.LengthOf;
-import org.cactoos.io.TeeInput;
 import org.cactoos.time.DateAsText;
 import org.cactoos.time.DateOf;
+import org.w3c.dom.Node;
 import org.xembly.Directives;
+import org.xembly.Xembler;
 
 /**
  * Elections.
@@ -151,26 +149,14 @@ public final class Elections {
             dirs.up();
         }
         try (final Item item = this.item()) {
-            final Path path = item.path();
-            final Path temp = Files.createTempFile("elections", ".xml");
-            new LengthOf(new TeeInput(path, temp)).intValue();
-            final Project pkt = file -> new FkItem(temp);
-            new Xocument(temp).modify(dirs);
-            boolean modified = true;
-            if (new Elections(pkt).state(job).equals(this.state(job))) {
-                new Xocument(temp).modify(
-                    new Directives().xpath(
-                        String.format(
-                            // @checkstyle LineLength (1 line)
-                            "/elections/job[@id='%s']/election[@date='%s'][last()]",
-                            job, date
-                        )
-                    ).remove()
-                );
-                modified = false;
-            }
+            final XML before = new XMLDocument(item.path().toFile());
+            final Node after = before.node();
+            new Xembler(dirs).applyQuietly(after);
+            final boolean modified = !Elections.state(before, job).equals(
+                Elections.state(new XMLDocument(after), job)
+            );
             if (modified) {
-                new LengthOf(new TeeInput(temp, path)).intValue();
+                new Xocument(item).modify(dirs);
             }
             return modified;
         }
@@ -281,15 +267,27 @@ public final class Elections {
 
     /**
      * Current state with this job.
+     * @param xml Elections
      * @param job The job
      * @return State, encrypted
-     * @throws IOException If fails
      */
-    private String state(final String job) throws IOException {
+    private static String state(final XML xml, final String job) {
         final StringBuilder state = new StringBuilder(0);
-        state.append(this.exists(job)).append(' ').append(this.elected(job));
-        if (this.elected(job)) {
-            state.append(' ').append(this.winner(job));
+        final List<XML> last = xml.nodes(
+            String.format("/elections/job[@id='%s']/election[last()]", job)
+        );
+        state.append(!last.isEmpty());
+        if (last.isEmpty()) {
+            state.append(' ').append(false);
+        } else {
+            final XML summary = Elections.STYLESHEET.transform(last.get(0));
+            final boolean elected = !summary.nodes("/summary/winner").isEmpty();
+            state.append(' ').append(elected);
+            if (elected) {
+                state.append(' ').append(
+                    summary.xpath("/summary/winner/text()").get(0)
+                );
+            }
         }
         return state.toString();
     }
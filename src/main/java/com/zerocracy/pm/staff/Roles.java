@@ -78,7 +78,7 @@ public final class Roles {
      * @throws IOException If fails
      */
     public boolean isEmpty() throws IOException {
-        try (final Item roles = this.item()) {
+        try (final Item roles = this.read()) {
             return new Xocument(roles).nodes("/roles/person").isEmpty();
         }
     }
@@ -89,7 +89,7 @@ public final class Roles {
      * @throws IOException If fails
      */
     public Collection<String> everybody() throws IOException {
-        try (final Item roles = this.item()) {
+        try (final Item roles = this.read()) {
             return new Xocument(roles).xpath(
                 "/roles/person/@id"
             );
@@ -230,7 +230,7 @@ public final class Roles {
      * @throws IOException If fails
      */
     public boolean hasAnyRole(final String person) throws IOException {
-        try (final Item roles = this.item()) {
+        try (final Item roles = this.read()) {
             return new Xocument(roles).nodes(
                 String.format(
                     "/roles/person[@id = '%s']",
@@ -254,7 +254,7 @@ public final class Roles {
                 "The list of roles can't be empty, use hasAnyRoles() instead"
             );
         }
-        try (final Item roles = this.item()) {
+        try (final Item roles = this.read()) {
             return new Xocument(roles).nodes(
                 String.format(
                     "/roles/person[@id='%s' and (%s)]",
@@ -278,7 +278,7 @@ public final class Roles {
      * @throws IOException If fails
      */
     public List<String> findByRole(final String role) throws IOException {
-        try (final Item roles = this.item()) {
+        try (final Item roles = this.read()) {
             return new Xocument(roles).xpath(
                 String.format(
                     "/roles/person[role='%s']/@id",
@@ -295,7 +295,7 @@ public final class Roles {
      * @throws IOException If fails
      */
     public Collection<String> allRoles(final String login) throws IOException {
-        try (final Item roles = this.item()) {
+        try (final Item roles = this.read()) {
             return new Xocument(roles).xpath(
                 String.format(
                     "/roles/person[@id='%s']/role/text()",
@@ -314,4 +314,13 @@ public final class Roles {
         return this.project.acq("roles.xml");
     }
 
+    /**
+     * The item, only for reading.
+     * @return Item
+     * @throws IOException If fails
+     */
+    private Item read() throws IOException {
+        return this.project.read("roles.xml");
+    }
+
 }
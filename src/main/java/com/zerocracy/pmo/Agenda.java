@@ -91,7 +91,7 @@ public final class Agenda {
      * @throws IOException If fails
      */
     public Collection<String> jobs() throws IOException {
-        try (final Item item = this.item()) {
+        try (final Item item = this.read()) {
             return new Xocument(item.path()).xpath(
                 "/agenda/order/@job"
             );
@@ -105,7 +105,7 @@ public final class Agenda {
      * @throws IOException If fails
      */
     public boolean exists(final String job) throws IOException {
-        try (final Item item = this.item()) {
+        try (final Item item = this.read()) {
             return !new Xocument(item.path()).nodes(
                 String.format("/agenda/order[@job= '%s']", job)
             ).isEmpty();
@@ -242,4 +242,15 @@ public final class Agenda {
         );
     }
 
+    /**
+     * The item, only for reading.
+     * @return Item
+     * @throws IOException If fails
+     */
+    private Item read() throws IOException {
+        return this.pmo.read(
+            String.format("agenda/%s.xml", this.login)
+        );
+    }
+
 }
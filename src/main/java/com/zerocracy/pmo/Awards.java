@@ -161,11 +161,10 @@ public final class Awards {
      * @throws IOException If fails
      */
     public int total() throws IOException {
-        try (final Item item = this.item()) {
-            return Integer.parseInt(
-                new Xocument(item.path()).xpath(
-                    "sum(/awards/award/points/text())"
-                ).get(0)
+        try (final Item item = this.read()) {
+            return new Xocument(item.path()).fold(
+                "/awards/award", 0,
+                (sum, award) -> sum + Integer.parseInt(award.get("points"))
             );
         }
     }
@@ -181,4 +180,15 @@ public final class Awards {
         );
     }
 
+    /**
+     * The item, only for reading.
+     * @return Item
+     * @throws IOException If fails
+     */
+    private Item read() throws IOException {
+        return this.pmo.read(
+            String.format("awards/%s.xml", this.login)
+        );
+    }
+
 }
@@ -29,6 +29,8 @@ import java.util.Iterator;
 import org.cactoos.collection.CollectionOf;
 import org.cactoos.iterable.Mapped;
 import org.cactoos.list.SolidList;
+import org.cactoos.map.MapEntry;
+import org.cactoos.map.MapOf;
 import org.cactoos.time.DateAsText;
 import org.xembly.Directives;
 
@@ -149,10 +151,11 @@ public final class Catalog {
      * @throws IOException If fails
      */
     public boolean exists(final String pid) throws IOException {
-        try (final Item item = this.item()) {
-            return !new Xocument(item).nodes(
-                String.format("//project[@id  ='%s']", pid)
-            ).isEmpty();
+        try (final Item item = this.read()) {
+            return new Xocument(item).number(
+                "count(/catalog/project[@id=$pid])",
+                new MapOf<String, Object>(new MapEntry<>("pid", pid))
+            ) > 0.0d;
         }
     }
 
@@ -168,7 +171,7 @@ public final class Catalog {
         if (!term.isEmpty()) {
             term = String.format("[%s]", term);
         }
-        try (final Item item = this.item()) {
+        try (final Item item = this.read()) {
             return new Xocument(item).xpath(
                 String.format("//project%s/prefix/text()", term)
             );
@@ -187,13 +190,11 @@ public final class Catalog {
                 new Par("Project %s doesn't exist").say(pid)
             );
         }
-        try (final Item item = this.item()) {
+        try (final Item item = this.read()) {
             return !Boolean.parseBoolean(
                 new Xocument(item.path()).xpath(
-                    String.format(
-                        "/catalog/project[@id='%s']/alive/text()",
-                        pid
-                    )
+                    "/catalog/project[@id=$pid]/alive/text()",
+                    new MapOf<String, Object>(new MapEntry<>("pid", pid))
                 ).get(0)
             );
         }
@@ -235,9 +236,10 @@ public final class Catalog {
                 ).say(pid)
             );
         }
-        try (final Item item = this.item()) {
+        try (final Item item = this.read()) {
             final Iterator<String> fees = new Xocument(item.path()).xpath(
-                String.format("/catalog/project[@id='%s']/fee/text()", pid)
+                "/catalog/project[@id=$pid]/fee/text()",
+                new MapOf<String, Object>(new MapEntry<>("pid", pid))
             ).iterator();
             final Cash fee;
             if (fees.hasNext()) {
@@ -318,13 +320,11 @@ public final class Catalog {
                 ).say(pid)
             );
         }
-        try (final Item item = this.item()) {
+        try (final Item item = this.read()) {
             return Boolean.parseBoolean(
                 new Xocument(item).xpath(
-                    String.format(
-                        "/catalog/project[@id='%s']/publish/text()",
-                        pid
-                    )
+                    "/catalog/project[@id=$pid]/publish/text()",
+                    new MapOf<String, Object>(new MapEntry<>("pid", pid))
                 ).get(0)
             );
         }
@@ -420,7 +420,7 @@ public final class Catalog {
                 ).say(pid)
             );
         }
-        try (final Item item = this.item()) {
+        try (final Item item = this.read()) {
             return new SolidList<>(
                 new Mapped<>(
                     xml -> String.format(
@@ -455,11 +455,12 @@ public final class Catalog {
                 ).say(pid)
             );
         }
-        try (final Item item = this.item()) {
+        try (final Item item = this.read()) {
             return new Xocument(item).xpath(
-                String.format(
-                    "/catalog/project[@id='%s']/links/link[@rel='%s']/@href",
-                    pid, rel
+                "/catalog/project[@id=$pid]/links/link[@rel=$rel]/@href",
+                new MapOf<String, Object>(
+                    new MapEntry<>("pid", pid),
+                    new MapEntry<>("rel", rel)
                 )
             );
         }
@@ -482,14 +483,16 @@ public final class Catalog {
                 ).say(pid)
             );
         }
-        try (final Item item = this.item()) {
-            return !new Xocument(item.path()).nodes(
-                String.format(
-                    // @checkstyle LineLength (1 line)
-                    "/catalog/project[@id='%s' and links/link[@rel='%s' and @href='%s']]",
-                    pid, rel, href
+        try (final Item item = this.read()) {
+            return new Xocument(item.path()).number(
+                // @checkstyle LineLength (1 line)
+                "count(/catalog/project[@id=$pid and links/link[@rel=$rel and @href=$href]])",
+                new MapOf<String, Object>(
+                    new MapEntry<>("pid", pid),
+                    new MapEntry<>("rel", rel),
+                    new MapEntry<>("href", href)
                 )
-            ).isEmpty();
+            ) > 0.0d;
         }
     }
 
@@ -502,13 +505,14 @@ public final class Catalog {
      */
     public boolean linkExists(final String rel, final String href)
         throws IOException {
-        try (final Item item = this.item()) {
-            return !new Xocument(item.path()).nodes(
-                String.format(
-                    "/catalog/project/links/link[@rel='%s' and @href='%s']",
-                    rel, href
+        try (final Item item = this.read()) {
+            return new Xocument(item.path()).number(
+                "count(/catalog/project/links/link[@rel=$rel and @href=$href])",
+                new MapOf<String, Object>(
+                    new MapEntry<>("rel", rel),
+                    new MapEntry<>("href", href)
                 )
-            ).isEmpty();
+            ) > 0.0d;
         }
     }
 
@@ -578,19 +582,12 @@ public final class Catalog {
                 ).say(pid)
             );
         }
-        try (final Item item = this.item()) {
-            final Iterator<String> items = new Xocument(item.path())
-                .xpath(
-                    String.format(
-                        "/catalog/project[@id = '%s']/title/text()",
-                        pid
-                    )
-                ).iterator();
-            String title = pid;
-            if (items.hasNext()) {
-                title = items.next();
-            }
-            return title;
+        try (final Item item = this.read()) {
+            return new Xocument(item.path()).xpath(
+                "/catalog/project[@id=$pid]/title/text()",
+                new MapOf<String, Object>(new MapEntry<>("pid", pid)),
+                pid
+            );
         }
     }
 
@@ -608,12 +605,10 @@ public final class Catalog {
                 ).say(pid)
             );
         }
-        try (final Item item = this.item()) {
+        try (final Item item = this.read()) {
             return new Xocument(item.path()).xpath(
-                String.format(
-                    "/catalog/project[@id = '%s']/adviser/text()",
-                    pid
-                )
+                "/catalog/project[@id=$pid]/adviser/text()",
+                new MapOf<String, Object>(new MapEntry<>("pid", pid))
             ).get(0);
         }
     }
@@ -654,4 +649,13 @@ public final class Catalog {
         return this.pmo.acq("catalog.xml");
     }
 
+    /**
+     * The item, only for reading.
+     * @return Item
+     * @throws IOException If fails
+     */
+    private Item read() throws IOException {
+        return this.pmo.read("catalog.xml");
+    }
+
 }
@@ -30,6 +30,8 @@ import java.io.IOException;
 import java.util.Iterator;
 import org.cactoos.iterable.ItemAt;
 import org.cactoos.iterable.Mapped;
+import org.cactoos.map.MapEntry;
+import org.cactoos.map.MapOf;
 import org.cactoos.scalar.NumberOf;
 import org.cactoos.scalar.UncheckedScalar;
 import org.cactoos.time.DateAsText;
@@ -94,7 +96,7 @@ public final class People {
      * @throws IOException If fails
      */
     public Iterable<String> iterate() throws IOException {
-        try (final Item item = this.item()) {
+        try (final Item item = this.read()) {
             return new Xocument(item.path()).xpath(
                 "/people/person/@id"
             );
@@ -189,20 +191,12 @@ public final class People {
      * @throws IOException If fails
      */
     public String details(final String uid) throws IOException {
-        try (final Item item = this.item()) {
-            final Iterator<String> items = new Xocument(item.path()).xpath(
-                String.format(
-                    "/people/person[@id='%s']/details/text()",
-                    uid
-                )
-            ).iterator();
-            final String text;
-            if (items.hasNext()) {
-                text = items.next();
-            } else {
-                text = "";
-            }
-            return text;
+        try (final Item item = this.read()) {
+            return new Xocument(item.path()).xpath(
+                "/people/person[@id=$uid]/details/text()",
+                new MapOf<String, Object>(new MapEntry<>("uid", uid)),
+                ""
+            );
         }
     }
 
@@ -257,13 +251,11 @@ public final class People {
      * @throws IOException If fails
      */
     public boolean hasMentor(final String uid) throws IOException {
-        try (final Item item = this.item()) {
-            return !new Xocument(item.path()).nodes(
-                String.format(
-                    "/people/person[@id='%s']/mentor",
-                    uid
-                )
-            ).isEmpty();
+        try (final Item item = this.read()) {
+            return new Xocument(item.path()).number(
+                "count(/people/person[@id=$uid]/mentor)",
+                new MapOf<String, Object>(new MapEntry<>("uid", uid))
+            ) > 0.0d;
         }
     }
 
@@ -274,12 +266,10 @@ public final class People {
      * @throws IOException If fails
      */
     public String mentor(final String uid) throws IOException {
-        try (final Item item = this.item()) {
+        try (final Item item = this.read()) {
             return new Xocument(item.path()).xpath(
-                String.format(
-                    "/people/person[@id='%s']/mentor/text()",
-                    uid
-                )
+                "/people/person[@id=$uid]/mentor/text()",
+                new MapOf<String, Object>(new MapEntry<>("uid", uid))
             ).get(0);
         }
     }
@@ -348,7 +338,7 @@ public final class People {
      * @throws IOException If fails
      */
     public Cash rate(final String uid) throws IOException {
-        try (final Item item = this.item()) {
+        try (final Item item = this.read()) {
             final Iterator<XML> rates = new Xocument(item.path()).nodes(
                 String.format(
                     "/people/person[@id='%s']/rate",
@@ -432,20 +422,12 @@ public final class People {
      * @throws IOException If fails
      */
     public String wallet(final String uid) throws IOException {
-        try (final Item item = this.item()) {
-            final Iterator<String> wallet = new Xocument(item.path()).xpath(
-                String.format(
-                    "/people/person[@id='%s']/wallet/text()",
-                    uid
-                )
-            ).iterator();
-            final String value;
-            if (wallet.hasNext()) {
-                value = wallet.next();
-            } else {
-                value = "";
-            }
-            return value;
+        try (final Item item = this.read()) {
+            return new Xocument(item.path()).xpath(
+                "/people/person[@id=$uid]/wallet/text()",
+                new MapOf<String, Object>(new MapEntry<>("uid", uid)),
+                ""
+            );
         }
     }
 
@@ -456,20 +438,12 @@ public final class People {
      * @throws IOException If fails
      */
     public String bank(final String uid) throws IOException {
-        try (final Item item = this.item()) {
-            final Iterator<String> banks = new Xocument(item.path()).xpath(
-                String.format(
-                    "/people/person[@id='%s']/wallet/@bank",
-                    uid
-                )
-            ).iterator();
-            final String value;
-            if (banks.hasNext()) {
-                value = banks.next();
-            } else {
-                value = "";
-            }
-            return value;
+        try (final Item item = this.read()) {
+            return new Xocument(item.path()).xpath(
+                "/people/person[@id=$uid]/wallet/@bank",
+                new MapOf<String, Object>(new MapEntry<>("uid", uid)),
+                ""
+            );
         }
     }
 
@@ -506,11 +480,12 @@ public final class People {
      */
     public Iterable<String> find(final String rel,
         final String alias) throws IOException {
-        try (final Item item = this.item()) {
+        try (final Item item = this.read()) {
             return new Xocument(item).xpath(
-                String.format(
-                    "/people/person[links/link[@rel='%s' and @href='%s']]/@id",
-                    rel, alias
+                "/people/person[links/link[@rel=$rel and @href=$alias]]/@id",
+                new MapOf<String, Object>(
+                    new MapEntry<>("rel", rel),
+                    new MapEntry<>("alias", alias)
                 )
             );
         }
@@ -523,7 +498,7 @@ public final class People {
      * @throws IOException If fails
      */
     public Iterable<String> links(final String uid) throws IOException {
-        try (final Item item = this.item()) {
+        try (final Item item = this.read()) {
             return new Mapped<>(
                 xml -> String.format(
                     "%s:%s",
@@ -549,11 +524,12 @@ public final class People {
      */
     public Iterable<String> links(final String uid, final String rel)
         throws IOException {
-        try (final Item item = this.item()) {
+        try (final Item item = this.read()) {
             return new Xocument(item).xpath(
-                String.format(
-                    "/people/person[@id='%s']/links/link[@rel='%s']/@href",
-                    uid, rel
+                "/people/person[@id=$uid]/links/link[@rel=$rel]/@href",
+                new MapOf<String, Object>(
+                    new MapEntry<>("uid", uid),
+                    new MapEntry<>("rel", rel)
                 )
             );
         }
@@ -608,16 +584,16 @@ public final class People {
      * @throws IOException If fails
      */
     public boolean vacation(final String uid) throws IOException {
-        try (final Item item = this.item()) {
+        try (final Item item = this.read()) {
             return new UncheckedScalar<>(
                 new ItemAt<>(
                     false,
                     new Mapped<>(
                         Boolean::parseBoolean,
                         new Xocument(item).xpath(
-                            String.format(
-                                "/people/person[@id='%s']/vacation/text()",
-                                uid
+                            "/people/person[@id=$uid]/vacation/text()",
+                            new MapOf<String, Object>(
+                                new MapEntry<>("uid", uid)
                             )
                         )
                     )
@@ -633,12 +609,10 @@ public final class People {
      * @throws IOException If fails
      */
     public Iterable<String> students(final String uid) throws IOException {
-        try (final Item item = this.item()) {
+        try (final Item item = this.read()) {
             return new Xocument(item.path()).xpath(
-                String.format(
-                    "/people/person[mentor/text()='%s']/@id",
-                    uid
-                )
+                "/people/person[mentor/text()=$uid]/@id",
+                new MapOf<String, Object>(new MapEntry<>("uid", uid))
             );
         }
     }
@@ -680,13 +654,11 @@ public final class People {
                 new Par("Person @%s doesn't exist").say(uid)
             );
         }
-        try (final Item item = this.item()) {
+        try (final Item item = this.read()) {
             return new NumberOf(
                 new Xocument(item.path()).xpath(
-                    String.format(
-                        "/people/person[@id='%s']/reputation/text()",
-                        uid
-                    ),
+                    "/people/person[@id=$uid]/reputation/text()",
+                    new MapOf<String, Object>(new MapEntry<>("uid", uid)),
                     "0"
                 )
             ).intValue();
@@ -700,10 +672,11 @@ public final class People {
      * @throws IOException If fails
      */
     public boolean exists(final String pid) throws IOException {
-        try (final Item item = this.item()) {
-            return !new Xocument(item).nodes(
-                String.format("//people/person[@id  ='%s']", pid)
-            ).isEmpty();
+        try (final Item item = this.read()) {
+            return new Xocument(item).number(
+                "count(/people/person[@id=$uid])",
+                new MapOf<String, Object>(new MapEntry<>("uid", pid))
+            ) > 0.0d;
         }
     }
 
@@ -716,6 +689,15 @@ public final class People {
         return this.pmo.acq("people.xml");
     }
 
+    /**
+     * The item, only for reading.
+     * @return Item
+     * @throws IOException If fails
+     */
+    private Item read() throws IOException {
+        return this.pmo.read("people.xml");
+    }
+
     /**
      * Start directives, to make sure this user is in XML.
      * @param uid User ID
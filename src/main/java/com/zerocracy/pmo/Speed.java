@@ -21,9 +21,6 @@ import com.zerocracy.Item;
 import com.zerocracy.Project;
 import com.zerocracy.Xocument;
 import java.io.IOException;
-import org.cactoos.collection.Mapped;
-import org.cactoos.iterable.ItemAt;
-import org.cactoos.scalar.IoCheckedScalar;
 import org.xembly.Directives;
 
 /**
@@ -107,17 +104,20 @@ public final class Speed {
      * @throws IOException If fails
      */
     public double avg() throws IOException {
-        try (final Item item = this.item()) {
-            return new IoCheckedScalar<>(
-                new ItemAt<>(
-                    0.0,
-                    new Mapped<>(
-                        Double::parseDouble,
-                        new Xocument(item.path())
-                            .xpath("avg(/speed/order/minutes)")
-                    )
-                )
-            ).value();
+        try (final Item item = this.read()) {
+            final double[] stats = new Xocument(item.path()).fold(
+                "/speed/order", new double[2],
+                (sums, order) -> {
+                    sums[0] += Double.parseDouble(order.get("minutes"));
+                    sums[1] += 1.0;
+                    return sums;
+                }
+            );
+            double avg = 0.0;
+            if (stats[1] > 0.0) {
+                avg = stats[0] / stats[1];
+            }
+            return avg;
         }
     }
 
@@ -127,7 +127,7 @@ public final class Speed {
      * @throws IOException If fails
      */
     public boolean isEmpty() throws IOException {
-        try (final Item item = this.item()) {
+        try (final Item item = this.read()) {
             return new Xocument(item.path()).nodes("/speed/order").isEmpty();
         }
     }
@@ -138,7 +138,7 @@ public final class Speed {
      * @throws IOException If fails
      */
     public Iterable<String> jobs() throws IOException {
-        try (final Item item = this.item()) {
+        try (final Item item = this.read()) {
             return new Xocument(item.path()).xpath(
                 "/speed/order/@job"
             );
@@ -155,4 +155,15 @@ public final class Speed {
             String.format("speed/%s.xml", this.login)
         );
     }
+
+    /**
+     * The item, only for reading.
+     * @return Item
+     * @throws IOException If fails
+     */
+    private Item read() throws IOException {
+        return this.pmo.read(
+            String.format("speed/%s.xml", this.login)
+        );
+    }
 }
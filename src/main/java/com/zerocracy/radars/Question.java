@@ -18,8 +18,6 @@ package com.zerocracy.radars;
 
 import com.jcabi.xml.StrictXML;
 import com.jcabi.xml.XML;
-import com.jcabi.xml.XSD;
-import com.jcabi.xml.XSDDocument;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -29,9 +27,13 @@ import java.util.Map;
 import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
+import javax.xml.XMLConstants;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
 import org.cactoos.iterable.Mapped;
 import org.cactoos.iterable.Sorted;
 import org.cactoos.list.SolidList;
+import org.cactoos.scalar.UncheckedScalar;
 
 /**
  * Question in text.
@@ -43,11 +45,13 @@ import org.cactoos.list.SolidList;
 public final class Question {
 
     /**
-     * Schema.
+     * Schema, compiled once.
      */
-    private static final XSD SCHEMA = XSDDocument.make(
-        Question.class.getResource("question.xsd")
-    );
+    private static final Schema SCHEMA = new UncheckedScalar<>(
+        () -> SchemaFactory.newInstance(
+            XMLConstants.W3C_XML_SCHEMA_NS_URI
+        ).newSchema(Question.class.getResource("question.xsd"))
+    ).value();
 
     /**
      * XML config.
@@ -80,7 +84,7 @@ public final class Question {
      * @param txt Text
      */
     public Question(final XML xml, final String txt) {
-        this.config = new StrictXML(xml, Question.SCHEMA);
+        this.config = new StrictXML(xml, Question.SCHEMA.newValidator());
         this.text = txt;
         this.rcode = new AtomicReference<>();
         this.rhelp = new AtomicReference<>();
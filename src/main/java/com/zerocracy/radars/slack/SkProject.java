@@ -75,4 +75,9 @@ public final class SkProject implements Project {
         return new IoCheckedScalar<>(this.pkt).value().acq(file);
     }
 
+    @Override
+    public Item read(final String file) throws IOException {
+        return new IoCheckedScalar<>(this.pkt).value().read(file);
+    }
+
 }
@@ -73,7 +73,7 @@ public final class TkBoard implements Take {
             () -> {
                 final String user = new RqUser(this.farm, req, false).value();
                 final Collection<XeSource> sources = new LinkedList<>();
-                try (final Item item = new Pmo(this.farm).acq("catalog.xml")) {
+                try (final Item item = new Pmo(this.farm).read("catalog.xml")) {
                     new And(
                         new FuncOf<>(
                             input -> sources.add(this.source(input, user)),
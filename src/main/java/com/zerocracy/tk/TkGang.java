@@ -71,7 +71,7 @@ public final class TkGang implements Take {
             () -> {
                 new RqUser(this.farm, req, false).value();
                 final Collection<XeSource> sources = new LinkedList<>();
-                try (final Item item = new Pmo(this.farm).acq("people.xml")) {
+                try (final Item item = new Pmo(this.farm).read("people.xml")) {
                     new And(
                         new FuncOf<>(
                             input -> sources.add(this.source(input)),
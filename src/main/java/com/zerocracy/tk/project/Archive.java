@@ -0,0 +1,268 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.tk.project;
+
+import com.zerocracy.Item;
+import com.zerocracy.Project;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.cactoos.Proc;
+import org.cactoos.func.IoCheckedProc;
+
+/**
+ * Zip archive of project artifacts.
+ *
+ * <p>The archive is produced by the thread which reads its
+ * {@link #stream(Proc)}, piece by piece, while it is being read.
+ * Each artifact is copied out of the project into a temporary file
+ * right before it is zipped, so the project is not locked while the
+ * client is downloading. The file is deleted as soon as it is opened.
+ * Only one chunk of the archive is kept in memory, no matter how big
+ * the project is. When the reader stops reading, for example when
+ * the client goes away, nothing is left running and no files stay
+ * on disk.</p>
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ */
+final class Archive {
+
+    /**
+     * Size of a chunk to copy at once.
+     */
+    private static final int CHUNK = 1 << 16;
+
+    /**
+     * The project.
+     */
+    private final Project project;
+
+    /**
+     * Artifacts to archive.
+     */
+    private final Iterable<String> artifacts;
+
+    /**
+     * Ctor.
+     * @param pkt Project
+     * @param names Artifacts to archive
+     */
+    Archive(final Project pkt, final Iterable<String> names) {
+        this.project = pkt;
+        this.artifacts = names;
+    }
+
+    /**
+     * Stream of the archive.
+     * @param done What to do, with the number of archived artifacts,
+     *  when the archive is read to the end
+     * @return Stream, which builds the archive while it is being read
+     */
+    public InputStream stream(final Proc<Integer> done) {
+        return new Archive.Zipped(
+            this.project, this.artifacts.iterator(), done
+        );
+    }
+
+    /**
+     * Write the archive.
+     * @param output Where to write it
+     * @throws IOException If fails
+     */
+    public void writeTo(final OutputStream output) throws IOException {
+        try (final InputStream input = this.stream(total -> { })) {
+            final byte[] buf = new byte[Archive.CHUNK];
+            while (true) {
+                final int len = input.read(buf);
+                if (len < 0) {
+                    break;
+                }
+                output.write(buf, 0, len);
+            }
+        }
+    }
+
+    /**
+     * Zip, built while it is being read.
+     */
+    private static final class Zipped extends InputStream {
+        /**
+         * The project.
+         */
+        private final Project project;
+        /**
+         * Artifacts, which are not archived yet.
+         */
+        private final Iterator<String> names;
+        /**
+         * What to do when the archive is read.
+         */
+        private final IoCheckedProc<Integer> done;
+        /**
+         * Bytes written by the zip, not taken yet.
+         */
+        private final ByteArrayOutputStream buffer;
+        /**
+         * The zip.
+         */
+        private final ZipOutputStream zip;
+        /**
+         * Chunk of an artifact.
+         */
+        private final byte[] chunk;
+        /**
+         * Artifact being zipped now, or NULL.
+         */
+        private InputStream entry;
+        /**
+         * Bytes of the zip ready to be read.
+         */
+        private byte[] ready;
+        /**
+         * Position in the ready bytes.
+         */
+        private int pos;
+        /**
+         * How many artifacts are archived.
+         */
+        private int total;
+        /**
+         * The zip is finished?
+         */
+        private boolean finished;
+        /**
+         * The end of the archive was reported?
+         */
+        private boolean reported;
+        /**
+         * Ctor.
+         * @param pkt Project
+         * @param artifacts Artifacts to archive
+         * @param proc What to do when the archive is read
+         */
+        Zipped(final Project pkt, final Iterator<String> artifacts,
+            final Proc<Integer> proc) {
+            super();
+            this.project = pkt;
+            this.names = artifacts;
+            this.done = new IoCheckedProc<>(proc);
+            this.buffer = new ByteArrayOutputStream();
+            this.zip = new ZipOutputStream(this.buffer);
+            this.chunk = new byte[Archive.CHUNK];
+            this.ready = new byte[0];
+        }
+        @Override
+        public int read() throws IOException {
+            final byte[] one = new byte[1];
+            int read = this.read(one, 0, 1);
+            if (read > 0) {
+                read = one[0] & 0xff;
+            }
+            return read;
+        }
+        @Override
+        public int read(final byte[] buf, final int off, final int len)
+            throws IOException {
+            boolean more = true;
+            while (this.pos == this.ready.length && more) {
+                more = this.step();
+            }
+            final int read;
+            if (this.pos == this.ready.length) {
+                read = -1;
+                if (!this.reported) {
+                    this.reported = true;
+                    this.done.exec(this.total);
+                }
+            } else {
+                read = Math.min(len, this.ready.length - this.pos);
+                System.arraycopy(this.ready, this.pos, buf, off, read);
+                this.pos += read;
+            }
+            return read;
+        }
+        @Override
+        public void close() throws IOException {
+            if (this.entry != null) {
+                this.entry.close();
+                this.entry = null;
+            }
+            this.finished = true;
+        }
+        /**
+         * Write the next piece of the zip.
+         * @return FALSE if there is nothing more to write
+         * @throws IOException If fails
+         */
+        private boolean step() throws IOException {
+            boolean more = true;
+            if (this.entry != null) {
+                final int len = this.entry.read(this.chunk);
+                if (len < 0) {
+                    this.entry.close();
+                    this.entry = null;
+                    this.zip.closeEntry();
+                } else {
+                    this.zip.write(this.chunk, 0, len);
+                }
+            } else if (this.finished) {
+                more = false;
+            } else if (this.names.hasNext()) {
+                final String name = this.names.next();
+                this.entry = this.copy(name);
+                this.zip.putNextEntry(new ZipEntry(name));
+                ++this.total;
+            } else {
+                this.zip.finish();
+                this.finished = true;
+            }
+            this.ready = this.buffer.toByteArray();
+            this.buffer.reset();
+            this.pos = 0;
+            return more;
+        }
+        /**
+         * Copy the artifact out of the project.
+         * @param name The artifact
+         * @return Its content
+         * @throws IOException If fails
+         */
+        private InputStream copy(final String name) throws IOException {
+            final Path file = Files.createTempFile("0crat", ".zip");
+            try {
+                try (final Item item = this.project.acq(name)) {
+                    Files.copy(
+                        item.path(), file, StandardCopyOption.REPLACE_EXISTING
+                    );
+                }
+                return Files.newInputStream(file);
+            } finally {
+                Files.delete(file);
+            }
+        }
+    }
+
+}
@@ -81,4 +81,9 @@ final class RqAnonProject implements Project {
         return new IoCheckedScalar<>(this.pkt).value().acq(file);
     }
 
+    @Override
+    public Item read(final String file) throws IOException {
+        return new IoCheckedScalar<>(this.pkt).value().read(file);
+    }
+
 }
@@ -100,4 +100,9 @@ public final class RqProject implements Project {
         return new IoCheckedScalar<>(this.pkt).value().acq(file);
     }
 
+    @Override
+    public Item read(final String file) throws IOException {
+        return new IoCheckedScalar<>(this.pkt).value().read(file);
+    }
+
 }
@@ -24,22 +24,23 @@ import com.zerocracy.Par;
 import com.zerocracy.Project;
 import com.zerocracy.pm.ClaimOut;
 import com.zerocracy.tk.RqUser;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
-import org.cactoos.io.BytesOf;
+import java.io.InputStream;
 import org.takes.Response;
 import org.takes.facets.fork.RqRegex;
 import org.takes.facets.fork.TkRegex;
-import org.takes.rs.RsWithBody;
+import org.takes.rs.RsEmpty;
 import org.takes.rs.RsWithType;
 
 /**
  * Download the entire archive.
  *
+ * <p>The archive is built by the thread which sends the response,
+ * while the response is being sent, see {@link Archive}. The response
+ * has no Content-Length, the end of the body is the end of
+ * the connection. PMO is notified only when the archive is sent
+ * entirely.</p>
+ *
  * @author Yegor Bugayenko (yegor256@gmail.com)
  * @version $Id$
  * @since 0.20
@@ -61,35 +62,51 @@ public final class TkArchive implements TkRegex {
     }
 
     @Override
-    @SuppressWarnings("PMD.AvoidInstantiatingObjectsInLoops")
     public Response act(final RqRegex req) throws IOException {
         final Project project = new RqProject(this.farm, req, "PO");
         final XML list;
         try (final Item item = project.acq("_list.xml")) {
             list = new XMLDocument(item.path());
         }
-        final Path zip = Files.createTempFile("0crat", ".zip");
-        try (final ZipOutputStream out =
-            new ZipOutputStream(new FileOutputStream(zip.toFile()))) {
-            for (final String artifact : list.xpath("//item/name/text()")) {
-                final ZipEntry entry = new ZipEntry(artifact);
-                out.putNextEntry(entry);
-                try (final Item item = project.acq(artifact)) {
-                    final byte[] data = new BytesOf(item.path()).asBytes();
-                    out.write(data, 0, data.length);
-                }
-                out.closeEntry();
-            }
-        }
-        new ClaimOut().type("Notify PMO").param(
-            "message", new Par(
-                "Project %s was archived by @%s"
-            ).say(project.pid(), new RqUser(this.farm, req).value())
-        ).postTo(this.farm);
+        final String user = new RqUser(this.farm, req).value();
+        final InputStream body = new Archive(
+            project, list.xpath("//item/name/text()")
+        ).stream(
+            total -> new ClaimOut().type("Notify PMO").param(
+                "message", new Par(
+                    "Project %s was archived by @%s"
+                ).say(project.pid(), user)
+            ).postTo(this.farm)
+        );
         return new RsWithType(
-            new RsWithBody(new BytesOf(zip).asBytes()),
+            new TkArchive.RsArchive(body),
             "application/zip"
         );
     }
 
+    /**
+     * Response with the archive, of unknown length.
+     */
+    private static final class RsArchive implements Response {
+        /**
+         * The archive.
+         */
+        private final InputStream archive;
+        /**
+         * Ctor.
+         * @param body The archive
+         */
+        RsArchive(final InputStream body) {
+            this.archive = body;
+        }
+        @Override
+        public Iterable<String> head() throws IOException {
+            return new RsEmpty().head();
+        }
+        @Override
+        public InputStream body() {
+            return this.archive;
+        }
+    }
+
 }
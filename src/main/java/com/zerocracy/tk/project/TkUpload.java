@@ -17,11 +17,13 @@
 package com.zerocracy.tk.project;
 
 import com.jcabi.xml.StrictXML;
+import com.jcabi.xml.XML;
 import com.jcabi.xml.XMLDocument;
 import com.zerocracy.Farm;
 import com.zerocracy.Item;
 import com.zerocracy.Par;
 import com.zerocracy.Project;
+import com.zerocracy.XsdResolver;
 import com.zerocracy.pm.ClaimOut;
 import com.zerocracy.tk.RqUser;
 import com.zerocracy.tk.RsParFlash;
@@ -76,10 +78,13 @@ public final class TkUpload implements TkRegex {
         final Project project = new RqProject(this.farm, req, "PO");
         final String body =
             new RqPrint(form.single("file")).printBody().trim();
+        final XML xml = new XMLDocument(body);
         try (final Item item = project.acq(artifact)) {
             new LengthOf(
                 new TeeInput(
-                    new StrictXML(new XMLDocument(body)).toString(),
+                    new StrictXML(
+                        xml, new XsdResolver().validator(xml)
+                    ).toString(),
                     item.path()
                 )
             ).intValue();
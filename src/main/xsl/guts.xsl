@@ -127,6 +127,7 @@ SOFTWARE.
       </xsl:for-each>
       <xsl:text>.</xsl:text>
     </p>
+    <xsl:apply-templates select="stats"/>
   </xsl:template>
   <xsl:template match="farm[@id='SyncFarm']">
     <p>
@@ -140,17 +141,47 @@ SOFTWARE.
           <xsl:text>, </xsl:text>
         </xsl:if>
         <xsl:value-of select="@pid"/>
+        <xsl:text>/</xsl:text>
+        <xsl:value-of select="@file"/>
         <xsl:text>:</xsl:text>
         <xsl:value-of select="@label"/>
       </xsl:for-each>
       <xsl:text>.</xsl:text>
     </p>
     <p>
-      <xsl:text>Terminator killers: </xsl:text>
-      <xsl:if test="not(terminator/killer)">
+      <xsl:text>Terminator deadlines: </xsl:text>
+      <xsl:if test="not(terminator/deadline)">
+        <xsl:text>-</xsl:text>
+      </xsl:if>
+      <xsl:for-each select="terminator/deadline">
+        <xsl:sort select="@pid"/>
+        <xsl:if test="position() &gt; 1">
+          <xsl:text>, </xsl:text>
+        </xsl:if>
+        <xsl:value-of select="@pid"/>
+        <xsl:text>/</xsl:text>
+        <xsl:value-of select="@file"/>
+        <xsl:text>:</xsl:text>
+        <xsl:value-of select="@thread"/>
+        <xsl:text> in </xsl:text>
+        <xsl:value-of select="."/>
+      </xsl:for-each>
+      <xsl:text>.</xsl:text>
+    </p>
+    <xsl:apply-templates select="stats"/>
+    <xsl:apply-templates select="holders"/>
+  </xsl:template>
+  <xsl:template match="farm[@id='LsFarm']">
+    <p>
+      <xsl:text>Leases of </xsl:text>
+      <xsl:value-of select="leases/@node"/>
+      <xsl:text> (</xsl:text>
+      <xsl:value-of select="count(leases/lease)"/>
+      <xsl:text>): </xsl:text>
+      <xsl:if test="not(leases/lease)">
         <xsl:text>-</xsl:text>
       </xsl:if>
-      <xsl:for-each select="terminator/killer">
+      <xsl:for-each select="leases/lease">
         <xsl:sort select="@pid"/>
         <xsl:if test="position() &gt; 1">
           <xsl:text>, </xsl:text>
@@ -162,4 +193,57 @@ SOFTWARE.
       <xsl:text>.</xsl:text>
     </p>
   </xsl:template>
+  <xsl:template match="stats">
+    <p>
+      <xsl:text>Lock stats, count/p50/p90/p99/max of wait and hold msec and queue length: </xsl:text>
+      <xsl:if test="not(project)">
+        <xsl:text>-</xsl:text>
+      </xsl:if>
+      <xsl:for-each select="project">
+        <xsl:sort select="hold/@p99" data-type="number" order="descending"/>
+        <xsl:if test="position() &gt; 1">
+          <xsl:text>; </xsl:text>
+        </xsl:if>
+        <xsl:value-of select="@pid"/>
+        <xsl:for-each select="wait|hold|queue">
+          <xsl:text> </xsl:text>
+          <xsl:value-of select="name()"/>
+          <xsl:text>:</xsl:text>
+          <xsl:value-of select="@count"/>
+          <xsl:text>/</xsl:text>
+          <xsl:value-of select="@p50"/>
+          <xsl:text>/</xsl:text>
+          <xsl:value-of select="@p90"/>
+          <xsl:text>/</xsl:text>
+          <xsl:value-of select="@p99"/>
+          <xsl:text>/</xsl:text>
+          <xsl:value-of select="@max"/>
+        </xsl:for-each>
+      </xsl:for-each>
+      <xsl:text>.</xsl:text>
+    </p>
+  </xsl:template>
+  <xsl:template match="holders">
+    <p>
+      <xsl:text>Top holders, total/count/max msec: </xsl:text>
+      <xsl:if test="not(holder)">
+        <xsl:text>-</xsl:text>
+      </xsl:if>
+      <xsl:for-each select="holder">
+        <xsl:if test="position() &gt; 1">
+          <xsl:text>, </xsl:text>
+        </xsl:if>
+        <xsl:value-of select="@pid"/>
+        <xsl:text>/</xsl:text>
+        <xsl:value-of select="@file"/>
+        <xsl:text>:</xsl:text>
+        <xsl:value-of select="@total"/>
+        <xsl:text>/</xsl:text>
+        <xsl:value-of select="@count"/>
+        <xsl:text>/</xsl:text>
+        <xsl:value-of select="@max"/>
+      </xsl:for-each>
+      <xsl:text>.</xsl:text>
+    </p>
+  </xsl:template>
 </xsl:stylesheet>
@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy;
+
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link Datum}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class DatumTest {
+
+    @Test
+    public void findsResourceInDirectory() throws Exception {
+        final Path dir = Files.createTempDirectory("datum");
+        final Path xsd = dir.resolve("0.1/xsd/pm/claims.xsd");
+        Files.createDirectories(xsd.getParent());
+        Files.write(xsd, new byte[] {(byte) '<'});
+        MatcherAssert.assertThat(
+            new Datum(dir.toString()).local(
+                new URL("http://datum.zerocracy.com/0.1/xsd/pm/claims.xsd")
+            ),
+            Matchers.equalTo(xsd.toUri().toURL())
+        );
+    }
+
+    @Test
+    public void findsResourceInClasspath() throws Exception {
+        MatcherAssert.assertThat(
+            new Datum("").local(
+                new URL(
+                    // @checkstyle LineLength (1 line)
+                    "http://datum.zerocracy.com/latest/upgrades/test/thing/index.xml"
+                )
+            ).getProtocol(),
+            Matchers.equalTo("file")
+        );
+    }
+
+    @Test
+    public void keepsUnknownResources() throws Exception {
+        final URL url = new URL("http://datum.zerocracy.com/0.1/xsd/absent.xsd");
+        MatcherAssert.assertThat(
+            new Datum("").local(url),
+            Matchers.sameInstance(url)
+        );
+    }
+
+    @Test
+    public void keepsForeignResources() throws Exception {
+        final URL url = new URL("http://www.zerocracy.com/index.xml");
+        MatcherAssert.assertThat(
+            new Datum("").local(url),
+            Matchers.sameInstance(url)
+        );
+    }
+
+}
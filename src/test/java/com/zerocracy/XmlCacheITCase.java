@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy;
+
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
+import com.jcabi.xml.StrictXML;
+import com.jcabi.xml.XMLDocument;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Integration case for {@link XmlCache}.
+ *
+ * <p>Measures repeated XPath queries to a 5Mb people.xml, when every
+ * query parses and validates the file, which is what {@link Xocument}
+ * used to do, and when the parsed document is taken from the cache.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class XmlCacheITCase {
+
+    /**
+     * Resolver of XSDs.
+     */
+    private static final XsdResolver RESOLVER = new XsdResolver();
+
+    @Test
+    public void queriesLargeDocumentFaster() throws Exception {
+        final Path file = XmlCacheITCase.people();
+        final String query = "/people/person[@id='user5000']/details/text()";
+        final int rounds = Tv.TEN;
+        long start = System.nanoTime();
+        for (int idx = 0; idx < rounds; ++idx) {
+            new StrictXML(
+                new XMLDocument(file.toFile()), XmlCacheITCase.RESOLVER
+            ).xpath(query);
+        }
+        final long parsed = (System.nanoTime() - start) / (long) rounds;
+        final XmlCache cache = new XmlCache(XmlCacheITCase.RESOLVER);
+        cache.xml(file);
+        start = System.nanoTime();
+        for (int idx = 0; idx < rounds; ++idx) {
+            cache.xml(file).xpath(query);
+        }
+        final long cached = (System.nanoTime() - start) / (long) rounds;
+        Logger.info(
+            this,
+            "%d bytes, query with parsing: %[ms]s, query from cache: %[ms]s",
+            Files.size(file),
+            TimeUnit.NANOSECONDS.toMillis(parsed),
+            TimeUnit.NANOSECONDS.toMillis(cached)
+        );
+        MatcherAssert.assertThat(cached, Matchers.lessThan(parsed));
+    }
+
+    /**
+     * Create people.xml of about 5Mb.
+     * @return The file
+     * @throws IOException If fails
+     */
+    private static Path people() throws IOException {
+        final Path xsd = Files.createTempFile("people", ".xsd");
+        Files.write(
+            xsd,
+            String.join(
+                "",
+                "<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema'>",
+                "<xs:element name='people'/></xs:schema>"
+            ).getBytes(StandardCharsets.UTF_8)
+        );
+        final Path file = Files.createTempFile("people", ".xml");
+        try (final Writer out = Files.newBufferedWriter(file)) {
+            out.write(
+                String.format(
+                    // @checkstyle LineLength (1 line)
+                    "<people xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance' xsi:noNamespaceSchemaLocation='%s'>",
+                    xsd.toUri()
+                )
+            );
+            // @checkstyle MagicNumber (1 line)
+            for (int idx = 0; idx < 17_000; ++idx) {
+                out.write(
+                    String.format(
+                        // @checkstyle LineLength (1 line)
+                        "<person id='user%d'><mentor>0crat</mentor><reputation>%1$d</reputation><rate>$%1$d</rate><wallet bank='paypal'>user%1$d@example.com</wallet><links><link rel='github' href='user%1$d'/><link rel='slack' href='U%1$08d'/></links><details>Some details about this person, number %1$d</details></person>",
+                        idx
+                    )
+                );
+            }
+            out.write("</people>");
+        }
+        return file;
+    }
+
+}
@@ -0,0 +1,207 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy;
+
+import com.jcabi.xml.XML;
+import com.jcabi.xml.XMLDocument;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link XmlCache}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class XmlCacheTest {
+
+    /**
+     * Resolver of XSDs.
+     */
+    private static final XsdResolver RESOLVER = new XsdResolver();
+
+    @Test
+    public void parsesFileOnlyOnce() throws Exception {
+        final XmlCache cache = new XmlCache(XmlCacheTest.RESOLVER);
+        final Path file = XmlCacheTest.file("<people><person id='a'/></people>");
+        final XML first = cache.xml(file);
+        MatcherAssert.assertThat(cache.xml(file), Matchers.sameInstance(first));
+        MatcherAssert.assertThat(
+            first.xpath("/people/person/@id"),
+            Matchers.contains("a")
+        );
+    }
+
+    @Test
+    public void parsesReplacedFileAgain() throws Exception {
+        final XmlCache cache = new XmlCache(XmlCacheTest.RESOLVER);
+        final Path file = XmlCacheTest.file("<people><person id='b'/></people>");
+        cache.xml(file);
+        Files.move(
+            XmlCacheTest.file("<people><person id='c'/></people>"), file,
+            StandardCopyOption.REPLACE_EXISTING
+        );
+        MatcherAssert.assertThat(
+            cache.xml(file).xpath("/people/person/@id"),
+            Matchers.contains("c")
+        );
+    }
+
+    @Test
+    public void takesWrittenDocument() throws Exception {
+        final XmlCache cache = new XmlCache(XmlCacheTest.RESOLVER);
+        final Path file = XmlCacheTest.file("<people/>");
+        cache.xml(file);
+        final String text = "<x a='written'/>";
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+        cache.put(
+            file, new XMLDocument(text),
+            XmlCache.digest(Files.readAllBytes(file))
+        );
+        MatcherAssert.assertThat(
+            cache.xml(file).xpath("/x/@a"),
+            Matchers.contains("written")
+        );
+    }
+
+    @Test
+    public void skipsValidationOfWrittenContent() throws Exception {
+        final XmlCache cache = new XmlCache(XmlCacheTest.RESOLVER);
+        MatcherAssert.assertThat(
+            cache.xml(XmlCacheTest.written(cache)).xpath("/x/@a"),
+            Matchers.contains("trusted")
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void validatesWrittenContentInStrictMode() throws Exception {
+        final XmlCache cache = new XmlCache(XmlCacheTest.RESOLVER, true);
+        cache.xml(XmlCacheTest.written(cache));
+    }
+
+    @Test
+    public void marksFileUntilItChanges() throws Exception {
+        final XmlCache cache = new XmlCache(XmlCacheTest.RESOLVER);
+        final Path file = XmlCacheTest.file("<people/>");
+        cache.mark(file, "v1");
+        MatcherAssert.assertThat(cache.marked(file, "v1"), Matchers.is(true));
+        MatcherAssert.assertThat(cache.marked(file, "v2"), Matchers.is(false));
+        Files.move(
+            XmlCacheTest.file("<people><person id='e'/></people>"), file,
+            StandardCopyOption.REPLACE_EXISTING
+        );
+        MatcherAssert.assertThat(cache.marked(file, "v1"), Matchers.is(false));
+    }
+
+    @Test
+    public void keepsDocumentAndMarkWhenFileIsTouched() throws Exception {
+        final XmlCache cache = new XmlCache(XmlCacheTest.RESOLVER);
+        final Path file = XmlCacheTest.file("<people><person id='f'/></people>");
+        final XML first = cache.xml(file);
+        cache.mark(file, "v1");
+        Files.setLastModifiedTime(
+            file,
+            FileTime.fromMillis(
+                Files.getLastModifiedTime(file).toMillis()
+                    - TimeUnit.SECONDS.toMillis(1L)
+            )
+        );
+        MatcherAssert.assertThat(cache.xml(file), Matchers.sameInstance(first));
+        MatcherAssert.assertThat(cache.marked(file, "v1"), Matchers.is(true));
+    }
+
+    @Test
+    public void evictsWhenBudgetIsExceeded() throws Exception {
+        final String text = "<people><person id='d'/></people>";
+        final Path first = XmlCacheTest.file(text);
+        final long size = Files.size(first);
+        final XmlCache cache = new XmlCache(
+            XmlCacheTest.RESOLVER, XmlCache.weigh(size) * 2L
+        );
+        final XML xml = cache.xml(first);
+        for (int idx = 0; idx < 2; ++idx) {
+            final Path copy = Files.createTempFile("copy", ".xml");
+            Files.copy(first, copy, StandardCopyOption.REPLACE_EXISTING);
+            cache.xml(copy);
+        }
+        MatcherAssert.assertThat(
+            cache.weight(), Matchers.equalTo(XmlCache.weigh(size) * 2L)
+        );
+        MatcherAssert.assertThat(
+            cache.xml(first), Matchers.not(Matchers.sameInstance(xml))
+        );
+    }
+
+    /**
+     * Write a document without a schema through the cache and copy it.
+     * @param cache The cache
+     * @return The copy
+     * @throws Exception If fails
+     */
+    private static Path written(final XmlCache cache) throws Exception {
+        final String text = "<x a='trusted'/>";
+        final Path file = Files.createTempFile("written", ".xml");
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+        cache.put(
+            file, new XMLDocument(text),
+            XmlCache.digest(Files.readAllBytes(file))
+        );
+        final Path copy = Files.createTempFile("copy", ".xml");
+        Files.copy(file, copy, StandardCopyOption.REPLACE_EXISTING);
+        return copy;
+    }
+
+    /**
+     * Create a file with the content.
+     * @param text The content
+     * @return The file
+     * @throws Exception If fails
+     */
+    private static Path file(final String text) throws Exception {
+        final Path xsd = Files.createTempFile("cache", ".xsd");
+        Files.write(
+            xsd,
+            String.join(
+                "",
+                "<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema'>",
+                "<xs:element name='people'/></xs:schema>"
+            ).getBytes(StandardCharsets.UTF_8)
+        );
+        final Path file = Files.createTempFile("cache", ".xml");
+        Files.write(
+            file,
+            text.replaceFirst(
+                "<people",
+                String.format(
+                    // @checkstyle LineLength (1 line)
+                    "<people xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance' xsi:noNamespaceSchemaLocation='%s'",
+                    xsd.toUri()
+                )
+            ).getBytes(StandardCharsets.UTF_8)
+        );
+        return file;
+    }
+
+}
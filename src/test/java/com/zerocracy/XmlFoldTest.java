@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link XmlFold}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class XmlFoldTest {
+
+    @Test
+    public void sumsRecords() throws Exception {
+        MatcherAssert.assertThat(
+            new XmlFold("/awards/award").apply(
+                XmlFoldTest.file(
+                    String.join(
+                        "",
+                        "<awards><award><points>5</points></award>",
+                        "<award><points>-2</points></award>",
+                        "<other><award><points>100</points></award></other>",
+                        "<award><points>10</points></award></awards>"
+                    )
+                ),
+                0,
+                (sum, award) -> sum + Integer.parseInt(award.get("points"))
+            ),
+            Matchers.equalTo(13)
+        );
+    }
+
+    @Test
+    public void readsAttributesAndChildren() throws Exception {
+        MatcherAssert.assertThat(
+            new XmlFold("/ledger/balance/account").apply(
+                XmlFoldTest.file(
+                    String.join(
+                        "",
+                        "<ledger><balance><account id='a'>",
+                        "<name>cash</name><name>other</name>",
+                        "<x><name>deep</name></x>",
+                        "<dt><![CDATA[$5]]></dt></account></balance></ledger>"
+                    )
+                ),
+                "",
+                (text, acc) -> String.join(
+                    ",", acc.get("@id"), acc.get("name"), acc.get("dt"),
+                    String.valueOf(acc.size())
+                )
+            ),
+            Matchers.equalTo("a,cash,$5,4")
+        );
+    }
+
+    @Test
+    public void returnsInitialValueWithoutRecords() throws Exception {
+        MatcherAssert.assertThat(
+            new XmlFold("/speed/order").apply(
+                XmlFoldTest.file("<speed/>"), 1, (val, order) -> val + 1
+            ),
+            Matchers.equalTo(1)
+        );
+    }
+
+    /**
+     * Create a file with the content.
+     * @param text The content
+     * @return The file
+     * @throws Exception If fails
+     */
+    private static Path file(final String text) throws Exception {
+        final Path file = Files.createTempFile("fold", ".xml");
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+}
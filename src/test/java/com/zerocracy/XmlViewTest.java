@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy;
+
+import com.jcabi.xml.XML;
+import com.jcabi.xml.XMLDocument;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Test case for {@link XmlView}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class XmlViewTest {
+
+    @Test
+    public void seesModificationsOfDom() {
+        final Node node = new XMLDocument(
+            "<people><person id='yegor256'/></people>"
+        ).node();
+        final XML xml = new XmlView(node);
+        MatcherAssert.assertThat(
+            xml.xpath("/people/person/@id"), Matchers.contains("yegor256")
+        );
+        Element.class.cast(node.getFirstChild().getFirstChild())
+            .setAttribute("id", "o'neil");
+        MatcherAssert.assertThat(
+            xml.xpath("/people/person/@id"), Matchers.contains("o'neil")
+        );
+    }
+
+    @Test
+    public void queriesFoundNodes() {
+        final XML xml = new XmlView(
+            new XMLDocument(
+                "<people><person id='a'><rate>$5</rate></person></people>"
+            ).node()
+        );
+        MatcherAssert.assertThat(
+            xml.nodes("/people/person").get(0).xpath("rate/text()"),
+            Matchers.contains("$5")
+        );
+    }
+
+    @Test
+    public void evaluatesStrings() {
+        MatcherAssert.assertThat(
+            new XmlView(
+                new XMLDocument("<people><person id='x'/></people>").node()
+            ).xpath("count(/people/person)"),
+            Matchers.contains("1")
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsElements() {
+        new XmlView(new XMLDocument("<people/>").node()).xpath("/people");
+    }
+
+}
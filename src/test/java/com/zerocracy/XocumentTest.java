@@ -17,15 +17,22 @@
 package com.zerocracy;
 
 import com.jcabi.matchers.XhtmlMatchers;
+import com.jcabi.xml.XML;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import org.cactoos.Func;
 import org.cactoos.io.LengthOf;
 import org.cactoos.io.TeeInput;
+import org.cactoos.list.ListOf;
 import org.cactoos.text.JoinedText;
 import org.cactoos.text.TextOf;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.Test;
+import org.xembly.Directive;
+import org.xembly.Directives;
 
 /**
  * Test case for {@link Xocument}.
@@ -44,30 +51,109 @@ public final class XocumentTest {
             new TeeInput(
                 new JoinedText(
                     " ",
-                    "<catalog version='0.32.2'",
+                    "<thing version='0.0.5'",
                     "xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance'",
                     "xsi:noNamespaceSchemaLocation=",
-                    "'http://datum.zerocracy.com/0.32.3/xsd/pmo/catalog.xsd'>",
-                    "<project id='ABCDEFGHT'>",
-                    "<fee>$5</fee>",
-                    "<created>2017-01-02T12:00:00</created></project>",
-                    "<project id='ABCDEFGHI'>",
-                    "<created>2017-01-01T12:00:00</created></project>",
-                    "</catalog>"
+                    "'http://datum.zerocracy.com/0.0.5/xsd/test/thing.xsd'>",
+                    "<item id='ABCDEFGHT'>",
+                    "<created>2017-01-02T12:00:00</created></item>",
+                    "<item id='ABCDEFGHI'>",
+                    "<created>2017-01-01T12:00:00</created></item>",
+                    "</thing>"
                 ),
                 temp
             )
         ).intValue();
         MatcherAssert.assertThat(
             new Xocument(temp)
-                .bootstrap("pmo/catalog")
-                .nodes("/catalog/project"),
+                .bootstrap("test/thing")
+                .nodes("/thing/item"),
             Matchers.hasSize(2)
         );
         MatcherAssert.assertThat(
             new TextOf(temp).asString(),
-            XhtmlMatchers.hasXPath("/catalog/project/publish")
+            XhtmlMatchers.hasXPaths(
+                "/thing/item/publish",
+                String.format("/thing[@version='%s']", Xocument.VERSION)
+            )
+        );
+    }
+
+    @Test
+    public void modifiesInBatch() throws Exception {
+        final Path temp = XocumentTest.document();
+        new Xocument(temp).batch(
+            new ListOf<Func<XML, Iterable<Directive>>>(
+                xml -> new Directives().xpath("/items").add("item").set("a"),
+                xml -> new Directives().xpath("/items").add("total").set(
+                    xml.xpath("count(/items/item)").get(0)
+                )
+            )
+        );
+        MatcherAssert.assertThat(
+            new TextOf(temp).asString(),
+            XhtmlMatchers.hasXPaths(
+                "/items/item[.='a']",
+                "/items/total[.='1']"
+            )
+        );
+    }
+
+    @Test
+    public void savesNothingWhenBatchFails() throws Exception {
+        final Path temp = XocumentTest.document();
+        final String before = new TextOf(temp).asString();
+        try {
+            new Xocument(temp).batch(
+                new ListOf<Func<XML, Iterable<Directive>>>(
+                    xml -> new Directives().xpath("/items").add("item"),
+                    xml -> {
+                        throw new IOException("intended");
+                    }
+                )
+            );
+        } catch (final IOException ex) {
+            MatcherAssert.assertThat(
+                ex.getMessage(), Matchers.equalTo("intended")
+            );
+        }
+        MatcherAssert.assertThat(
+            new TextOf(temp).asString(),
+            Matchers.equalTo(before)
+        );
+    }
+
+    /**
+     * Create a document with a local schema, which allows anything.
+     * @return The file
+     * @throws Exception If fails
+     */
+    private static Path document() throws Exception {
+        final Path xsd = Files.createTempFile("xocument", ".xsd");
+        Files.write(
+            xsd,
+            String.join(
+                "",
+                "<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema'>",
+                "<xs:element name='items'><xs:complexType><xs:sequence>",
+                "<xs:any processContents='skip' minOccurs='0'",
+                " maxOccurs='unbounded'/></xs:sequence>",
+                "<xs:anyAttribute processContents='skip'/>",
+                "</xs:complexType></xs:element></xs:schema>"
+            ).getBytes(StandardCharsets.UTF_8)
+        );
+        final Path temp = Files.createTempFile("xocument", ".xml");
+        Files.write(
+            temp,
+            String.join(
+                " ",
+                "<items xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance'",
+                String.format(
+                    "xsi:noNamespaceSchemaLocation='%s'/>", xsd.toUri()
+                )
+            ).getBytes(StandardCharsets.UTF_8)
         );
+        return temp;
     }
 
 }
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy;
+
+import com.jcabi.xml.XMLDocument;
+import org.cactoos.map.MapEntry;
+import org.cactoos.map.MapOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.w3c.dom.Node;
+
+/**
+ * Test case for {@link Xpaths}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class XpathsTest {
+
+    @Test
+    public void bindsVariables() {
+        final Xpaths xpaths = new Xpaths();
+        final Node node = XpathsTest.people();
+        MatcherAssert.assertThat(
+            xpaths.texts(
+                node, "/people/person[@id=$uid]/rate/text()",
+                new MapOf<String, Object>(new MapEntry<>("uid", "o'neil"))
+            ),
+            Matchers.contains("$10")
+        );
+        MatcherAssert.assertThat(
+            xpaths.texts(
+                node, "/people/person[@id=$uid]/rate/text()",
+                new MapOf<String, Object>(new MapEntry<>("uid", "yegor256"))
+            ),
+            Matchers.contains("$25")
+        );
+    }
+
+    @Test
+    public void calculatesNumbers() {
+        MatcherAssert.assertThat(
+            new Xpaths().number(
+                XpathsTest.people(),
+                "sum(/people/person[reputation > $min]/reputation)",
+                new MapOf<String, Object>(new MapEntry<>("min", 1))
+            ),
+            Matchers.equalTo(2048.0d)
+        );
+    }
+
+    @Test
+    public void evaluatesStrings() {
+        MatcherAssert.assertThat(
+            new Xpaths().texts(
+                XpathsTest.people(),
+                "concat(/people/person[1]/@id, $suffix)",
+                new MapOf<String, Object>(new MapEntry<>("suffix", "!"))
+            ),
+            Matchers.contains("o'neil!")
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void failsOnMissedVariable() {
+        new Xpaths().texts(
+            XpathsTest.people(),
+            "/people/person[@id=$uid]/@id",
+            new MapOf<String, Object>(new MapEntry<>("user", "x"))
+        );
+    }
+
+    /**
+     * Make a DOM of people.
+     * @return The node
+     */
+    private static Node people() {
+        return new XMLDocument(
+            String.join(
+                "",
+                "<people><person id=\"o'neil\"><rate>$10</rate>",
+                "<reputation>1</reputation></person>",
+                "<person id='yegor256'><rate>$25</rate>",
+                "<reputation>2048</reputation></person></people>"
+            )
+        ).node();
+    }
+
+}
@@ -20,6 +20,9 @@ import com.jcabi.xml.StrictXML;
 import com.jcabi.xml.XML;
 import com.jcabi.xml.XMLDocument;
 import com.jcabi.xml.XSLDocument;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import org.cactoos.io.InputOf;
 import org.cactoos.text.TextOf;
 import org.hamcrest.MatcherAssert;
@@ -38,6 +41,18 @@ import org.w3c.dom.ls.LSResourceResolver;
 @SuppressWarnings("PMD.AvoidDuplicateLiterals")
 public final class XsdResolverTest {
 
+    /**
+     * XSD in the test pack of datum.
+     */
+    private static final String XSD =
+        "http://datum.zerocracy.com/0.60.3/xsd/test/thing.xsd";
+
+    /**
+     * XSD in the test pack of datum, included by the other one.
+     */
+    private static final String TYPES =
+        "http://datum.zerocracy.com/0.60.3/xsd/test/types.xsd";
+
     @Test
     public void worksWithXmlDocument() throws Exception {
         MatcherAssert.assertThat(
@@ -45,11 +60,12 @@ public final class XsdResolverTest {
                 new XMLDocument(
                     String.join(
                         " ",
-                        "<roles updated='2017-07-12T12:00:00' version='1'",
+                        "<thing updated='2017-07-12T12:00:00' version='1'",
                         "xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance'",
-                        "xsi:noNamespaceSchemaLocation=  ",
-                        // @checkstyle LineLengthCheck (1 line)
-                        "'http://datum.zerocracy.com/0.27/xsd/pm/staff/roles.xsd'/>"
+                        String.format(
+                            "xsi:noNamespaceSchemaLocation=  '%s'/>",
+                            XsdResolverTest.XSD
+                        )
                     )
                 ),
                 new XsdResolver()
@@ -63,10 +79,10 @@ public final class XsdResolverTest {
         final XML before = new XMLDocument(
             String.join(
                 " ",
-                "<roles updated='2017-07-12T12:00:00' version='2'",
+                "<thing updated='2017-07-12T12:00:00' version='2'",
                 "xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance'",
                 "xsi:noNamespaceSchemaLocation =",
-                "'http://datum.zerocracy.com/0.27/xsd/pm/staff/roles.xsd' />"
+                String.format("'%s' />", XsdResolverTest.XSD)
             )
         );
         MatcherAssert.assertThat(
@@ -80,16 +96,48 @@ public final class XsdResolverTest {
         );
     }
 
+    @Test
+    public void reusesValidatorOfSchema() throws Exception {
+        final Path xsd = Files.createTempFile("resolver", ".xsd");
+        Files.write(
+            xsd,
+            String.join(
+                "",
+                "<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema'>",
+                "<xs:element name='pets'/></xs:schema>"
+            ).getBytes(StandardCharsets.UTF_8)
+        );
+        final XML xml = new XMLDocument(
+            String.format(
+                // @checkstyle LineLength (1 line)
+                "<pets xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance' xsi:noNamespaceSchemaLocation='%s'/>",
+                xsd.toUri()
+            )
+        );
+        final XsdResolver resolver = new XsdResolver();
+        MatcherAssert.assertThat(
+            new StrictXML(xml, resolver.validator(xml)).toString(),
+            Matchers.containsString("<pets")
+        );
+        MatcherAssert.assertThat(
+            new XsdResolver().validator(xml),
+            Matchers.sameInstance(resolver.validator(xsd.toUri().toString()))
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsDocumentWithoutSchema() throws Exception {
+        final XML xml = new XMLDocument("<pets/>");
+        new StrictXML(xml, new XsdResolver().validator(xml));
+    }
+
     @Test
     public void resolvesBasicXsd() throws Exception {
         MatcherAssert.assertThat(
             new XsdResolver().resolveResource(
-                "-", "-", "-",
-                // @checkstyle LineLengthCheck (1 line)
-                "http://www.yegor256.com/2017/07/11/how-to-redesign-equals.html",
-                "-"
+                "-", "-", "-", XsdResolverTest.TYPES, "-"
             ).getStringData(),
-            Matchers.endsWith("</html>\n")
+            Matchers.endsWith("</xs:schema>\n")
         );
     }
 
@@ -99,10 +147,7 @@ public final class XsdResolverTest {
             new TextOf(
                 new InputOf(
                     new XsdResolver().resolveResource(
-                        "-", "-", "-",
-                        // @checkstyle LineLength (1 line)
-                        "http://datum.zerocracy.com/0.27/xsd/pm/staff/types.xsd",
-                        "-"
+                        "-", "-", "-", XsdResolverTest.TYPES, "-"
                     ).getByteStream()
                 )
             ).asString(),
@@ -116,10 +161,7 @@ public final class XsdResolverTest {
             new TextOf(
                 new InputOf(
                     new XsdResolver().resolveResource(
-                        "-", "-", "-",
-                        // @checkstyle LineLength (1 line)
-                        "http://datum.zerocracy.com/0.27/xsd/pm/staff/roles.xsd",
-                        "-"
+                        "-", "-", "-", XsdResolverTest.XSD, "-"
                     ).getCharacterStream()
                 )
             ).asString(),
@@ -129,7 +171,7 @@ public final class XsdResolverTest {
 
     @Test
     public void resolvesOnlyOnce() throws Exception {
-        final String url = "http://www.yegor256.com/2016/11/29/eolang.html";
+        final String url = XsdResolverTest.XSD;
         final LSResourceResolver resolver = new XsdResolver();
         MatcherAssert.assertThat(
             resolver.resolveResource("-", "-", "-", url, "-"),
@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy;
+
+import com.jcabi.xml.XMLDocument;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.cactoos.map.MapEntry;
+import org.cactoos.map.MapOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link XslPool}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class XslPoolTest {
+
+    @Test
+    public void transformsWithParameters() throws Exception {
+        final XslPool pool = XslPoolTest.pool();
+        MatcherAssert.assertThat(
+            new XMLDocument(
+                pool.transform(
+                    new XMLDocument("<a/>").node(),
+                    new MapOf<String, Object>(new MapEntry<>("name", "first"))
+                )
+            ).xpath("/b/text()"),
+            Matchers.contains("first")
+        );
+        MatcherAssert.assertThat(
+            new XMLDocument(
+                pool.transform(
+                    new XMLDocument("<a/>").node(),
+                    new MapOf<String, Object>(new MapEntry<>("name", "second"))
+                )
+            ).xpath("/b/text()"),
+            Matchers.contains("second")
+        );
+    }
+
+    @Test
+    public void resetsParametersBetweenTransformations() throws Exception {
+        final XslPool pool = XslPoolTest.pool();
+        pool.transform(
+            new XMLDocument("<a/>").node(),
+            new MapOf<String, Object>(new MapEntry<>("name", "old"))
+        );
+        MatcherAssert.assertThat(
+            new XMLDocument(
+                pool.transform(
+                    new XMLDocument("<a/>").node(),
+                    new MapOf<String, Object>()
+                )
+            ).xpath("/b/text()"),
+            Matchers.contains("none")
+        );
+    }
+
+    /**
+     * Create a pool of a stylesheet with a parameter.
+     * @return Pool
+     * @throws Exception If fails
+     */
+    private static XslPool pool() throws Exception {
+        final Path xsl = Files.createTempFile("pool", ".xsl");
+        Files.write(
+            xsl,
+            String.join(
+                "",
+                "<xsl:stylesheet version='2.0' ",
+                "xmlns:xsl='http://www.w3.org/1999/XSL/Transform'>",
+                "<xsl:param name='name' select=\"'none'\"/>",
+                "<xsl:template match='/a'><b>",
+                "<xsl:value-of select='$name'/></b></xsl:template>",
+                "</xsl:stylesheet>"
+            ).getBytes(StandardCharsets.UTF_8)
+        );
+        return new XslPool(xsl.toUri().toURL());
+    }
+
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm;
+
+import com.jcabi.matchers.XhtmlMatchers;
+import com.jcabi.s3.Bucket;
+import com.jcabi.s3.Ocket;
+import com.jcabi.s3.fake.FkBucket;
+import com.zerocracy.Farm;
+import com.zerocracy.Item;
+import com.zerocracy.Project;
+import com.zerocracy.Xocument;
+import com.zerocracy.pmo.Pmo;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link FsFarm}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class FsFarmTest {
+
+    @Test
+    public void findsAndListsProjects() throws Exception {
+        final Path dir = Files.createTempDirectory("");
+        try (final Farm farm = new FsFarm(dir)) {
+            FsFarmTest.catalog(farm);
+            final Project project = farm.find("@id='FSPRJCT01'")
+                .iterator().next();
+            try (final Item item = project.acq("roles.xml")) {
+                Files.write(
+                    item.path(), "<roles/>".getBytes(StandardCharsets.UTF_8)
+                );
+            }
+            MatcherAssert.assertThat(
+                Files.exists(dir.resolve("2018/03/FSPRJCT01/roles.xml")),
+                Matchers.is(true)
+            );
+            try (final Item item = project.acq("_list.xml")) {
+                MatcherAssert.assertThat(
+                    XhtmlMatchers.xhtml(
+                        new String(
+                            Files.readAllBytes(item.path()),
+                            StandardCharsets.UTF_8
+                        )
+                    ),
+                    XhtmlMatchers.hasXPaths(
+                        "/items[count(item)=1]",
+                        "/items/item[name='roles.xml' and size='8']"
+                    )
+                );
+            }
+        }
+    }
+
+    @Test
+    public void replicatesToBucket() throws Exception {
+        final Path dir = Files.createTempDirectory("");
+        final Bucket bucket = new FkBucket(
+            Files.createTempDirectory("").toFile(), "replica"
+        );
+        try (final Farm farm = new FsFarm(
+            dir, Files.createTempDirectory(""), bucket, 0L
+        )) {
+            FsFarmTest.catalog(farm);
+        }
+        MatcherAssert.assertThat(
+            new Ocket.Text(bucket.ocket("PMO/catalog.xml")).read(),
+            Matchers.containsString("FSPRJCT01")
+        );
+    }
+
+    /**
+     * Save catalog.xml with one project.
+     * @param farm The farm
+     * @throws Exception If fails
+     */
+    private static void catalog(final Farm farm) throws Exception {
+        try (final Item item = new Pmo(farm).acq("catalog.xml")) {
+            Files.write(
+                item.path(),
+                String.format(
+                    // @checkstyle LineLength (1 line)
+                    "<catalog version='%s' updated='2018-01-01T00:00:00Z' xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance' xsi:noNamespaceSchemaLocation='http://datum.zerocracy.com/%1$s/xsd/pmo/catalog.xsd'><project id='FSPRJCT01'><prefix>2018/03/FSPRJCT01/</prefix></project></catalog>",
+                    Xocument.VERSION
+                ).getBytes(StandardCharsets.UTF_8)
+            );
+        }
+    }
+
+}
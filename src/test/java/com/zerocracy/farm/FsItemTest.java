@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm;
+
+import com.zerocracy.Item;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link FsItem}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class FsItemTest {
+
+    @Test
+    public void savesOnClose() throws Exception {
+        final Path stored = Files.createTempDirectory("").resolve("a/b.xml");
+        final Path temp = Files.createTempDirectory("").resolve("a/b.xml");
+        try (final Item item = new FsItem(stored, temp)) {
+            Files.write(item.path(), "<a/>".getBytes(StandardCharsets.UTF_8));
+            MatcherAssert.assertThat(
+                Files.exists(stored), Matchers.is(false)
+            );
+        }
+        MatcherAssert.assertThat(
+            new String(Files.readAllBytes(stored), StandardCharsets.UTF_8),
+            Matchers.equalTo("<a/>")
+        );
+        MatcherAssert.assertThat(
+            stored.getParent().toFile().list(),
+            Matchers.arrayWithSize(1)
+        );
+    }
+
+    @Test
+    public void sharesWorkingCopy() throws Exception {
+        final Path stored = Files.createTempDirectory("").resolve("c.xml");
+        final Path temp = Files.createTempDirectory("").resolve("c.xml");
+        final S3Cache cache = new S3Cache(Long.MAX_VALUE);
+        final FsReplica replica = new FsReplica();
+        try (final Item item = new FsItem(stored, temp, cache, replica)) {
+            try (final Item sub = new FsItem(stored, temp, cache, replica)) {
+                Files.write(
+                    sub.path(), "<c/>".getBytes(StandardCharsets.UTF_8)
+                );
+            }
+            MatcherAssert.assertThat(
+                new String(
+                    Files.readAllBytes(item.path()), StandardCharsets.UTF_8
+                ),
+                Matchers.equalTo("<c/>")
+            );
+        }
+    }
+
+    @Test
+    public void dropsUnsavedChanges() throws Exception {
+        final Path stored = Files.createTempDirectory("").resolve("d.xml");
+        final Path temp = Files.createTempDirectory("").resolve("d.xml");
+        final S3Cache cache = new S3Cache(Long.MAX_VALUE);
+        final FsReplica replica = new FsReplica();
+        try (final Item item = new FsItem(stored, temp, cache, replica)) {
+            Files.write(item.path(), "<d/>".getBytes(StandardCharsets.UTF_8));
+        }
+        Files.write(temp, "<broken".getBytes(StandardCharsets.UTF_8));
+        try (final Item item = new FsItem(stored, temp, cache, replica)) {
+            MatcherAssert.assertThat(
+                new String(
+                    Files.readAllBytes(item.path()), StandardCharsets.UTF_8
+                ),
+                Matchers.equalTo("<d/>")
+            );
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm;
+
+import com.jcabi.aspects.Tv;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link Histogram}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class HistogramTest {
+
+    @Test
+    public void calculatesPercentiles() {
+        final Histogram hist = new Histogram();
+        for (int idx = 1; idx <= Tv.THOUSAND; ++idx) {
+            hist.add((long) idx);
+        }
+        MatcherAssert.assertThat(hist.count(), Matchers.equalTo(1000L));
+        MatcherAssert.assertThat(hist.max(), Matchers.equalTo(1000L));
+        MatcherAssert.assertThat(
+            hist.percentile(50.0d),
+            Matchers.allOf(
+                Matchers.greaterThanOrEqualTo(500L),
+                Matchers.lessThan(625L)
+            )
+        );
+        MatcherAssert.assertThat(
+            hist.percentile(99.0d),
+            Matchers.allOf(
+                Matchers.greaterThanOrEqualTo(990L),
+                Matchers.lessThanOrEqualTo(1000L)
+            )
+        );
+    }
+
+    @Test
+    public void countsSmallAndHugeValues() {
+        final Histogram hist = new Histogram();
+        hist.add(0L);
+        hist.add(-1L);
+        hist.add(Long.MAX_VALUE);
+        MatcherAssert.assertThat(hist.percentile(50.0d), Matchers.equalTo(0L));
+        MatcherAssert.assertThat(
+            hist.percentile(100.0d), Matchers.equalTo(Long.MAX_VALUE)
+        );
+    }
+
+    @Test
+    public void returnsZeroWhenEmpty() {
+        MatcherAssert.assertThat(
+            new Histogram().percentile(99.0d),
+            Matchers.equalTo(0L)
+        );
+    }
+
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm;
+
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Integration case for {@link S3Encoding}.
+ *
+ * <p>Reports size and latency of GZIP encoding for documents that look
+ * like the largest ones we have: ledger, elections and awards.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class S3EncodingITCase {
+
+    @Test
+    public void compressesLargeDocuments() throws Exception {
+        S3EncodingITCase.measure(
+            "ledger.xml", "ledger", "transactions",
+            // @checkstyle LineLength (1 line)
+            "<transaction id='%d'><created>2018-01-01T00:00:00Z</created><amount>$%1$d.00</amount><dt>liabilities</dt><dtx>yegor256</dtx><ct>expenses</ct><ctx>jobs</ctx><details>Paid for gh:test/test#%1$d</details></transaction>"
+        );
+        S3EncodingITCase.measure(
+            "elections.xml", "elections", "jobs",
+            // @checkstyle LineLength (1 line)
+            "<job id='gh:test/test#%d'><election date='2018-01-01T00:00:00Z' author='yegor256' reason='New job'><vote author='0crat' points='1'>yegor256 is the best</vote></election></job>"
+        );
+        S3EncodingITCase.measure(
+            "awards/yegor256.xml", "awards", "",
+            // @checkstyle LineLength (1 line)
+            "<award id='%d'><points>15</points><added>2018-01-01T00:00:00Z</added><project>C3NDPUA8L</project><job>gh:test/test#%1$d</job><reason>Code review was done</reason></award>"
+        );
+    }
+
+    /**
+     * Measure one document.
+     * @param name Name of the document
+     * @param root Root element
+     * @param group Element inside the root, if any
+     * @param entry Format of one entry
+     * @throws Exception If fails
+     * @checkstyle ParameterNumberCheck (5 lines)
+     */
+    private static void measure(final String name, final String root,
+        final String group, final String entry) throws Exception {
+        final StringBuilder xml = new StringBuilder(0);
+        xml.append('<').append(root).append('>');
+        if (!group.isEmpty()) {
+            xml.append('<').append(group).append('>');
+        }
+        for (int idx = 0; idx < Tv.TEN * Tv.THOUSAND; ++idx) {
+            xml.append(String.format(entry, idx));
+        }
+        if (!group.isEmpty()) {
+            xml.append("</").append(group).append('>');
+        }
+        xml.append("</").append(root).append('>');
+        final Path src = Files.createTempFile("", ".xml");
+        Files.write(src, xml.toString().getBytes(StandardCharsets.UTF_8));
+        final ObjectMetadata meta = new ObjectMetadata();
+        final long start = System.currentTimeMillis();
+        final byte[] body = new S3Encoding(S3Encoding.GZIP).encode(
+            src, meta, Files::readAllBytes
+        );
+        final long encoded = System.currentTimeMillis() - start;
+        final Path dest = Files.createTempFile("", ".xml");
+        new S3Encoding().decode(new ByteArrayInputStream(body), meta, dest);
+        final long decoded = System.currentTimeMillis() - start - encoded;
+        Logger.info(
+            S3EncodingITCase.class,
+            "%s: %d bytes -> %d bytes (%.1f%%), encoded in %[ms]s, decoded in %[ms]s",
+            name, Files.size(src), body.length,
+            // @checkstyle MagicNumber (1 line)
+            100.0d * body.length / Files.size(src), encoded, decoded
+        );
+        MatcherAssert.assertThat(
+            (long) body.length, Matchers.lessThan(Files.size(src))
+        );
+        MatcherAssert.assertThat(
+            Files.size(dest), Matchers.equalTo(Files.size(src))
+        );
+    }
+
+}
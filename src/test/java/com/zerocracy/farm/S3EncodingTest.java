@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm;
+
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.jcabi.s3.Ocket;
+import com.jcabi.s3.fake.FkBucket;
+import com.zerocracy.Item;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link S3Encoding}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class S3EncodingTest {
+
+    @Test
+    public void encodesAndDecodes() throws Exception {
+        final Path src = Files.createTempFile("", ".xml");
+        final String xml = "<ledger><transactions/></ledger>";
+        Files.write(src, xml.getBytes(StandardCharsets.UTF_8));
+        final ObjectMetadata meta = new ObjectMetadata();
+        final byte[] body = new S3Encoding(S3Encoding.GZIP).encode(
+            src, meta, Files::readAllBytes
+        );
+        MatcherAssert.assertThat(
+            meta.getContentEncoding(),
+            Matchers.equalTo(S3Encoding.GZIP)
+        );
+        final Path dest = Files.createTempFile("", ".xml");
+        new S3Encoding().decode(new ByteArrayInputStream(body), meta, dest);
+        MatcherAssert.assertThat(
+            new String(Files.readAllBytes(dest), StandardCharsets.UTF_8),
+            Matchers.equalTo(xml)
+        );
+    }
+
+    @Test
+    public void uploadsFileItselfWithoutEncoding() throws Exception {
+        final Path src = Files.createTempFile("", ".xml");
+        Files.write(src, "<wbs/>".getBytes(StandardCharsets.UTF_8));
+        final ObjectMetadata meta = new ObjectMetadata();
+        MatcherAssert.assertThat(
+            new S3Encoding().encode(src, meta, body -> body),
+            Matchers.equalTo(src)
+        );
+        MatcherAssert.assertThat(
+            meta.getContentLength(), Matchers.equalTo(Files.size(src))
+        );
+    }
+
+    @Test
+    public void readsUncompressedContent() throws Exception {
+        final Path dest = Files.createTempFile("", ".xml");
+        final String xml = "<awards/>";
+        new S3Encoding(S3Encoding.GZIP).decode(
+            new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)),
+            new ObjectMetadata(), dest
+        );
+        MatcherAssert.assertThat(
+            new String(Files.readAllBytes(dest), StandardCharsets.UTF_8),
+            Matchers.equalTo(xml)
+        );
+    }
+
+    @Test
+    public void savesCompressedItems() throws Exception {
+        final Ocket ocket = new FkBucket(
+            Files.createTempDirectory("").toFile(), "gzip-bucket"
+        ).ocket("a/elections.xml");
+        final S3Cache cache = new S3Cache(0L);
+        final String xml = "<elections><job id='gh:test/test#1'/></elections>";
+        try (final Item item = new S3Item(
+            ocket, Files.createTempDirectory("").resolve("a.xml"), cache,
+            new S3Uploads(cache), new S3Listing(0L),
+            new S3Encoding(S3Encoding.GZIP)
+        )) {
+            Files.write(item.path(), xml.getBytes(StandardCharsets.UTF_8));
+        }
+        MatcherAssert.assertThat(
+            new Ocket.Text(ocket).read(),
+            Matchers.not(Matchers.containsString("elections"))
+        );
+        try (final Item item = new S3Item(
+            ocket, Files.createTempDirectory("").resolve("b.xml")
+        )) {
+            MatcherAssert.assertThat(
+                new String(
+                    Files.readAllBytes(item.path()), StandardCharsets.UTF_8
+                ),
+                Matchers.equalTo(xml)
+            );
+        }
+    }
+
+}
@@ -96,6 +96,39 @@ public final class S3FarmTest {
         }
     }
 
+    @Test
+    public void readsPmoModifiedByOtherNode() throws Exception {
+        final Bucket bucket = new FkBucket(
+            Files.createTempDirectory("").toFile(),
+            "the-bucket-7"
+        );
+        try (final S3Farm first = new S3Farm(
+            bucket, Files.createTempDirectory(""), 0L, "", true
+        ); final S3Farm second = new S3Farm(
+            bucket, Files.createTempDirectory(""), 0L, "", true
+        )) {
+            final Project pmo = first.find("@id='PMO'").iterator().next();
+            try (final Item item = pmo.acq("people.xml")) {
+                Files.write(item.path(), "<people/>".getBytes());
+            }
+            final Project other = second.find("@id='PMO'").iterator().next();
+            try (final Item item = other.acq("people.xml")) {
+                item.path();
+            }
+            try (final Item item = pmo.acq("people.xml")) {
+                Files.write(
+                    item.path(), "<people><person/></people>".getBytes()
+                );
+            }
+            try (final Item item = other.acq("people.xml")) {
+                MatcherAssert.assertThat(
+                    new String(Files.readAllBytes(item.path())),
+                    Matchers.containsString("<person/>")
+                );
+            }
+        }
+    }
+
     @Test
     public void deletesProject() throws Exception {
         final Bucket bucket = new FkBucket(
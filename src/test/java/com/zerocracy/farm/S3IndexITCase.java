@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm;
+
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
+import com.jcabi.s3.fake.FkBucket;
+import com.zerocracy.Farm;
+import com.zerocracy.Item;
+import com.zerocracy.Xocument;
+import com.zerocracy.pmo.Catalog;
+import com.zerocracy.pmo.Pmo;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Integration case for {@link S3Index}.
+ *
+ * <p>Compares the latency of a project lookup through the index with
+ * the lookup by XPath in the catalog, for a catalog of a few thousand
+ * projects.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class S3IndexITCase {
+
+    @Test
+    public void findsFasterThanCatalog() throws Exception {
+        final Farm farm = new S3Farm(
+            new FkBucket(Files.createTempDirectory("").toFile(), "bench"),
+            Files.createTempDirectory("")
+        );
+        final int total = Tv.FIVE * Tv.THOUSAND;
+        final StringBuilder xml = new StringBuilder(0);
+        xml.append(
+            String.format(
+                // @checkstyle LineLength (1 line)
+                "<catalog version='%s' updated='2018-01-01T00:00:00Z' xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance' xsi:noNamespaceSchemaLocation='http://datum.zerocracy.com/%1$s/xsd/pmo/catalog.xsd'>",
+                Xocument.VERSION
+            )
+        );
+        for (int idx = 0; idx < total; ++idx) {
+            xml.append(
+                String.format(
+                    // @checkstyle LineLength (1 line)
+                    "<project id='P%08X'><title>P%1$08X</title><created>2018-01-01T00:00:00Z</created><prefix>2018/01/P%1$08X/</prefix><fee>$0</fee><alive>true</alive><publish>false</publish><adviser>0crat</adviser></project>",
+                    idx
+                )
+            );
+        }
+        xml.append("</catalog>");
+        try (final Item item = new Pmo(farm).acq("catalog.xml")) {
+            Files.write(
+                item.path(), xml.toString().getBytes(StandardCharsets.UTF_8)
+            );
+        }
+        final String query = String.format("@id='P%08X'", total / 2);
+        farm.find(query);
+        final int rounds = Tv.FIFTY;
+        final long fast = S3IndexITCase.time(
+            () -> farm.find(query).iterator().next(), rounds
+        );
+        final Catalog catalog = new Catalog(farm);
+        final long slow = S3IndexITCase.time(
+            () -> catalog.findByXPath(query).iterator().next(), rounds
+        );
+        Logger.info(
+            this, "%d lookups among %d projects: %[ms]s by index, %[ms]s by XPath",
+            rounds, total, fast, slow
+        );
+        MatcherAssert.assertThat(fast, Matchers.lessThan(slow));
+    }
+
+    /**
+     * Run it a few times and measure.
+     * @param func Function to run
+     * @param rounds How many times
+     * @return Milliseconds
+     * @throws Exception If fails
+     */
+    private static long time(final S3IndexITCase.Lookup func,
+        final int rounds) throws Exception {
+        final long start = System.currentTimeMillis();
+        for (int idx = 0; idx < rounds; ++idx) {
+            func.exec();
+        }
+        return System.currentTimeMillis() - start;
+    }
+
+    /**
+     * Lookup to measure.
+     */
+    private interface Lookup {
+        /**
+         * Run it.
+         * @throws Exception If fails
+         */
+        void exec() throws Exception;
+    }
+
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm;
+
+import com.jcabi.s3.Bucket;
+import com.jcabi.s3.fake.FkBucket;
+import com.zerocracy.Farm;
+import com.zerocracy.Item;
+import com.zerocracy.Xocument;
+import com.zerocracy.pmo.Pmo;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link S3Index}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class S3IndexTest {
+
+    @Test
+    public void findsProjectsByIdAndLink() throws Exception {
+        final Farm farm = S3IndexTest.farm();
+        S3IndexTest.catalog(
+            farm,
+            "<project id='A1'><prefix>2018/01/A1/</prefix></project>",
+            "<project id='B2'><prefix>2018/01/B2/</prefix><links>",
+            "<link rel='github' href='test/b2'/></links></project>"
+        );
+        final S3Index index = new S3Index();
+        MatcherAssert.assertThat(
+            index.find(farm, "@id = 'B2'"),
+            Matchers.contains("2018/01/B2/")
+        );
+        MatcherAssert.assertThat(
+            index.find(farm, "links/link[@rel='github' and @href='test/b2']"),
+            Matchers.contains("2018/01/B2/")
+        );
+        MatcherAssert.assertThat(
+            index.find(farm, ""),
+            Matchers.contains("2018/01/A1/", "2018/01/B2/")
+        );
+        MatcherAssert.assertThat(
+            index.find(farm, "@id='C3'"),
+            Matchers.emptyIterable()
+        );
+    }
+
+    @Test
+    public void seesChangesOfCatalog() throws Exception {
+        final Farm farm = S3IndexTest.farm();
+        S3IndexTest.catalog(
+            farm, "<project id='X1'><prefix>2018/02/X1/</prefix></project>"
+        );
+        final S3Index index = new S3Index();
+        MatcherAssert.assertThat(
+            index.find(farm, "@id='X2'"),
+            Matchers.emptyIterable()
+        );
+        S3IndexTest.catalog(
+            farm,
+            "<project id='X1'><prefix>2018/02/X1/</prefix></project>",
+            "<project id='X2'><prefix>2018/02/X2/</prefix></project>"
+        );
+        MatcherAssert.assertThat(
+            index.find(farm, "@id='X2'"),
+            Matchers.contains("2018/02/X2/")
+        );
+    }
+
+    /**
+     * Make a farm.
+     * @return Farm
+     * @throws Exception If fails
+     */
+    private static Farm farm() throws Exception {
+        final Bucket bucket = new FkBucket(
+            Files.createTempDirectory("").toFile(),
+            "index-bucket"
+        );
+        return new S3Farm(bucket, Files.createTempDirectory(""));
+    }
+
+    /**
+     * Save catalog.xml with these projects.
+     * @param farm The farm
+     * @param projects XML of projects
+     * @throws Exception If fails
+     */
+    private static void catalog(final Farm farm, final String... projects)
+        throws Exception {
+        try (final Item item = new Pmo(farm).acq("catalog.xml")) {
+            Files.write(
+                item.path(),
+                String.join(
+                    "",
+                    String.format(
+                        "<catalog version='%s' updated='%s' %s %s>",
+                        Xocument.VERSION,
+                        "2018-01-01T00:00:00Z",
+                        "xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance'",
+                        String.format(
+                            // @checkstyle LineLength (1 line)
+                            "xsi:noNamespaceSchemaLocation='http://datum.zerocracy.com/%s/xsd/pmo/catalog.xsd'",
+                            Xocument.VERSION
+                        )
+                    ),
+                    String.join("", projects),
+                    "</catalog>"
+                ).getBytes(StandardCharsets.UTF_8)
+            );
+        }
+    }
+
+}
@@ -17,6 +17,7 @@
 package com.zerocracy.farm;
 
 import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.jcabi.aspects.Tv;
 import com.jcabi.s3.Bucket;
 import com.jcabi.s3.Ocket;
 import com.jcabi.s3.fake.FkOcket;
@@ -29,6 +30,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.Ignore;
@@ -123,6 +126,79 @@ public final class S3ItemTest {
         }
     }
 
+    @Test
+    public void doesNotReloadFreshFiles() throws Exception {
+        final AtomicInteger reads = new AtomicInteger();
+        final Ocket ocket = new OcktCounted(
+            new FkOcket(
+                Files.createTempDirectory("").toFile(),
+                "bucket-7", "ledger.xml"
+            ),
+            reads
+        );
+        new Ocket.Text(ocket).write("<ledger/>");
+        final Path temp = Files.createTempDirectory("").resolve("ledger.xml");
+        final S3Cache cache = new S3Cache(TimeUnit.MINUTES.toMillis(1L));
+        for (int idx = 0; idx < Tv.FIVE; ++idx) {
+            try (final Item item = new S3Item(ocket, temp, cache)) {
+                MatcherAssert.assertThat(
+                    new String(Files.readAllBytes(item.path())),
+                    Matchers.equalTo("<ledger/>")
+                );
+            }
+        }
+        MatcherAssert.assertThat(reads.get(), Matchers.equalTo(1));
+    }
+
+    @Test
+    public void reloadsExpiredFiles() throws Exception {
+        final Ocket ocket = new FkOcket(
+            Files.createTempDirectory("").toFile(),
+            "bucket-9", "wbs.xml"
+        );
+        new Ocket.Text(ocket).write("<wbs/>");
+        final Path temp = Files.createTempDirectory("").resolve("wbs.xml");
+        final S3Cache cache = new S3Cache(TimeUnit.MINUTES.toMillis(1L));
+        try (final Item item = new S3Item(ocket, temp, cache)) {
+            item.path();
+        }
+        new Ocket.Text(ocket).write("<wbs><job/></wbs>");
+        cache.expire(temp.getParent());
+        try (final Item item = new S3Item(ocket, temp, cache)) {
+            MatcherAssert.assertThat(
+                new String(Files.readAllBytes(item.path())),
+                Matchers.equalTo("<wbs><job/></wbs>")
+            );
+        }
+    }
+
+    @Test
+    public void doesNotReloadUnmodifiedFiles() throws Exception {
+        final AtomicInteger reads = new AtomicInteger();
+        final Ocket ocket = new OcktCounted(
+            new FkOcket(
+                Files.createTempDirectory("").toFile(),
+                "bucket-8", "orders.xml"
+            ),
+            reads
+        );
+        final Path temp = Files.createTempDirectory("").resolve("orders.xml");
+        final S3Cache cache = new S3Cache(0L);
+        try (final Item item = new S3Item(ocket, temp, cache)) {
+            Files.write(item.path(), "<orders/>".getBytes());
+        }
+        for (int idx = 0; idx < Tv.THREE; ++idx) {
+            try (final Item item = new S3Item(ocket, temp, cache)) {
+                item.path();
+            }
+        }
+        MatcherAssert.assertThat(reads.get(), Matchers.equalTo(0));
+        MatcherAssert.assertThat(
+            new Ocket.Text(ocket).read(),
+            Matchers.equalTo("<orders/>")
+        );
+    }
+
     /**
      * Test with ocket which simulates async work of real S3 client.
      * @checkstyle AnonInnerLengthCheck (500 lines)
@@ -222,4 +298,66 @@ public final class S3ItemTest {
             return this.origin.compareTo(other);
         }
     }
+
+    /**
+     * Ocket that counts reads.
+     */
+    private static final class OcktCounted implements Ocket {
+        /**
+         * Origin ocket.
+         */
+        private final Ocket origin;
+
+        /**
+         * Counter of reads.
+         */
+        private final AtomicInteger reads;
+
+        /**
+         * Ctor.
+         * @param origin Origin ocket
+         * @param counter Counter of reads
+         */
+        OcktCounted(final Ocket origin, final AtomicInteger counter) {
+            this.origin = origin;
+            this.reads = counter;
+        }
+
+        @Override
+        public Bucket bucket() {
+            return this.origin.bucket();
+        }
+
+        @Override
+        public String key() {
+            return this.origin.key();
+        }
+
+        @Override
+        public ObjectMetadata meta() throws IOException {
+            return this.origin.meta();
+        }
+
+        @Override
+        public boolean exists() throws IOException {
+            return this.origin.exists();
+        }
+
+        @Override
+        public void read(final OutputStream output) throws IOException {
+            this.reads.incrementAndGet();
+            this.origin.read(output);
+        }
+
+        @Override
+        public void write(final InputStream input, final ObjectMetadata meta)
+            throws IOException {
+            this.origin.write(input, meta);
+        }
+
+        @Override
+        public int compareTo(final Ocket other) {
+            return this.origin.compareTo(other);
+        }
+    }
 }
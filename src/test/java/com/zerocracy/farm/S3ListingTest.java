@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm;
+
+import com.jcabi.matchers.XhtmlMatchers;
+import com.jcabi.s3.Bucket;
+import com.jcabi.s3.Ocket;
+import com.jcabi.s3.fake.FkBucket;
+import com.zerocracy.Item;
+import com.zerocracy.Project;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link S3Listing}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class S3ListingTest {
+
+    @Test
+    public void listsAllFiles() throws Exception {
+        final Bucket bucket = new FkBucket(
+            Files.createTempDirectory("").toFile(),
+            "list-bucket"
+        );
+        new Ocket.Text(bucket.ocket("P1/a.xml")).write("<a/>");
+        new Ocket.Text(bucket.ocket("P1/b.xml")).write("<b/>");
+        new Ocket.Text(bucket.ocket("P2/c.xml")).write("<c/>");
+        MatcherAssert.assertThat(
+            new S3Listing().xml(bucket, "P1/"),
+            XhtmlMatchers.hasXPaths(
+                "/items[count(item)=2]",
+                "/items/item[name='a.xml' and size='4' and modified]",
+                "/items/item[name='b.xml']"
+            )
+        );
+    }
+
+    @Test
+    public void forgetsListingOnWrite() throws Exception {
+        final Bucket bucket = new FkBucket(
+            Files.createTempDirectory("").toFile(),
+            "list-bucket-2"
+        );
+        final Path temp = Files.createTempDirectory("");
+        final S3Cache cache = new S3Cache();
+        final S3Listing listing = new S3Listing();
+        final Project project = new S3Project(
+            bucket, "P3/", temp, cache, new S3Uploads(cache), listing
+        );
+        new Ocket.Text(bucket.ocket("P3/x.xml")).write("<x/>");
+        final String before = listing.xml(bucket, "P3/");
+        new Ocket.Text(bucket.ocket("P3/y.xml")).write("<y/>");
+        MatcherAssert.assertThat(
+            listing.xml(bucket, "P3/"),
+            Matchers.equalTo(before)
+        );
+        try (final Item item = project.acq("z.xml")) {
+            Files.write(item.path(), "<z/>".getBytes());
+        }
+        try (final Item item = project.acq("_list.xml")) {
+            MatcherAssert.assertThat(
+                XhtmlMatchers.xhtml(
+                    new String(Files.readAllBytes(item.path()))
+                ),
+                XhtmlMatchers.hasXPaths("/items[count(item)=3]")
+            );
+        }
+    }
+
+}
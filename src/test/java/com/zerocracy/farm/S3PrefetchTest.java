@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm;
+
+import com.jcabi.aspects.Tv;
+import com.jcabi.s3.Bucket;
+import com.jcabi.s3.Ocket;
+import com.jcabi.s3.fake.FkBucket;
+import com.zerocracy.Item;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link S3Prefetch}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class S3PrefetchTest {
+
+    @Test
+    public void learnsWorkingSet() throws Exception {
+        final Bucket bucket = new FkBucket(
+            Files.createTempDirectory("").toFile(), "prefetch-1"
+        );
+        final Path temp = Files.createTempDirectory("");
+        final S3Cache cache = new S3Cache();
+        final S3Prefetch prefetch = new S3Prefetch(
+            bucket, temp, cache, new S3Uploads(cache), new S3Encoding()
+        );
+        final S3Project project = new S3Project(
+            bucket, "P1/", temp, cache, new S3Uploads(cache),
+            new S3Listing(), new S3Encoding(), prefetch
+        );
+        project.acq("boosts.xml").close();
+        project.acq("claims.xml").close();
+        MatcherAssert.assertThat(
+            prefetch.files("P1/"),
+            Matchers.allOf(
+                Matchers.hasItems("boosts.xml", "roles.xml"),
+                Matchers.not(Matchers.hasItem("claims.xml"))
+            )
+        );
+        MatcherAssert.assertThat(
+            prefetch.files("P2/"),
+            Matchers.not(Matchers.hasItem("boosts.xml"))
+        );
+    }
+
+    @Test
+    public void forgetsOldestDocumentsAndSkipsPmo() throws Exception {
+        final S3Cache cache = new S3Cache();
+        final S3Prefetch prefetch = new S3Prefetch(
+            new FkBucket(Files.createTempDirectory("").toFile(), "pf-3"),
+            Files.createTempDirectory(""), cache, new S3Uploads(cache),
+            new S3Encoding()
+        );
+        for (int idx = 0; idx <= Tv.FIFTY; ++idx) {
+            prefetch.record("P3/", String.format("agenda-%d.xml", idx));
+        }
+        prefetch.record("PMO/", "people.xml");
+        MatcherAssert.assertThat(
+            prefetch.files("P3/"),
+            Matchers.allOf(
+                Matchers.hasItem("agenda-50.xml"),
+                Matchers.not(Matchers.hasItem("agenda-0.xml"))
+            )
+        );
+        MatcherAssert.assertThat(
+            prefetch.files("PMO/"),
+            Matchers.not(Matchers.hasItem("people.xml"))
+        );
+    }
+
+    @Test
+    public void stagesDocumentsForItems() throws Exception {
+        final Bucket bucket = new FkBucket(
+            Files.createTempDirectory("").toFile(), "prefetch-2"
+        );
+        final Path temp = Files.createTempDirectory("");
+        final S3Cache cache = new S3Cache();
+        final S3Uploads uploads = new S3Uploads(cache);
+        final String key = "P3/roles.xml";
+        new Ocket.Text(bucket.ocket(key)).write("<roles/>");
+        new S3Prefetch(
+            bucket, temp, cache, uploads, new S3Encoding()
+        ).fetch(key);
+        bucket.remove(key);
+        try (final Item item = new S3Item(
+            bucket.ocket(key), temp.resolve(key), cache, uploads
+        )) {
+            MatcherAssert.assertThat(
+                new String(
+                    Files.readAllBytes(item.path()), StandardCharsets.UTF_8
+                ),
+                Matchers.equalTo("<roles/>")
+            );
+        }
+    }
+
+    @Test
+    public void doesNotOverwriteLocalChanges() throws Exception {
+        final Bucket bucket = new FkBucket(
+            Files.createTempDirectory("").toFile(), "prefetch-3"
+        );
+        final Path temp = Files.createTempDirectory("");
+        final S3Cache cache = new S3Cache();
+        final S3Uploads uploads = new S3Uploads(cache);
+        final String key = "P4/wbs.xml";
+        final Ocket ocket = bucket.ocket(key);
+        try (final Item item = new S3Item(
+            ocket, temp.resolve(key), cache, uploads
+        )) {
+            Files.write(item.path(), "<v1/>".getBytes(StandardCharsets.UTF_8));
+        }
+        try (final Item item = new S3Item(
+            ocket, temp.resolve(key), cache, uploads
+        )) {
+            Files.write(
+                item.path(), "<v2-local/>".getBytes(StandardCharsets.UTF_8)
+            );
+            new S3Prefetch(
+                bucket, temp, cache, uploads, new S3Encoding()
+            ).fetch(key);
+        }
+        try (final Item item = new S3Item(
+            ocket, temp.resolve(key), cache, uploads
+        )) {
+            MatcherAssert.assertThat(
+                new String(
+                    Files.readAllBytes(item.path()), StandardCharsets.UTF_8
+                ),
+                Matchers.equalTo("<v2-local/>")
+            );
+        }
+    }
+
+}
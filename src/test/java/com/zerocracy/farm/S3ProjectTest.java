@@ -17,13 +17,19 @@
 package com.zerocracy.farm;
 
 import com.jcabi.s3.Bucket;
+import com.jcabi.s3.Ocket;
 import com.jcabi.s3.fake.FkBucket;
+import com.jcabi.xml.XML;
 import com.zerocracy.Item;
 import com.zerocracy.Project;
 import com.zerocracy.Xocument;
+import com.zerocracy.pm.ClaimOut;
+import com.zerocracy.pm.Claims;
 import com.zerocracy.pm.staff.Roles;
 import com.zerocracy.pmo.Agenda;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.Test;
@@ -82,4 +88,63 @@ public final class S3ProjectTest {
         );
     }
 
+    @Test
+    public void doesNotUploadWhatWasRead() throws Exception {
+        final Bucket bucket = new FkBucket(
+            Files.createTempDirectory("").toFile(),
+            "read-bucket"
+        );
+        final Project project = new S3Project(bucket, "R1R2R3R4R");
+        final String file = "test.txt";
+        try (final Item item = project.acq(file)) {
+            Files.write(item.path(), "before".getBytes(StandardCharsets.UTF_8));
+        }
+        try (final Item item = project.read(file)) {
+            Files.write(item.path(), "after".getBytes(StandardCharsets.UTF_8));
+        }
+        MatcherAssert.assertThat(
+            new Ocket.Text(bucket.ocket("R1R2R3R4Rtest.txt")).read(),
+            Matchers.equalTo("before")
+        );
+    }
+
+    @Test
+    public void keepsClaimsIndexWhenItemIsSaved() throws Exception {
+        final Project project = new S3Project(
+            new FkBucket(Files.createTempDirectory("").toFile(), "claims"),
+            "C1C2C3C4C"
+        );
+        final Path xsd = Files.createTempFile("claims", ".xsd");
+        Files.write(
+            xsd,
+            String.join(
+                "",
+                "<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema'>",
+                "<xs:element name='claims'><xs:complexType><xs:sequence>",
+                "<xs:any processContents='skip' minOccurs='0'",
+                " maxOccurs='unbounded'/></xs:sequence>",
+                "<xs:anyAttribute processContents='skip'/>",
+                "</xs:complexType></xs:element></xs:schema>"
+            ).getBytes(StandardCharsets.UTF_8)
+        );
+        try (final Item item = project.acq("claims.xml")) {
+            Files.write(
+                item.path(),
+                String.format(
+                    // @checkstyle LineLength (1 line)
+                    "<claims xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance' xsi:noNamespaceSchemaLocation='%s'/>",
+                    xsd.toUri()
+                ).getBytes(StandardCharsets.UTF_8)
+            );
+        }
+        final Claims claims = new Claims(project);
+        claims.add(new ClaimOut().type("first"));
+        final XML first = claims.iterate().iterator().next();
+        claims.add(new ClaimOut().type("second"));
+        MatcherAssert.assertThat(
+            claims.iterate().iterator().next(),
+            Matchers.sameInstance(first)
+        );
+    }
+
 }
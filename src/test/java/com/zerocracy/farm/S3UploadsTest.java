@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm;
+
+import com.jcabi.aspects.Tv;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link S3Uploads}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class S3UploadsTest {
+
+    @Test
+    public void uploadsImmediatelyWithoutDelay() throws Exception {
+        final Path file = Files.createTempFile("", ".xml");
+        Files.write(file, "<wbs/>".getBytes());
+        final S3Cache cache = new S3Cache();
+        final List<String> sent = new LinkedList<>();
+        try (final S3Uploads uploads = new S3Uploads(cache)) {
+            uploads.push(
+                file,
+                src -> {
+                    sent.add(new String(Files.readAllBytes(src)));
+                    return "etag-1";
+                }
+            );
+            MatcherAssert.assertThat(sent, Matchers.contains("<wbs/>"));
+            MatcherAssert.assertThat(cache.dirty(file), Matchers.is(false));
+        }
+    }
+
+    @Test
+    public void mergesRepeatedUploads() throws Exception {
+        final Path file = Files.createTempFile("", ".xml");
+        final S3Cache cache = new S3Cache();
+        final List<String> sent = new LinkedList<>();
+        final S3Uploads uploads = new S3Uploads(
+            cache, TimeUnit.HOURS.toMillis(1L)
+        );
+        for (int idx = 0; idx < Tv.FIVE; ++idx) {
+            Files.write(file, String.format("<v%d/>", idx).getBytes());
+            uploads.push(
+                file,
+                src -> {
+                    sent.add(new String(Files.readAllBytes(src)));
+                    return "etag-2";
+                }
+            );
+        }
+        MatcherAssert.assertThat(uploads.pending(file), Matchers.is(true));
+        MatcherAssert.assertThat(sent, Matchers.empty());
+        uploads.close();
+        MatcherAssert.assertThat(sent, Matchers.contains("<v4/>"));
+        MatcherAssert.assertThat(uploads.pending(file), Matchers.is(false));
+        MatcherAssert.assertThat(cache.etag(file), Matchers.equalTo("etag-2"));
+    }
+
+    @Test
+    public void uploadsSnapshotsNotLaterChanges() throws Exception {
+        final Path file = Files.createTempFile("", ".xml");
+        Files.write(file, "<before/>".getBytes());
+        final List<String> sent = new LinkedList<>();
+        final S3Uploads uploads = new S3Uploads(
+            new S3Cache(), TimeUnit.HOURS.toMillis(1L)
+        );
+        uploads.push(
+            file,
+            src -> {
+                sent.add(new String(Files.readAllBytes(src)));
+                return "etag-3";
+            }
+        );
+        Files.write(file, "<after/>".getBytes());
+        uploads.close();
+        MatcherAssert.assertThat(sent, Matchers.contains("<before/>"));
+    }
+
+    @Test
+    public void retriesUploadAfterRuntimeFailure() throws Exception {
+        final Path file = Files.createTempFile("", ".xml");
+        Files.write(file, "<retry/>".getBytes());
+        final AtomicInteger attempts = new AtomicInteger();
+        final S3Uploads uploads = new S3Uploads(
+            new S3Cache(), TimeUnit.HOURS.toMillis(1L)
+        );
+        uploads.push(
+            file,
+            src -> {
+                if (attempts.incrementAndGet() == 1) {
+                    throw new IllegalStateException("network is down");
+                }
+                return "etag-4";
+            }
+        );
+        MatcherAssert.assertThat(uploads.flush(), Matchers.equalTo(0));
+        MatcherAssert.assertThat(uploads.pending(file), Matchers.is(true));
+        uploads.close();
+        MatcherAssert.assertThat(attempts.get(), Matchers.equalTo(2));
+        MatcherAssert.assertThat(uploads.pending(file), Matchers.is(false));
+    }
+
+    @Test
+    public void basesNextUploadOnTheSentOne() throws Exception {
+        final Path file = Files.createTempFile("", ".xml");
+        Files.write(file, "<first/>".getBytes());
+        final S3Cache cache = new S3Cache();
+        final List<String> bases = new LinkedList<>();
+        final S3Uploads uploads = new S3Uploads(
+            cache, TimeUnit.HOURS.toMillis(1L)
+        );
+        uploads.push(
+            file,
+            src -> {
+                Files.write(file, "<second/>".getBytes());
+                uploads.push(
+                    file,
+                    next -> {
+                        bases.add(cache.base(file));
+                        return "etag-6";
+                    }
+                );
+                return "etag-5";
+            }
+        );
+        MatcherAssert.assertThat(uploads.flush(), Matchers.equalTo(1));
+        MatcherAssert.assertThat(cache.dirty(file), Matchers.is(true));
+        uploads.close();
+        MatcherAssert.assertThat(bases, Matchers.contains("etag-5"));
+        MatcherAssert.assertThat(cache.etag(file), Matchers.equalTo("etag-6"));
+    }
+
+    @Test
+    public void dropsUploadForgottenWhileSending() throws Exception {
+        final Path file = Files.createTempFile("", ".xml");
+        Files.write(file, "<conflict/>".getBytes());
+        final AtomicInteger attempts = new AtomicInteger();
+        final S3Uploads uploads = new S3Uploads(
+            new S3Cache(), TimeUnit.HOURS.toMillis(1L)
+        );
+        uploads.push(
+            file,
+            src -> {
+                attempts.incrementAndGet();
+                uploads.forget(file);
+                throw new IOException("modified by another node");
+            }
+        );
+        MatcherAssert.assertThat(uploads.flush(), Matchers.equalTo(0));
+        uploads.close();
+        MatcherAssert.assertThat(attempts.get(), Matchers.equalTo(1));
+        MatcherAssert.assertThat(uploads.pending(file), Matchers.is(false));
+    }
+
+}
@@ -16,11 +16,14 @@
  */
 package com.zerocracy.farm;
 
+import com.jcabi.xml.XMLDocument;
 import com.zerocracy.RunsInThreads;
 import java.util.concurrent.locks.Lock;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.Test;
+import org.xembly.Directives;
+import org.xembly.Xembler;
 
 /**
  * Test case for {@link SmartLock}.
@@ -85,4 +88,21 @@ public final class SmartLockTest {
         }
     }
 
+    @Test
+    public void collectsStats() throws Exception {
+        final SmartLock lock = new SmartLock();
+        lock.lock();
+        lock.lock();
+        lock.unlock();
+        lock.unlock();
+        MatcherAssert.assertThat(
+            new XMLDocument(
+                new Xembler(
+                    new Directives().add("stats").append(lock.stats().value())
+                ).xmlQuietly()
+            ).xpath("/stats/*/@count"),
+            Matchers.contains("2", "1", "2")
+        );
+    }
+
 }
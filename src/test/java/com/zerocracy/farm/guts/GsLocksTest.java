@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm.guts;
+
+import com.jcabi.xml.XMLDocument;
+import javax.json.JsonObject;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link GsLocks}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class GsLocksTest {
+
+    @Test
+    public void convertsStatsToJson() {
+        final JsonObject json = new GsLocks(
+            new XMLDocument(
+                String.join(
+                    "",
+                    "<guts><farm id='SyncFarm'><stats><project pid='PMO'>",
+                    "<wait count='3' p50='0' p90='1' p99='7' max='7'/>",
+                    "<hold count='3' p50='2' p90='5' p99='9' max='9'/>",
+                    "<queue count='3' p50='0' p90='1' p99='1' max='1'/>",
+                    "</project></stats><holders>",
+                    "<holder pid='PMO' file='catalog.xml' count='3' ",
+                    "total='16' max='9'>free</holder>",
+                    "</holders></farm></guts>"
+                )
+            )
+        ).value();
+        MatcherAssert.assertThat(
+            json.getJsonArray("stats").getJsonObject(0)
+                .getJsonObject("wait").getInt("p99"),
+            Matchers.equalTo(7)
+        );
+        MatcherAssert.assertThat(
+            json.getJsonArray("holders").getJsonObject(0).getString("file"),
+            Matchers.equalTo("catalog.xml")
+        );
+    }
+
+}
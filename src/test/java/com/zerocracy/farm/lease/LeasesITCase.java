@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm.lease;
+
+import com.jcabi.dynamo.Region;
+import com.zerocracy.Farm;
+import com.zerocracy.entry.ExtDynamo;
+import com.zerocracy.farm.fake.FkFarm;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Integration case for {@link Leases}, with local DynamoDB.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class LeasesITCase {
+
+    @Test
+    public void givesProjectToOneNodeOnly() throws Exception {
+        final Region region = new ExtDynamo().value();
+        final Leases first = new Leases(region, "first");
+        try (final Leases second = new Leases(region, "second")) {
+            MatcherAssert.assertThat(
+                first.owns("LEASE0001"), Matchers.is(true)
+            );
+            MatcherAssert.assertThat(
+                second.owns("LEASE0001"), Matchers.is(false)
+            );
+            MatcherAssert.assertThat(
+                second.owner("LEASE0001"), Matchers.equalTo("first")
+            );
+            first.close();
+            MatcherAssert.assertThat(
+                second.owns("LEASE0001"), Matchers.is(true)
+            );
+        }
+    }
+
+    @Test
+    public void takesExpiredLease() throws Exception {
+        final Region region = new ExtDynamo().value();
+        final Leases dead = new Leases(
+            region, "dead", TimeUnit.SECONDS.toMillis(1L), 1
+        );
+        MatcherAssert.assertThat(dead.owns("LEASE0002"), Matchers.is(true));
+        dead.close();
+        try (final Leases alive = new Leases(region, "alive")) {
+            TimeUnit.SECONDS.sleep(2L);
+            MatcherAssert.assertThat(
+                alive.owns("LEASE0002"), Matchers.is(true)
+            );
+        }
+    }
+
+    @Test
+    public void rejectsWritesToForeignProjects() throws Exception {
+        final Region region = new ExtDynamo().value();
+        try (final Leases other = new Leases(region, "other")) {
+            MatcherAssert.assertThat(
+                other.owns("LEASE0003"), Matchers.is(true)
+            );
+            try (final Farm farm = new LsFarm(
+                new FkFarm(), new Leases(region, "this")
+            )) {
+                farm.find("@id='LEASE0003'").iterator().next().acq("wbs.xml");
+            } catch (final IllegalStateException ex) {
+                MatcherAssert.assertThat(
+                    ex.getMessage(), Matchers.containsString("\"other\"")
+                );
+            }
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm.reactive;
+
+import com.zerocracy.Farm;
+import com.zerocracy.farm.fake.FkFarm;
+import com.zerocracy.farm.sync.SyncFarm;
+import com.zerocracy.pm.ClaimOut;
+import com.zerocracy.pm.Claims;
+import com.zerocracy.pmo.Pmo;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.cactoos.list.SolidList;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link RvFarm}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class RvFarmTest {
+
+    @Test
+    public void processesClaimsOnlyOfItsProjects() throws Exception {
+        final AtomicInteger done = new AtomicInteger();
+        final Flush flush = new DefaultFlush(
+            new Brigade(
+                new SolidList<>(
+                    (project, xml) -> done.incrementAndGet()
+                )
+            )
+        );
+        try (final Farm farm = new RvFarm(
+            new SyncFarm(new FkFarm()), flush, pid -> !"PMO".equals(pid)
+        )) {
+            new ClaimOut().type("hello").postTo(new Pmo(farm));
+            MatcherAssert.assertThat(done.get(), Matchers.equalTo(0));
+            MatcherAssert.assertThat(
+                new Claims(new Pmo(farm)).iterate(),
+                Matchers.iterableWithSize(1)
+            );
+        }
+    }
+
+    @Test
+    public void processesClaimsOfItsProjects() throws Exception {
+        final AtomicInteger done = new AtomicInteger();
+        final Flush flush = new DefaultFlush(
+            new Brigade(
+                new SolidList<>(
+                    (project, xml) -> done.incrementAndGet()
+                )
+            )
+        );
+        try (final Farm farm = new RvFarm(
+            new SyncFarm(new FkFarm()), flush, pid -> true
+        )) {
+            new ClaimOut().type("hello").postTo(new Pmo(farm));
+            MatcherAssert.assertThat(done.get(), Matchers.equalTo(1));
+        }
+    }
+
+}
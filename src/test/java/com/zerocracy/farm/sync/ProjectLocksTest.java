@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm.sync;
+
+import com.jcabi.matchers.XhtmlMatchers;
+import java.util.concurrent.locks.Lock;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.xembly.Directives;
+import org.xembly.Xembler;
+
+/**
+ * Test case for {@link ProjectLocks}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class ProjectLocksTest {
+
+    @Test
+    public void evictsIdleLocks() {
+        final ProjectLocks locks = new ProjectLocks(2);
+        final ItemLocks first = locks.get("AAA");
+        locks.get("BBB");
+        locks.get("CCC");
+        MatcherAssert.assertThat(
+            locks.current("AAA", first),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(
+            locks.all().keySet(),
+            Matchers.containsInAnyOrder("BBB", "CCC")
+        );
+    }
+
+    @Test
+    public void evictsOldestIdleLocksFirst() {
+        final ProjectLocks locks = new ProjectLocks(2);
+        final Lock lock = locks.get("OLD").get("wbs.xml").lock(true);
+        lock.lock();
+        try {
+            locks.get("MID");
+            locks.get("NEW");
+            locks.get("TOP");
+        } finally {
+            lock.unlock();
+        }
+        MatcherAssert.assertThat(
+            locks.all().keySet(),
+            Matchers.containsInAnyOrder("OLD", "TOP")
+        );
+    }
+
+    @Test
+    public void keepsBusyLocks() {
+        final ProjectLocks locks = new ProjectLocks(1);
+        final ItemLocks busy = locks.get("XXX");
+        final Lock lock = busy.get("roles.xml").lock(true);
+        lock.lock();
+        try {
+            locks.get("YYY");
+            MatcherAssert.assertThat(
+                locks.current("XXX", busy),
+                Matchers.is(true)
+            );
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Test
+    public void showsTopHolders() throws Exception {
+        final ProjectLocks locks = new ProjectLocks();
+        final Lock lock = locks.get("ZZZ").get("wbs.xml").lock(true);
+        lock.lock();
+        lock.unlock();
+        MatcherAssert.assertThat(
+            new Xembler(
+                new Directives().add("guts")
+                    .add("stats").append(locks.stats()).up()
+                    .add("holders").append(locks.holders(1)).up()
+            ).xmlQuietly(),
+            XhtmlMatchers.hasXPaths(
+                "/guts/stats/project[@pid='ZZZ']/hold[@count='1']",
+                "/guts/holders/holder[@pid='ZZZ' and @file='wbs.xml']"
+            )
+        );
+    }
+
+}
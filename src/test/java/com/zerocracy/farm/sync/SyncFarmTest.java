@@ -16,12 +16,14 @@
  */
 package com.zerocracy.farm.sync;
 
+import com.jcabi.aspects.Tv;
 import com.jcabi.s3.Bucket;
 import com.jcabi.s3.fake.FkBucket;
 import com.zerocracy.Farm;
 import com.zerocracy.Item;
 import com.zerocracy.Project;
 import com.zerocracy.RunsInThreads;
+import com.zerocracy.farm.fake.FkFarm;
 import com.zerocracy.farm.S3Farm;
 import com.zerocracy.pm.scope.Wbs;
 import com.zerocracy.pm.staff.Roles;
@@ -114,4 +116,20 @@ public final class SyncFarmTest {
         }
     }
 
+    @Test
+    public void findsThousandsOfProjects() throws Exception {
+        try (final Farm farm = new SyncFarm(new FkFarm())) {
+            for (int idx = 0; idx < Tv.THOUSAND * 2; ++idx) {
+                final Project project = farm.find(
+                    String.format("@id='P%06d'", idx)
+                ).iterator().next();
+                try (final Item item = project.acq("roles.xml")) {
+                    MatcherAssert.assertThat(
+                        item.path(), Matchers.notNullValue()
+                    );
+                }
+            }
+        }
+    }
+
 }
@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm.sync;
+
+import com.jcabi.aspects.Tv;
+import com.jcabi.log.Logger;
+import com.zerocracy.Farm;
+import com.zerocracy.Item;
+import com.zerocracy.Project;
+import com.zerocracy.farm.fake.FkFarm;
+import com.zerocracy.pmo.Pmo;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Integration case for {@link SyncProject}.
+ *
+ * <p>Measures throughput and tail latency of PMO acquisitions by
+ * many threads, when all of them work with the same file, which is
+ * what the single project lock used to be, and when each of them works
+ * with its own file.
+ *
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class SyncProjectITCase {
+
+    @Test
+    public void acquiresDifferentFilesInParallel() throws Exception {
+        final long[] same = SyncProjectITCase.run(idx -> "same.xml");
+        final long[] apart = SyncProjectITCase.run(
+            idx -> String.format("file-%d.xml", idx)
+        );
+        Logger.info(
+            this,
+            // @checkstyle LineLength (1 line)
+            "Same file: %[ms]s total, p99 %[ms]s; different files: %[ms]s total, p99 %[ms]s",
+            same[0], same[1], apart[0], apart[1]
+        );
+        MatcherAssert.assertThat(apart[0], Matchers.lessThan(same[0]));
+    }
+
+    /**
+     * Run threads and measure.
+     * @param names Names of files per thread
+     * @return Total time and 99th percentile of one acquisition, in msec
+     * @throws Exception If fails
+     */
+    private static long[] run(final SyncProjectITCase.Names names)
+        throws Exception {
+        final int threads = Tv.TEN;
+        final int rounds = Tv.TWENTY;
+        final ExecutorService service = Executors.newFixedThreadPool(threads);
+        final List<Long> latencies = Collections.synchronizedList(
+            new ArrayList<>(threads * rounds)
+        );
+        final long start = System.currentTimeMillis();
+        try (final Farm farm = new SyncFarm(new FkFarm())) {
+            final Project pmo = new Pmo(farm);
+            final Collection<Future<?>> futures = new ArrayList<>(threads);
+            for (int thread = 0; thread < threads; ++thread) {
+                final String file = names.get(thread);
+                futures.add(
+                    service.submit(
+                        () -> {
+                            for (int idx = 0; idx < rounds; ++idx) {
+                                final long begin = System.nanoTime();
+                                try (final Item item = pmo.acq(file)) {
+                                    item.path();
+                                    TimeUnit.MILLISECONDS.sleep(
+                                        (long) Tv.FIVE
+                                    );
+                                }
+                                latencies.add(
+                                    TimeUnit.NANOSECONDS.toMillis(
+                                        System.nanoTime() - begin
+                                    )
+                                );
+                            }
+                            return null;
+                        }
+                    )
+                );
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            service.shutdown();
+        }
+        final List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return new long[] {
+            System.currentTimeMillis() - start,
+            sorted.get(sorted.size() - sorted.size() / Tv.HUNDRED - 1),
+        };
+    }
+
+    /**
+     * Name of the file for a thread.
+     */
+    private interface Names {
+        /**
+         * Get the name.
+         * @param thread Number of the thread
+         * @return File name
+         */
+        String get(int thread);
+    }
+
+}
@@ -21,9 +21,18 @@ import com.zerocracy.Farm;
 import com.zerocracy.Item;
 import com.zerocracy.Project;
 import com.zerocracy.farm.fake.FkFarm;
+import com.zerocracy.farm.fake.FkProject;
 import com.zerocracy.pmo.Pmo;
+import java.io.IOException;
 import java.util.Collection;
 import java.util.LinkedList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
 import org.junit.Test;
@@ -34,6 +43,7 @@ import org.junit.Test;
  * @version $Id$
  * @since 0.10
  * @checkstyle JavadocMethodCheck (500 lines)
+ * @checkstyle ExecutableStatementCountCheck (500 lines)
  */
 public final class SyncProjectTest {
 
@@ -57,4 +67,233 @@ public final class SyncProjectTest {
         }
     }
 
+    @Test
+    public void doesNotBlockOtherFiles() throws Exception {
+        final ExecutorService service = Executors.newSingleThreadExecutor();
+        try (final Farm farm = new SyncFarm(new FkFarm())) {
+            final Project project = new Pmo(farm);
+            try (final Item item = project.acq("first.xml")) {
+                item.path();
+                MatcherAssert.assertThat(
+                    service.submit(
+                        () -> {
+                            try (final Item other = project.acq("second.xml")) {
+                                return other.path().toString();
+                            }
+                        }
+                    ).get(1L, TimeUnit.SECONDS),
+                    Matchers.endsWith("second.xml")
+                );
+            }
+        } finally {
+            service.shutdownNow();
+        }
+    }
+
+    @Test(expected = TimeoutException.class)
+    public void locksTheSameFileExclusively() throws Exception {
+        final ExecutorService service = Executors.newSingleThreadExecutor();
+        try (final Farm farm = new SyncFarm(new FkFarm())) {
+            final Project project = new Pmo(farm);
+            try (final Item item = project.acq("same.xml")) {
+                item.path();
+                service.submit(
+                    () -> {
+                        try (final Item other = project.acq("same.xml")) {
+                            return other.path();
+                        }
+                    }
+                ).get(1L, TimeUnit.SECONDS);
+            }
+        } finally {
+            service.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failsOnDeadlockInsteadOfWaiting() throws Exception {
+        final ExecutorService service = Executors.newSingleThreadExecutor();
+        try (final Farm farm = new SyncFarm(new FkFarm())) {
+            final Project project = new Pmo(farm);
+            final CountDownLatch held = new CountDownLatch(1);
+            final CountDownLatch waiting = new CountDownLatch(1);
+            final Future<?> other = service.submit(
+                () -> {
+                    try (final Item item = project.acq("b.xml")) {
+                        item.path();
+                        held.countDown();
+                        waiting.await();
+                        try (final Item next = project.acq("a.xml")) {
+                            return next.path();
+                        }
+                    }
+                }
+            );
+            try (final Item item = project.acq("a.xml")) {
+                item.path();
+                held.await();
+                waiting.countDown();
+                TimeUnit.MILLISECONDS.sleep((long) Tv.HUNDRED);
+                final long start = System.currentTimeMillis();
+                String error = "";
+                try (final Item next = project.acq("b.xml")) {
+                    next.path();
+                } catch (final IllegalStateException ex) {
+                    error = ex.getMessage();
+                }
+                MatcherAssert.assertThat(
+                    System.currentTimeMillis() - start,
+                    Matchers.lessThan(TimeUnit.SECONDS.toMillis(1L))
+                );
+                MatcherAssert.assertThat(error, Matchers.startsWith("Deadlock"));
+            }
+            other.get(1L, TimeUnit.SECONDS);
+        } finally {
+            service.shutdownNow();
+        }
+    }
+
+    @Test
+    public void reentersTheSameFile() throws Exception {
+        try (final Farm farm = new SyncFarm(new FkFarm())) {
+            final Project project = new Pmo(farm);
+            try (final Item item = project.acq("twice.xml")) {
+                try (final Item again = project.acq("twice.xml")) {
+                    MatcherAssert.assertThat(
+                        again.path(), Matchers.equalTo(item.path())
+                    );
+                }
+            }
+        }
+    }
+
+    @Test
+    public void sharesTheSameFileBetweenReaders() throws Exception {
+        final ExecutorService service = Executors.newSingleThreadExecutor();
+        try (final Farm farm = new SyncFarm(new FkFarm())) {
+            final Project project = new Pmo(farm);
+            try (final Item item = project.read("shared.xml")) {
+                item.path();
+                MatcherAssert.assertThat(
+                    service.submit(
+                        () -> {
+                            try (final Item other = project.read("shared.xml")) {
+                                return other.path().toString();
+                            }
+                        }
+                    ).get(1L, TimeUnit.SECONDS),
+                    Matchers.endsWith("shared.xml")
+                );
+            }
+        } finally {
+            service.shutdownNow();
+        }
+    }
+
+    @Test(expected = TimeoutException.class)
+    public void locksReadFileFromWriters() throws Exception {
+        final ExecutorService service = Executors.newSingleThreadExecutor();
+        try (final Farm farm = new SyncFarm(new FkFarm())) {
+            final Project project = new Pmo(farm);
+            try (final Item item = project.read("read.xml")) {
+                item.path();
+                service.submit(
+                    () -> {
+                        try (final Item other = project.acq("read.xml")) {
+                            return other.path();
+                        }
+                    }
+                ).get(1L, TimeUnit.SECONDS);
+            }
+        } finally {
+            service.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failsToUpgradeReadFileRightAway() throws Exception {
+        try (final Farm farm = new SyncFarm(new FkFarm())) {
+            final Project project = new Pmo(farm);
+            try (final Item item = project.read("upgrade.xml")) {
+                item.path();
+                final long start = System.currentTimeMillis();
+                String error = "";
+                try (final Item next = project.acq("upgrade.xml")) {
+                    next.path();
+                } catch (final IllegalStateException ex) {
+                    error = ex.getMessage();
+                }
+                MatcherAssert.assertThat(
+                    System.currentTimeMillis() - start,
+                    Matchers.lessThan(TimeUnit.SECONDS.toMillis(1L))
+                );
+                MatcherAssert.assertThat(
+                    error, Matchers.containsString("upgrade is not supported")
+                );
+            }
+            try (final Item item = project.acq("upgrade.xml")) {
+                MatcherAssert.assertThat(
+                    item.path().toString(), Matchers.endsWith("upgrade.xml")
+                );
+            }
+        }
+    }
+
+    @Test
+    public void readsFileHeldForWriting() throws Exception {
+        try (final Farm farm = new SyncFarm(new FkFarm())) {
+            final Project project = new Pmo(farm);
+            try (final Item item = project.acq("down.xml")) {
+                try (final Item again = project.read("down.xml")) {
+                    MatcherAssert.assertThat(
+                        again.path(), Matchers.equalTo(item.path())
+                    );
+                }
+            }
+        }
+    }
+
+    @Test
+    public void releasesLockWhenOriginFails() throws Exception {
+        final ExecutorService service = Executors.newSingleThreadExecutor();
+        final Project origin = new FkProject();
+        final AtomicBoolean broken = new AtomicBoolean(true);
+        final Project failing = new Project() {
+            @Override
+            public String pid() throws IOException {
+                return origin.pid();
+            }
+
+            @Override
+            public Item acq(final String file) throws IOException {
+                if (broken.getAndSet(false)) {
+                    throw new IllegalStateException("Leased by another node");
+                }
+                return origin.acq(file);
+            }
+        };
+        try (final Farm farm = new SyncFarm(new FkFarm(failing))) {
+            final Project project = farm.find("").iterator().next();
+            String error = "";
+            try (final Item item = project.acq("broken.xml")) {
+                item.path();
+            } catch (final IllegalStateException ex) {
+                error = ex.getMessage();
+            }
+            MatcherAssert.assertThat(error, Matchers.startsWith("Leased"));
+            MatcherAssert.assertThat(
+                service.submit(
+                    () -> {
+                        try (final Item item = project.acq("broken.xml")) {
+                            return item.path().toString();
+                        }
+                    }
+                ).get(1L, TimeUnit.SECONDS),
+                Matchers.endsWith("broken.xml")
+            );
+        } finally {
+            service.shutdownNow();
+        }
+    }
+
 }
@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.farm.sync;
+
+import com.jcabi.aspects.Tv;
+import com.jcabi.matchers.XhtmlMatchers;
+import com.jcabi.xml.XMLDocument;
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.xembly.Xembler;
+
+/**
+ * Test case for {@link Terminator}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class TerminatorTest {
+
+    @Test
+    public void interruptsTooLongHolder() throws Exception {
+        try (final Terminator terminator = new Terminator((long) Tv.HUNDRED)) {
+            terminator.submit("AAA", "roles.xml", new ItemLock("roles.xml"));
+            boolean interrupted = false;
+            try {
+                TimeUnit.SECONDS.sleep(Tv.FIVE);
+            } catch (final InterruptedException ex) {
+                interrupted = true;
+            }
+            MatcherAssert.assertThat(interrupted, Matchers.is(true));
+        }
+    }
+
+    @Test
+    public void ignoresReleasedHolders() throws Exception {
+        try (final Terminator terminator = new Terminator((long) Tv.HUNDRED)) {
+            for (int idx = 0; idx < Tv.THOUSAND; ++idx) {
+                terminator.submit(
+                    "BBB", "wbs.xml", new ItemLock("wbs.xml")
+                ).close();
+            }
+            TimeUnit.MILLISECONDS.sleep((long) Tv.FIVE * Tv.HUNDRED);
+            MatcherAssert.assertThat(
+                Thread.currentThread().isInterrupted(),
+                Matchers.is(false)
+            );
+        }
+    }
+
+    @Test
+    public void interruptsHolderAmongManyReleased() throws Exception {
+        try (final Terminator terminator =
+            new Terminator((long) Tv.FIVE * Tv.HUNDRED)) {
+            terminator.submit("DDD", "wbs.xml", new ItemLock("wbs.xml"));
+            for (int idx = 0; idx < Tv.TEN * Tv.THOUSAND; ++idx) {
+                terminator.submit(
+                    "DDD", "roles.xml", new ItemLock("roles.xml")
+                ).close();
+            }
+            boolean interrupted = false;
+            try {
+                TimeUnit.SECONDS.sleep(Tv.FIVE);
+            } catch (final InterruptedException ex) {
+                interrupted = true;
+            }
+            MatcherAssert.assertThat(interrupted, Matchers.is(true));
+        }
+    }
+
+    @Test
+    public void showsDeadlines() throws Exception {
+        try (final Terminator terminator = new Terminator(Long.MAX_VALUE / 2)) {
+            final Closeable deadline = terminator.submit(
+                "CCC", "orders.xml", new ItemLock("orders.xml")
+            );
+            MatcherAssert.assertThat(
+                new XMLDocument(
+                    new Xembler(terminator.value()).xmlQuietly()
+                ),
+                XhtmlMatchers.hasXPaths(
+                    "/terminator/deadline[@pid='CCC' and @file='orders.xml']"
+                )
+            );
+            deadline.close();
+            MatcherAssert.assertThat(
+                new XMLDocument(
+                    new Xembler(terminator.value()).xmlQuietly()
+                ).nodes("/terminator/deadline"),
+                Matchers.empty()
+            );
+        }
+    }
+
+}
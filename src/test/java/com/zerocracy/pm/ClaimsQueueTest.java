@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.pm;
+
+import com.jcabi.xml.XML;
+import com.zerocracy.Xocument;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.cactoos.iterable.Limited;
+import org.cactoos.iterable.Mapped;
+import org.cactoos.list.ListOf;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link ClaimsQueue}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+@SuppressWarnings("PMD.AvoidDuplicateLiterals")
+public final class ClaimsQueueTest {
+
+    @Test
+    public void takesClaimsInOrderOfIds() throws Exception {
+        final ClaimsQueue queue = ClaimsQueue.of(ClaimsQueueTest.claims());
+        queue.add(new ClaimOut().type("second").cid(2L));
+        queue.add(new ClaimOut().type("first").cid(1L));
+        MatcherAssert.assertThat(
+            new Mapped<>(
+                xml -> new ClaimIn(xml).type(), queue.due("9999")
+            ),
+            Matchers.contains("first", "second")
+        );
+        MatcherAssert.assertThat(
+            new ClaimIn(queue.take("9999", 1).iterator().next()).type(),
+            Matchers.equalTo("first")
+        );
+        MatcherAssert.assertThat(queue.size("9999"), Matchers.equalTo(1));
+    }
+
+    @Test
+    public void takesManyClaimsAtOnce() throws Exception {
+        final Path file = ClaimsQueueTest.claims();
+        final ClaimsQueue queue = ClaimsQueue.of(file);
+        for (long cid = 1L; cid <= 3L; ++cid) {
+            queue.add(new ClaimOut().type("many").cid(cid).param("n", cid));
+        }
+        MatcherAssert.assertThat(
+            new Mapped<>(
+                xml -> new ClaimIn(xml).cid(), queue.take("9999", 2)
+            ),
+            Matchers.contains(1L, 2L)
+        );
+        MatcherAssert.assertThat(
+            new Xocument(file).xpath("/claims/claim/@id"),
+            Matchers.contains("3")
+        );
+    }
+
+    @Test
+    public void removesGivenClaimsAtOnce() throws Exception {
+        final Path file = ClaimsQueueTest.claims();
+        final ClaimsQueue queue = ClaimsQueue.of(file);
+        for (long cid = 1L; cid <= 3L; ++cid) {
+            queue.add(new ClaimOut().type("some").cid(cid).param("n", cid));
+        }
+        final Collection<XML> done = new ListOf<>(
+            new Limited<>(2, queue.due("9999"))
+        );
+        MatcherAssert.assertThat(queue.remove(done), Matchers.equalTo(2));
+        MatcherAssert.assertThat(queue.remove(done), Matchers.equalTo(0));
+        MatcherAssert.assertThat(
+            new Xocument(file).xpath("/claims/claim/@id"),
+            Matchers.contains("3")
+        );
+        MatcherAssert.assertThat(queue.size("9999"), Matchers.equalTo(1));
+    }
+
+    @Test
+    public void keepsDelayedClaimsUntilTheirTime() throws Exception {
+        final ClaimsQueue queue = ClaimsQueue.of(ClaimsQueueTest.claims());
+        queue.add(
+            new ClaimOut().type("later").until(TimeUnit.DAYS.toSeconds(1L))
+        );
+        MatcherAssert.assertThat(
+            queue.take("2000", 1).isEmpty(), Matchers.is(true)
+        );
+        MatcherAssert.assertThat(queue.size("9999"), Matchers.equalTo(1));
+    }
+
+    @Test
+    public void rejectsDuplicateClaims() throws Exception {
+        final ClaimsQueue queue = ClaimsQueue.of(ClaimsQueueTest.claims());
+        queue.add(new ClaimOut().type("twice").param("a", "b"));
+        MatcherAssert.assertThat(
+            queue.add(new ClaimOut().type("twice").param("a", "b")),
+            Matchers.is(false)
+        );
+        MatcherAssert.assertThat(queue.size("9999"), Matchers.equalTo(1));
+    }
+
+    @Test
+    public void recoversFromChangedFile() throws Exception {
+        final Path file = ClaimsQueueTest.claims();
+        final ClaimsQueue queue = ClaimsQueue.of(file);
+        queue.add(new ClaimOut().type("lost"));
+        final Path copy = ClaimsQueueTest.claims();
+        ClaimsQueue.of(copy).add(new ClaimOut().type("found").cid(1L));
+        Files.copy(
+            copy, file, StandardCopyOption.REPLACE_EXISTING
+        );
+        final XML next = queue.take("9999", 1).iterator().next();
+        MatcherAssert.assertThat(
+            new ClaimIn(next).type(), Matchers.equalTo("found")
+        );
+        MatcherAssert.assertThat(queue.size("9999"), Matchers.equalTo(0));
+    }
+
+    /**
+     * Create claims.xml with a local schema, which allows anything.
+     * @return The file
+     * @throws Exception If fails
+     */
+    private static Path claims() throws Exception {
+        final Path xsd = Files.createTempFile("claims", ".xsd");
+        Files.write(
+            xsd,
+            String.join(
+                "",
+                "<xs:schema xmlns:xs='http://www.w3.org/2001/XMLSchema'>",
+                "<xs:element name='claims'><xs:complexType><xs:sequence>",
+                "<xs:any processContents='skip' minOccurs='0'",
+                " maxOccurs='unbounded'/></xs:sequence>",
+                "<xs:anyAttribute processContents='skip'/>",
+                "</xs:complexType></xs:element></xs:schema>"
+            ).getBytes(StandardCharsets.UTF_8)
+        );
+        final Path file = Files.createTempFile("claims", ".xml");
+        Files.write(
+            file,
+            String.join(
+                " ",
+                "<claims xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance'",
+                String.format(
+                    "xsi:noNamespaceSchemaLocation='%s'/>", xsd.toUri()
+                )
+            ).getBytes(StandardCharsets.UTF_8)
+        );
+        return file;
+    }
+
+}
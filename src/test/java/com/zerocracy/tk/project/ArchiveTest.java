@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2016-2018 Zerocracy
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to read
+ * the Software only. Permissions is hereby NOT GRANTED to use, copy, modify,
+ * merge, publish, distribute, sublicense, and/or sell copies of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NON-INFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.zerocracy.tk.project;
+
+import com.jcabi.aspects.Tv;
+import com.zerocracy.Item;
+import com.zerocracy.Project;
+import com.zerocracy.farm.fake.FkProject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import org.apache.commons.io.IOUtils;
+import org.hamcrest.MatcherAssert;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+/**
+ * Test case for {@link Archive}.
+ * @author Yegor Bugayenko (yegor256@gmail.com)
+ * @version $Id$
+ * @since 0.22
+ * @checkstyle JavadocMethodCheck (500 lines)
+ */
+public final class ArchiveTest {
+
+    @Test
+    public void archivesAllArtifactsInOrder() throws Exception {
+        final Project project = new FkProject();
+        final List<String> names = new LinkedList<>();
+        for (int idx = 0; idx < Tv.TEN; ++idx) {
+            final String name = String.format("file-%d.xml", idx);
+            try (final Item item = project.acq(name)) {
+                Files.write(
+                    item.path(),
+                    String.format("<f%d/>", idx)
+                        .getBytes(StandardCharsets.UTF_8)
+                );
+            }
+            names.add(name);
+        }
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new Archive(project, names).writeTo(baos);
+        final List<String> found = new LinkedList<>();
+        try (final ZipInputStream zip = new ZipInputStream(
+            new ByteArrayInputStream(baos.toByteArray())
+        )) {
+            ZipEntry entry = zip.getNextEntry();
+            while (entry != null) {
+                found.add(
+                    String.format(
+                        "%s:%s", entry.getName(),
+                        IOUtils.toString(zip, StandardCharsets.UTF_8)
+                    )
+                );
+                entry = zip.getNextEntry();
+            }
+        }
+        MatcherAssert.assertThat(found, Matchers.hasSize(Tv.TEN));
+        MatcherAssert.assertThat(
+            found,
+            Matchers.hasItems("file-0.xml:<f0/>", "file-9.xml:<f9/>")
+        );
+        MatcherAssert.assertThat(
+            found.get(Tv.FIVE),
+            Matchers.startsWith("file-5.xml")
+        );
+    }
+
+    @Test
+    public void reportsOnlyWhenReadToTheEnd() throws Exception {
+        final Project project = new FkProject();
+        try (final Item item = project.acq("a.xml")) {
+            Files.write(item.path(), "<a/>".getBytes(StandardCharsets.UTF_8));
+        }
+        final AtomicInteger done = new AtomicInteger(-1);
+        try (final InputStream input = new Archive(
+            project, Collections.singletonList("a.xml")
+        ).stream(done::set)) {
+            input.read();
+            MatcherAssert.assertThat(done.get(), Matchers.equalTo(-1));
+            IOUtils.toByteArray(input);
+        }
+        MatcherAssert.assertThat(done.get(), Matchers.equalTo(1));
+    }
+
+}